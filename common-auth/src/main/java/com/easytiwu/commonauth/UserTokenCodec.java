@@ -0,0 +1,105 @@
+package com.easytiwu.commonauth;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * 用户令牌编解码
+ * 令牌为 base64url(用户ID.过期时间) + "." + base64url(HMAC-SHA256 签名)，签发方（service-auth）与校验方共享密钥；
+ * 校验只做一次 HMAC 计算，不查询用户表
+ *
+ * @author sheny
+ */
+public final class UserTokenCodec {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final long ttlSeconds;
+
+    /**
+     * @param secret     签名密钥，UTF-8 编码后至少 32 字节
+     * @param ttlSeconds 令牌有效期（秒）
+     */
+    public UserTokenCodec(String secret, long ttlSeconds) {
+        byte[] bytes = secret == null ? new byte[0] : secret.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalArgumentException("令牌密钥至少需要 " + MIN_SECRET_BYTES + " 字节");
+        }
+        if (ttlSeconds <= 0) {
+            throw new IllegalArgumentException("令牌有效期必须为正数");
+        }
+        this.key = new SecretKeySpec(bytes, ALGORITHM);
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    /**
+     * 签发令牌
+     *
+     * @param userId         用户ID
+     * @param nowEpochSecond 当前时间（秒）
+     * @return 令牌
+     */
+    public String issue(long userId, long nowEpochSecond) {
+        byte[] payload = (userId + "." + (nowEpochSecond + ttlSeconds)).getBytes(StandardCharsets.US_ASCII);
+        return ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    /**
+     * 校验令牌并取出用户ID
+     *
+     * @param token          令牌
+     * @param nowEpochSecond 当前时间（秒）
+     * @return 用户ID；格式错误、签名不符或已过期时返回 null
+     */
+    public Long verify(String token, long nowEpochSecond) {
+        if (token == null) {
+            return null;
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            return null;
+        }
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = DECODER.decode(token.substring(0, dot));
+            signature = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(sign(payload), signature)) {
+            return null;
+        }
+        String claims = new String(payload, StandardCharsets.US_ASCII);
+        int sep = claims.indexOf('.');
+        if (sep <= 0) {
+            return null;
+        }
+        try {
+            long userId = Long.parseLong(claims.substring(0, sep));
+            long expiresAt = Long.parseLong(claims.substring(sep + 1));
+            return expiresAt > nowEpochSecond ? userId : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        try {
+            // Mac 不是线程安全的，每次签名单独创建
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("无法计算令牌签名", e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.easytiwu.commonauth;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author sheny
+ */
+class UserTokenCodecTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private final UserTokenCodec codec = new UserTokenCodec(SECRET, 3600);
+
+    @Test
+    void roundTripsUserIdUntilExpiry() {
+        String token = codec.issue(42L, 1_000L);
+        assertEquals(42L, codec.verify(token, 1_000L));
+        assertEquals(42L, codec.verify(token, 4_599L));
+        assertNull(codec.verify(token, 4_600L));
+    }
+
+    @Test
+    void rejectsTamperedPayload() {
+        String token = codec.issue(42L, 1_000L);
+        String forged = codec.issue(43L, 1_000L);
+        // 换上其他用户的载荷，签名不再匹配
+        String spliced = forged.substring(0, forged.indexOf('.')) + token.substring(token.indexOf('.'));
+        assertNull(codec.verify(spliced, 1_000L));
+    }
+
+    @Test
+    void rejectsTokenSignedWithAnotherSecret() {
+        UserTokenCodec other = new UserTokenCodec("fedcba9876543210fedcba9876543210", 3600);
+        assertNull(codec.verify(other.issue(42L, 1_000L), 1_000L));
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertNull(codec.verify(null, 0L));
+        assertNull(codec.verify("", 0L));
+        assertNull(codec.verify("42", 0L));
+        assertNull(codec.verify("a.b.c", 0L));
+        assertNull(codec.verify("!!!.???", 0L));
+    }
+
+    @Test
+    void requiresLongSecret() {
+        assertThrows(IllegalArgumentException.class, () -> new UserTokenCodec("short", 3600));
+    }
+}
@@ -0,0 +1,20 @@
+package com.easytiwu.commoncontent.entity;
+
+import lombok.Data;
+
+/**
+ * 题目内容的选项（question_content_options）
+ *
+ * @author sheny
+ */
+@Data
+public class QuestionContentOption {
+    private Long contentId;
+
+    /**
+     * 选项标识，单字符（如 A、B、C、D）
+     */
+    private String sortOrder;
+
+    private String optionContent;
+}
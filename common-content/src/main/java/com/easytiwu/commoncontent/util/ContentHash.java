@@ -0,0 +1,65 @@
+package com.easytiwu.commoncontent.util;
+
+import com.easytiwu.commoncontent.entity.QuestionContentOption;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * 题目内容哈希：题干、答案、解析与按标识有序的选项的 SHA-256，作为 question_contents 的去重键
+ * 每个字段以长度前缀编码，NULL 与空串可区分；上传服务、题库服务与 DB_MIGRATE.SQL 共用这一种编码
+ *
+ * @author sheny
+ */
+public final class ContentHash {
+
+    private ContentHash() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * 计算题目内容哈希
+     *
+     * @param content       题干
+     * @param correctAnswer 正确答案
+     * @param analysis      解析
+     * @param options       选项，顺序无关
+     * @return 64 位小写十六进制字符串
+     */
+    public static String of(String content, String correctAnswer, String analysis,
+                            List<QuestionContentOption> options) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+        field(digest, content);
+        field(digest, correctAnswer);
+        field(digest, analysis);
+        List<QuestionContentOption> sorted = new ArrayList<>(options);
+        sorted.sort(Comparator.comparing(QuestionContentOption::getSortOrder));
+        digest.update(ByteBuffer.allocate(4).putInt(sorted.size()).array());
+        for (QuestionContentOption option : sorted) {
+            field(digest, option.getSortOrder());
+            field(digest, option.getOptionContent());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void field(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update(ByteBuffer.allocate(4).putInt(-1).array());
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+}
@@ -0,0 +1,48 @@
+package com.easytiwu.commoncontent.util;
+
+import com.easytiwu.commoncontent.entity.QuestionContentOption;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * 固定值同时是已入库内容的去重键，算法改动会让新旧内容无法去重，也与 DB_MIGRATE.SQL 不一致
+ *
+ * @author sheny
+ */
+class ContentHashTest {
+
+    private static QuestionContentOption option(String label, String text) {
+        QuestionContentOption option = new QuestionContentOption();
+        option.setSortOrder(label);
+        option.setOptionContent(text);
+        return option;
+    }
+
+    @Test
+    void matchesHashSharedWithOtherService() {
+        assertEquals("176eac1b1dbdbcee0278704331c1ab256e62e77af053bf0c8cf3710efea2886f",
+                ContentHash.of("下列哪个是质数？", "B", "7 只能被 1 和自身整除",
+                        List.of(option("B", "7"), option("A", "8"))));
+        assertEquals("269f491c0b25b5ba377a753354d4c52c4e96305a312b5b136067c4a2b2ce4209",
+                ContentHash.of("", null, null, List.of()));
+    }
+
+    @Test
+    void ignoresOptionOrder() {
+        assertEquals(
+                ContentHash.of("题干", "A", null, List.of(option("A", "甲"), option("B", "乙"))),
+                ContentHash.of("题干", "A", null, List.of(option("B", "乙"), option("A", "甲"))));
+    }
+
+    @Test
+    void distinguishesNullFromEmptyAndFieldBoundaries() {
+        assertNotEquals(ContentHash.of("题干", null, null, List.of()),
+                ContentHash.of("题干", "", null, List.of()));
+        assertNotEquals(ContentHash.of("ab", "c", null, List.of()),
+                ContentHash.of("a", "bc", null, List.of()));
+    }
+}
@@ -18,6 +18,8 @@ export interface User {
   isActive: number;
   createdAt: string;
   updatedAt: string;
+  /** 登录令牌，仅登录接口返回 */
+  token?: string;
 }
 
 export interface AuthResponse {
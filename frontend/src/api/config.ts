@@ -10,6 +10,18 @@ const api = axios.create({
 
 api.interceptors.request.use(
   (config) => {
+    // 登录用户携带登录令牌，服务端据此确定用户，作答进度按用户隔离
+    const userInfo = localStorage.getItem("user-info");
+    if (userInfo) {
+      try {
+        const user = JSON.parse(userInfo);
+        if (user && user.token) {
+          config.headers["Authorization"] = `Bearer ${user.token}`;
+        }
+      } catch {
+        // 忽略损坏的本地缓存
+      }
+    }
     return config;
   },
   (error) => {
@@ -77,6 +89,9 @@ export const contentAPI = {
   verifyAnswer: (questionId: number, userAnswer: string) => {
     return api.post("/api/v1/content/verify-answer", { questionId, userAnswer });
   },
+  verifyAnswers: (answers: { questionId: number; userAnswer: string }[]) => {
+    return api.post("/api/v1/content/verify-answers", { answers });
+  },
 };
 
 export const statisticsAPI = {
@@ -0,0 +1,21 @@
+package com.easytiwu.serviceauth.config;
+
+import com.easytiwu.commonauth.UserTokenCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 用户令牌签发配置，密钥须与校验令牌的服务一致
+ *
+ * @author sheny
+ */
+@Configuration
+public class UserTokenConfig {
+
+    @Bean
+    public UserTokenCodec userTokenCodec(@Value("${auth.token.secret}") String secret,
+                                         @Value("${auth.token.ttl-seconds:604800}") long ttlSeconds) {
+        return new UserTokenCodec(secret, ttlSeconds);
+    }
+}
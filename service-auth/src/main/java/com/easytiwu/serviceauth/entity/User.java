@@ -55,4 +55,10 @@ public class User {
      */
     @TableField(value = "updated_at", fill = FieldFill.INSERT_UPDATE)
     private LocalDateTime updateTime;
+
+    /**
+     * 登录令牌，仅登录成功时返回，不落库
+     */
+    @TableField(exist = false)
+    private String token;
 }
\ No newline at end of file
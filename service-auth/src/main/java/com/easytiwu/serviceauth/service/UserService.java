@@ -1,6 +1,7 @@
 package com.easytiwu.serviceauth.service;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.easytiwu.commonauth.UserTokenCodec;
 import com.easytiwu.commonexception.enums.ErrorCode;
 import com.easytiwu.commonexception.exception.BusinessException;
 import com.easytiwu.serviceauth.dto.UserLoginDTO;
@@ -10,6 +11,8 @@ import com.easytiwu.serviceauth.mapper.UserMapper;
 import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+
 /**
  * 用户服务实现类
  */
@@ -18,10 +21,13 @@ public class UserService extends ServiceImpl<UserMapper, User> {
     
     private final UserMapper userMapper;
     private final PasswordEncoderService passwordEncoderService;
+    private final UserTokenCodec userTokenCodec;
     
-    public UserService(UserMapper userMapper, PasswordEncoderService passwordEncoderService) {
+    public UserService(UserMapper userMapper, PasswordEncoderService passwordEncoderService,
+                       UserTokenCodec userTokenCodec) {
         this.userMapper = userMapper;
         this.passwordEncoderService = passwordEncoderService;
+        this.userTokenCodec = userTokenCodec;
     }
     
     /**
@@ -55,7 +61,7 @@ public class UserService extends ServiceImpl<UserMapper, User> {
     /**
      * 用户登录
      * @param userLoginDTO 用户登录信息
-     * @return 登录成功的用户信息
+     * @return 登录成功的用户信息，附带登录令牌
      */
     public User login(UserLoginDTO userLoginDTO) {
         // 根据邮箱查找用户
@@ -74,8 +80,9 @@ public class UserService extends ServiceImpl<UserMapper, User> {
             throw new BusinessException(ErrorCode.FORBIDDEN, "账户未激活");
         }
         
-        // 清除密码信息后返回
+        // 清除密码信息并签发令牌后返回
         user.setPassword(null);
+        user.setToken(userTokenCodec.issue(user.getId(), Instant.now().getEpochSecond()));
         return user;
     }
 }
\ No newline at end of file
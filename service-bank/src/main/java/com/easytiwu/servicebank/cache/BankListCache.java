@@ -0,0 +1,95 @@
+package com.easytiwu.servicebank.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 题库列表短期缓存
+ * 本服务内的新建、合并、删除在事务提交后立即失效；其他服务写入的变化（上传导入、作答计数）依赖短 TTL 收敛
+ *
+ * @author sheny
+ */
+@Component
+public class BankListCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 失效代数，加载开始后发生失效的结果不写入缓存，避免把旧数据放回去
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    @Value("${bank.list-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${bank.list-cache.ttl-ms:5000}")
+    private long ttlMs;
+
+    @Value("${bank.list-cache.max-entries:512}")
+    private int maxEntries;
+
+    /**
+     * 读取缓存，未命中或已过期时调用 loader 加载并写入
+     *
+     * @param key    缓存键
+     * @param loader 加载函数
+     * @return 缓存值
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt > now) {
+            return (T) entry.value;
+        }
+        long gen = generation.get();
+        T value = loader.get();
+        if (value != null && generation.get() == gen) {
+            if (entries.size() >= maxEntries) {
+                entries.values().removeIf(e -> e.expiresAt <= now);
+                if (entries.size() >= maxEntries) {
+                    entries.clear();
+                }
+            }
+            entries.put(key, new Entry(value, now + ttlMs));
+        }
+        return value;
+    }
+
+    /**
+     * 立即清空缓存
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    /**
+     * 当前事务提交后清空缓存，无事务时立即清空
+     */
+    public void invalidateAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate();
+            }
+        });
+    }
+
+    private record Entry(Object value, long expiresAt) {
+    }
+}
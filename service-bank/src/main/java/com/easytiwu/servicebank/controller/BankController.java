@@ -2,15 +2,30 @@ package com.easytiwu.servicebank.controller;
 
 import com.easytiwu.commonexception.enums.ErrorCode;
 import com.easytiwu.commonexception.result.Result;
+import com.easytiwu.servicebank.dto.BankPageDTO;
+import com.easytiwu.servicebank.dto.BankPurgeProgressDTO;
 import com.easytiwu.servicebank.dto.MergeBankRequest;
+import com.easytiwu.servicebank.dto.MergeBanksRequest;
+import com.easytiwu.servicebank.dto.MergeBanksResultDTO;
 import com.easytiwu.servicebank.dto.QuestionBankDTO;
+import com.easytiwu.servicebank.dto.UpdateQuestionContentRequest;
+import com.easytiwu.servicebank.entity.QuestionBank;
+import com.easytiwu.servicebank.service.BankExportService;
+import com.easytiwu.servicebank.service.BankPurgeService;
 import com.easytiwu.servicebank.service.QuestionBankService;
+import com.easytiwu.servicebank.service.QuestionContentService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
@@ -24,9 +39,16 @@ import java.util.List;
 public class BankController {
 
     private final QuestionBankService questionBankService;
+    private final BankPurgeService bankPurgeService;
+    private final BankExportService bankExportService;
+    private final QuestionContentService questionContentService;
 
-    public BankController(QuestionBankService questionBankService) {
+    public BankController(QuestionBankService questionBankService, BankPurgeService bankPurgeService,
+                          BankExportService bankExportService, QuestionContentService questionContentService) {
         this.questionBankService = questionBankService;
+        this.bankPurgeService = bankPurgeService;
+        this.bankExportService = bankExportService;
+        this.questionContentService = questionContentService;
     }
     
     /**
@@ -39,12 +61,19 @@ public class BankController {
 
     /**
      * 查询所有题库
+     * 支持 If-None-Match 条件请求，列表未变化时返回 304
      * @return 题库列表
      */
     @GetMapping
-    public Result<List<QuestionBankDTO>> getAllQuestionBanks() {
+    public Result<List<QuestionBankDTO>> getAllQuestionBanks(ServletWebRequest webRequest) {
         try {
             log.info("接收到查询所有题库的请求");
+            if (webRequest.checkNotModified(questionBankService.getQuestionBanksEtag())) {
+                return null;
+            }
+            if (webRequest.getResponse() != null) {
+                webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            }
             List<QuestionBankDTO> questionBanks = questionBankService.getAllQuestionBanks();
             
             if (questionBanks == null || questionBanks.isEmpty()) {
@@ -60,6 +89,23 @@ public class BankController {
         }
     }
 
+    /**
+     * 分页查询题库
+     * @param prefix 名称前缀（可选）
+     * @param sort   排序方式：created、progress、name
+     * @param cursor 上一页返回的游标
+     * @param limit  每页数量
+     * @return 本页题库与下一页游标
+     */
+    @GetMapping("/page")
+    public Result<BankPageDTO> listQuestionBanks(
+            @RequestParam(value = "prefix", required = false) String prefix,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return Result.success(questionBankService.listQuestionBanks(prefix, sort, cursor, limit));
+    }
+
     /**
      * 删除题库
      * @param id 题库ID
@@ -80,6 +126,64 @@ public class BankController {
         }
     }
 
+    /**
+     * 导出题库为 JSONL，可选 gzip 或 zip 压缩，直接写入响应流
+     * 每行一道题目，格式与上传导入的 JSONL 一致，可原样导入其他环境
+     * @param id     题库ID
+     * @param format 导出格式：jsonl（默认）、gzip、zip
+     */
+    @GetMapping("/{id}/export")
+    public void exportQuestionBank(
+            @PathVariable("id")
+            @Min(value = 1, message = "题库ID必须大于0")
+            Long id,
+            @RequestParam(value = "format", required = false) String format,
+            HttpServletResponse response) throws IOException {
+        BankExportService.Format exportFormat = BankExportService.Format.parse(format);
+        QuestionBank bank = bankExportService.requireBank(id);
+        log.info("接收到导出题库请求，ID: {}，格式: {}", id, exportFormat);
+
+        response.setContentType(exportFormat.getContentType());
+        if (exportFormat == BankExportService.Format.JSONL) {
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(bank.getName() + exportFormat.getExtension(), StandardCharsets.UTF_8)
+                .build().toString());
+        try {
+            bankExportService.export(id, exportFormat, response.getOutputStream());
+        } catch (IOException e) {
+            // 响应已开始写出，无法再返回错误结果，多为客户端中途断开
+            log.warn("导出题库中断，ID: {}，原因: {}", id, e.getMessage());
+        }
+    }
+
+    /**
+     * 编辑题目内容
+     * 内容在题库间共享，编辑只改写本题的引用，复制或合并出的其他题目保持原内容
+     * @param questionId 题目ID
+     * @param request    新内容
+     * @return 题目现在引用的内容ID
+     */
+    @PutMapping("/questions/{questionId}/content")
+    public Result<Long> updateQuestionContent(
+            @PathVariable("questionId")
+            @Min(value = 1, message = "题目ID必须大于0")
+            Long questionId,
+            @Validated @RequestBody UpdateQuestionContentRequest request) {
+        log.info("接收到编辑题目内容请求，题目ID: {}", questionId);
+        return Result.success(questionContentService.updateContent(questionId, request));
+    }
+
+    /**
+     * 查询已删除题库的后台清理进度
+     * @return 各个待清理题库的进度
+     */
+    @GetMapping("/purges")
+    public Result<List<BankPurgeProgressDTO>> getPurgeProgress() {
+        return Result.success(bankPurgeService.progress());
+    }
+
     /**
      * 合并两个题库并创建新题库
      *
@@ -105,4 +209,21 @@ public class BankController {
             throw e;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 合并任意多个题库并创建新题库，内容重复的题目只保留一道
+     *
+     * @param request 合并请求参数
+     * @return 合并结果
+     */
+    @PostMapping("/merge-many")
+    public Result<MergeBanksResultDTO> mergeManyBanks(@Validated @RequestBody MergeBanksRequest request) {
+        log.info("接收到多题库合并请求: bankIds={}, name={}", request.getBankIds(), request.getName());
+        MergeBanksResultDTO result = questionBankService.mergeBanks(
+                request.getBankIds(),
+                request.getName(),
+                request.getDescription()
+        );
+        return Result.success(result);
+    }
+}
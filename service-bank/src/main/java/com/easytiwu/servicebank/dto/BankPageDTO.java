@@ -0,0 +1,19 @@
+package com.easytiwu.servicebank.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 题库分页结果
+ * @author sheny
+ */
+@Data
+public class BankPageDTO {
+    private List<QuestionBankDTO> items;
+
+    /**
+     * 下一页游标，原样回传即可；为空表示没有更多
+     */
+    private String nextCursor;
+}
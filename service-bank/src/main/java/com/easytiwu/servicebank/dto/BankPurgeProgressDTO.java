@@ -0,0 +1,26 @@
+package com.easytiwu.servicebank.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 已删除题库的后台清理进度DTO
+ * @author sheny
+ */
+@Data
+public class BankPurgeProgressDTO {
+    private Long bankId;
+    private String name;
+    private LocalDateTime deletedAt;
+
+    /**
+     * 删除时的题目总数
+     */
+    private Integer totalQuestions;
+
+    /**
+     * 已清理的题目数
+     */
+    private Integer purgedQuestions;
+}
@@ -0,0 +1,27 @@
+package com.easytiwu.servicebank.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 多题库合并请求DTO
+ * @author sheny
+ */
+@Data
+public class MergeBanksRequest {
+
+    @NotEmpty(message = "源题库ID不能为空")
+    @Size(max = 50, message = "一次最多合并 50 个题库")
+    private List<@NotNull(message = "题库ID不能为空") @Min(value = 1, message = "题库ID必须大于0") Long> bankIds;
+
+    @NotBlank(message = "新题库名称不能为空")
+    private String name;
+
+    private String description;
+}
@@ -0,0 +1,31 @@
+package com.easytiwu.servicebank.dto;
+
+import lombok.Data;
+
+/**
+ * 多题库合并结果DTO
+ * @author sheny
+ */
+@Data
+public class MergeBanksResultDTO {
+
+    /**
+     * 新题库ID
+     */
+    private Long bankId;
+
+    /**
+     * 源题库题目总数
+     */
+    private Integer sourceQuestions;
+
+    /**
+     * 去重后写入新题库的题目数
+     */
+    private Integer mergedQuestions;
+
+    /**
+     * 因内容重复被跳过的题目数
+     */
+    private Integer duplicates;
+}
@@ -0,0 +1,40 @@
+package com.easytiwu.servicebank.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 编辑题目内容请求DTO，字段与导入的 JSONL 一致
+ * @author sheny
+ */
+@Data
+public class UpdateQuestionContentRequest {
+
+    @NotBlank(message = "题干不能为空")
+    private String content;
+
+    @NotNull(message = "正确答案不能为空")
+    @Size(max = 1024, message = "正确答案过长")
+    private String correctAnswer;
+
+    private String analysis;
+
+    @Valid
+    @Size(max = 26, message = "选项最多 26 个")
+    private List<Option> options;
+
+    @Data
+    public static class Option {
+        @NotBlank(message = "选项标识不能为空")
+        @Size(max = 1, message = "选项标识只能是单个字符")
+        private String label;
+
+        @NotNull(message = "选项内容不能为空")
+        private String text;
+    }
+}
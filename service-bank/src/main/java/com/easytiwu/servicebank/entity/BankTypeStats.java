@@ -0,0 +1,17 @@
+package com.easytiwu.servicebank.entity;
+
+import lombok.Data;
+
+/**
+ * 单个题库某一题型的题目统计，对应 question_bank_type_stats 的一行或按题目表实际统计的结果
+ *
+ * @author sheny
+ */
+@Data
+public class BankTypeStats {
+    private Long bankId;
+    private String type;
+    private Integer questionCount;
+    private Integer completedCount;
+    private Integer correctCount;
+}
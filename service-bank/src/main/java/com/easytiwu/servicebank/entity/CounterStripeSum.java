@@ -0,0 +1,34 @@
+package com.easytiwu.servicebank.entity;
+
+import lombok.Data;
+
+/**
+ * 单个题库在计数分片表上尚未折叠的增量合计，按题型分组时 type 为对应题型
+ *
+ * @author sheny
+ */
+@Data
+public class CounterStripeSum {
+    private Long bankId;
+    private String type;
+    private Integer questionDelta;
+    private Integer completedDelta;
+    private Integer wrongDelta;
+    private Integer correctDelta;
+    private Long versionDelta;
+
+    public boolean isEmpty() {
+        return !hasStatsDelta() && isZero(wrongDelta) && (versionDelta == null || versionDelta == 0);
+    }
+
+    /**
+     * 是否含有影响题型统计的增量
+     */
+    public boolean hasStatsDelta() {
+        return !isZero(questionDelta) || !isZero(completedDelta) || !isZero(correctDelta);
+    }
+
+    private static boolean isZero(Integer value) {
+        return value == null || value == 0;
+    }
+}
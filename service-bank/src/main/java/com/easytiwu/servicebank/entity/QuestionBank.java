@@ -26,6 +26,11 @@ public class QuestionBank {
     @TableField("wrong_count")
     private Integer wrongCount;
 
+    /**
+     * 软删除标记，由全局逻辑删除配置自动过滤
+     */
+    private Integer deleted;
+
     @TableField(value = "created_at", fill = FieldFill.DEFAULT)
     private LocalDateTime createdAt;
 
@@ -0,0 +1,22 @@
+package com.easytiwu.servicebank.entity;
+
+import lombok.Data;
+
+/**
+ * 共享的题目内容（question_contents），写入后不再修改
+ *
+ * @author sheny
+ */
+@Data
+public class QuestionContent {
+    private Long id;
+
+    /**
+     * 内容哈希，十六进制，见 ContentHash
+     */
+    private String hash;
+
+    private String content;
+    private String correctAnswer;
+    private String analysis;
+}
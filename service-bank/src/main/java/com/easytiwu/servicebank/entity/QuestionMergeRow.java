@@ -0,0 +1,22 @@
+package com.easytiwu.servicebank.entity;
+
+import lombok.Data;
+
+/**
+ * 合并与导出时流式读取的题目与选项扁平行
+ * 每行对应一个选项；无选项的题目仅有一行，option 字段为 NULL
+ *
+ * @author sheny
+ */
+@Data
+public class QuestionMergeRow {
+    private Long id;
+    private Long contentId;
+    private String type;
+    private String content;
+    private String correctAnswer;
+    private String analysis;
+
+    private String optionLabel;
+    private String optionText;
+}
@@ -0,0 +1,99 @@
+package com.easytiwu.servicebank.job;
+
+import com.easytiwu.servicebank.service.BankPurgeService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已删除题库后台清理任务
+ * 逐个题库按键集分批删除，批间暂停以让出 IO 与锁，避免影响在线读写
+ *
+ * @author sheny
+ */
+@Slf4j
+@Component
+public class BankPurgeJob {
+
+    /**
+     * 每清理这么多批输出一次进度日志
+     */
+    private static final int LOG_EVERY_CHUNKS = 20;
+
+    private final BankPurgeService bankPurgeService;
+    private ScheduledExecutorService scheduler;
+
+    @Value("${bank.purge.enabled:true}")
+    private boolean enabled;
+
+    @Value("${bank.purge.interval-ms:5000}")
+    private long intervalMs;
+
+    @Value("${bank.purge.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${bank.purge.pause-ms:50}")
+    private long pauseMs;
+
+    public BankPurgeJob(BankPurgeService bankPurgeService) {
+        this.bankPurgeService = bankPurgeService;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "bank-purge");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::run, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void run() {
+        try {
+            for (Long bankId : bankPurgeService.purgeQueue()) {
+                purge(bankId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("清理已删除题库失败，下个周期重试", e);
+        }
+    }
+
+    private void purge(Long bankId) throws InterruptedException {
+        long lastId = 0;
+        int chunks = 0;
+        long purged = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            long next = bankPurgeService.purgeChunk(bankId, lastId, chunkSize);
+            if (next < 0) {
+                return;
+            }
+            lastId = next;
+            purged += chunkSize;
+            if (++chunks % LOG_EVERY_CHUNKS == 0) {
+                log.info("清理已删除题库中，ID: {}，本轮已清理约 {} 道题目", bankId, purged);
+            }
+            if (pauseMs > 0) {
+                TimeUnit.MILLISECONDS.sleep(pauseMs);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.easytiwu.servicebank.job;
+
+import com.easytiwu.servicebank.service.QuestionContentService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 无引用题目内容回收任务
+ * 题库清理或题目编辑后旧内容可能不再被任何题目引用，按主键分批扫描回收
+ *
+ * @author sheny
+ */
+@Slf4j
+@Component
+public class ContentGcJob {
+
+    private final QuestionContentService questionContentService;
+    private ScheduledExecutorService scheduler;
+
+    @Value("${bank.content-gc.enabled:true}")
+    private boolean enabled;
+
+    @Value("${bank.content-gc.interval-ms:3600000}")
+    private long intervalMs;
+
+    @Value("${bank.content-gc.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${bank.content-gc.pause-ms:50}")
+    private long pauseMs;
+
+    public ContentGcJob(QuestionContentService questionContentService) {
+        this.questionContentService = questionContentService;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "content-gc");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::run, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void run() {
+        try {
+            long afterId = 0;
+            while (!Thread.currentThread().isInterrupted()) {
+                afterId = questionContentService.collectChunk(afterId, chunkSize);
+                if (afterId < 0) {
+                    return;
+                }
+                if (pauseMs > 0) {
+                    TimeUnit.MILLISECONDS.sleep(pauseMs);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("回收无引用题目内容失败，下个周期重试", e);
+        }
+    }
+}
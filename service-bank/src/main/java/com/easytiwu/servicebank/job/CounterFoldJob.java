@@ -0,0 +1,76 @@
+package com.easytiwu.servicebank.job;
+
+import com.easytiwu.servicebank.service.CounterReconcileService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 题库计数分片折叠任务
+ * 题目增删与作答只写计数分片，本任务按固定间隔把各题库的分片增量合并进题库行与题型统计表，
+ * 题库列表、按进度排序与统计概览读到的计数最多滞后一个间隔
+ *
+ * @author sheny
+ */
+@Slf4j
+@Component
+public class CounterFoldJob {
+
+    private final CounterReconcileService counterReconcileService;
+    private ScheduledExecutorService scheduler;
+
+    @Value("${bank.counter-fold.enabled:true}")
+    private boolean enabled;
+
+    @Value("${bank.counter-fold.interval-ms:1000}")
+    private long intervalMs;
+
+    public CounterFoldJob(CounterReconcileService counterReconcileService) {
+        this.counterReconcileService = counterReconcileService;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "bank-counter-fold");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::run, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void run() {
+        try {
+            int folded = 0;
+            for (Long bankId : counterReconcileService.pendingFoldBankIds()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                if (counterReconcileService.fold(bankId)) {
+                    folded++;
+                }
+            }
+            if (folded > 0) {
+                log.debug("已折叠 {} 个题库的计数分片", folded);
+            }
+        } catch (Exception e) {
+            log.error("折叠题库计数分片失败，下个周期重试", e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.easytiwu.servicebank.job;
+
+import com.easytiwu.servicebank.service.CounterReconcileService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 题库计数定时校对任务
+ * 按主键分批遍历全部题库，逐个重算并修正计数与题型统计，批间暂停以限制对在线读写的影响
+ * 每轮结束后通过指标导出偏差，偏差长期为 0 时可以考虑去掉触发器改为异步汇总
+ *
+ * @author sheny
+ */
+@Slf4j
+@Component
+public class CounterReconcileJob {
+
+    private final CounterReconcileService counterReconcileService;
+    private final Counter repairedBanks;
+    private final Counter absoluteDrift;
+    private final AtomicLong lastPassDriftedBanks = new AtomicLong();
+    private final AtomicLong lastPassDrift = new AtomicLong();
+    private ScheduledExecutorService scheduler;
+
+    @Value("${bank.reconcile.enabled:true}")
+    private boolean enabled;
+
+    @Value("${bank.reconcile.interval-ms:600000}")
+    private long intervalMs;
+
+    @Value("${bank.reconcile.batch-size:100}")
+    private int batchSize;
+
+    @Value("${bank.reconcile.pause-ms:200}")
+    private long pauseMs;
+
+    public CounterReconcileJob(CounterReconcileService counterReconcileService, MeterRegistry meterRegistry) {
+        this.counterReconcileService = counterReconcileService;
+        this.repairedBanks = Counter.builder("bank.counter.repaired")
+                .description("计数被修正的题库累计次数")
+                .register(meterRegistry);
+        this.absoluteDrift = Counter.builder("bank.counter.drift.total")
+                .description("已修正的计数偏差绝对值累计")
+                .register(meterRegistry);
+        Gauge.builder("bank.counter.drift.banks", lastPassDriftedBanks, AtomicLong::get)
+                .description("最近一轮校对中计数有偏差的题库数")
+                .register(meterRegistry);
+        Gauge.builder("bank.counter.drift", lastPassDrift, AtomicLong::get)
+                .description("最近一轮校对中计数偏差绝对值之和")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "bank-counter-reconcile");
+            t.setDaemon(true);
+            return t;
+        });
+        // 升级前的存量题目没有题型统计，启动后立即校对一轮补建
+        long initialDelayMs = intervalMs;
+        try {
+            if (counterReconcileService.typeStatsSeedNeeded()) {
+                log.info("题型统计尚未建立，立即按题目表补建");
+                initialDelayMs = 0;
+            }
+        } catch (Exception e) {
+            log.error("检查题型统计失败，按正常周期校对", e);
+        }
+        scheduler.scheduleWithFixedDelay(this::run, initialDelayMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void run() {
+        try {
+            reconcileAll();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("校对题库计数失败，下个周期重试", e);
+        }
+    }
+
+    private void reconcileAll() throws InterruptedException {
+        long lastId = 0;
+        long banks = 0;
+        long driftedBanks = 0;
+        long drift = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Long> ids = counterReconcileService.liveBankIds(lastId, batchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            for (Long bankId : ids) {
+                CounterReconcileService.Drift d = counterReconcileService.reconcile(bankId);
+                if (!d.isZero()) {
+                    long abs = Math.abs(d.total()) + Math.abs(d.completed()) + Math.abs(d.wrong()) + d.typeStats();
+                    driftedBanks++;
+                    drift += abs;
+                    repairedBanks.increment();
+                    absoluteDrift.increment(abs);
+                }
+            }
+            banks += ids.size();
+            lastId = ids.get(ids.size() - 1);
+            if (pauseMs > 0) {
+                TimeUnit.MILLISECONDS.sleep(pauseMs);
+            }
+        }
+        long totalDrift = counterReconcileService.reconcileBankTotal();
+        if (totalDrift != 0) {
+            drift += Math.abs(totalDrift);
+            absoluteDrift.increment(Math.abs(totalDrift));
+        }
+        lastPassDriftedBanks.set(driftedBanks);
+        lastPassDrift.set(drift);
+        if (driftedBanks > 0) {
+            log.warn("题库计数校对完成，共 {} 个题库，修正 {} 个，偏差合计 {}", banks, driftedBanks, drift);
+        } else {
+            log.debug("题库计数校对完成，共 {} 个题库，无偏差", banks);
+        }
+    }
+}
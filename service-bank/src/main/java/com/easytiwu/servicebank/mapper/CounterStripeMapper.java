@@ -0,0 +1,86 @@
+package com.easytiwu.servicebank.mapper;
+
+import com.easytiwu.servicebank.entity.CounterStripeSum;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+/**
+ * 题库计数分片表访问
+ * 题目触发器把计数增量累加到 question_bank_counter_stripes，这里负责折叠回 question_banks 与题型统计表
+ * 加锁顺序固定为分片行、题库行、题型统计行，与触发器及内容服务的写入顺序一致
+ *
+ * @author sheny
+ */
+@Mapper
+public interface CounterStripeMapper {
+
+    /**
+     * 查询存在未折叠增量的题库
+     *
+     * @return 题库ID，升序
+     */
+    @Select("""
+            SELECT DISTINCT bank_id FROM question_bank_counter_stripes
+            WHERE question_delta <> 0 OR completed_delta <> 0 OR wrong_delta <> 0
+               OR correct_delta <> 0 OR version_delta <> 0
+            ORDER BY bank_id
+            """)
+    List<Long> selectPendingBankIds();
+
+    /**
+     * 锁定题库的全部分片行，按题型合计增量
+     *
+     * @param bankId 题库ID
+     * @return 各题型的增量合计，按题型排序以固定后续题型统计行的加锁顺序
+     */
+    @Select("""
+            SELECT bank_id, type,
+                   SUM(question_delta) AS question_delta,
+                   SUM(completed_delta) AS completed_delta,
+                   SUM(wrong_delta) AS wrong_delta,
+                   SUM(correct_delta) AS correct_delta,
+                   SUM(version_delta) AS version_delta
+            FROM question_bank_counter_stripes
+            WHERE bank_id = #{bankId}
+            GROUP BY bank_id, type
+            ORDER BY type
+            FOR UPDATE
+            """)
+    List<CounterStripeSum> selectSumsForUpdate(@Param("bankId") Long bankId);
+
+    /**
+     * 锁定题库行并读取删除标记
+     *
+     * @param bankId 题库ID
+     * @return 删除标记，题库行已物理删除时为 null
+     */
+    @Select("SELECT deleted FROM question_banks WHERE id = #{bankId} FOR UPDATE")
+    Integer lockBankDeleted(@Param("bankId") Long bankId);
+
+    /**
+     * 将增量合计累加到题库行
+     *
+     * @param sum 全部题型的增量合计
+     * @return 受影响行数
+     */
+    @Update("UPDATE question_banks SET completed_count = completed_count + #{completedDelta}, "
+            + "wrong_count = wrong_count + #{wrongDelta}, version = version + #{versionDelta} WHERE id = #{bankId}")
+    int applyToBank(CounterStripeSum sum);
+
+    /**
+     * 清零题库的全部分片，须与折叠写入在同一事务内
+     *
+     * @param bankId 题库ID
+     * @return 受影响行数
+     */
+    @Update("""
+            UPDATE question_bank_counter_stripes
+            SET question_delta = 0, completed_delta = 0, wrong_delta = 0, correct_delta = 0, version_delta = 0
+            WHERE bank_id = #{bankId}
+            """)
+    int clear(@Param("bankId") Long bankId);
+}
@@ -1,11 +1,195 @@
 package com.easytiwu.servicebank.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.easytiwu.servicebank.dto.BankPurgeProgressDTO;
 import com.easytiwu.servicebank.entity.QuestionBank;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * @author sheny
  */
 @Mapper
-public interface QuestionBankMapper extends BaseMapper<QuestionBank> {}
+public interface QuestionBankMapper extends BaseMapper<QuestionBank> {
+
+    /**
+     * 计算题库列表的版本指纹：题库增删改变数量与最大ID，题目增删及折叠后的作答变化改变版本号之和
+     *
+     * @return 形如 "数量-最大ID-版本和" 的指纹
+     */
+    @Select("SELECT CONCAT(COUNT(*), '-', COALESCE(MAX(id), 0), '-', COALESCE(SUM(version), 0)) "
+            + "FROM question_banks WHERE deleted = 0")
+    String selectListFingerprint();
+
+    /**
+     * 按键集分页查询未删除的题库
+     * 游标取上一页最后一行的排序值与ID；名称前缀走 idx_name 范围扫描，进度排序走 idx_progress
+     *
+     * @param prefix        名称前缀，已转义 LIKE 通配符，为空表示不过滤
+     * @param sort          排序方式：created、progress、name
+     * @param afterId       游标行ID，为空表示第一页
+     * @param afterCreated  游标行创建时间（created 排序）
+     * @param afterProgress 游标行进度千分比（progress 排序）
+     * @param afterName     游标行名称（name 排序）
+     * @param limit         最多返回行数
+     * @return 题库列表
+     */
+    @Select("""
+            <script>
+            SELECT id, name, description, total_count, completed_count, wrong_count, created_at
+            FROM question_banks
+            WHERE deleted = 0
+            <if test="prefix != null">
+              AND name LIKE CONCAT(#{prefix}, '%')
+            </if>
+            <choose>
+              <when test="sort == 'progress'">
+                <if test="afterId != null">
+                  AND (progress_permille &lt; #{afterProgress}
+                       OR (progress_permille = #{afterProgress} AND id &lt; #{afterId}))
+                </if>
+                ORDER BY progress_permille DESC, id DESC
+              </when>
+              <when test="sort == 'name'">
+                <if test="afterId != null">
+                  AND (name &gt; #{afterName} OR (name = #{afterName} AND id &gt; #{afterId}))
+                </if>
+                ORDER BY name, id
+              </when>
+              <otherwise>
+                <if test="afterId != null">
+                  AND (created_at &lt; #{afterCreated}
+                       OR (created_at = #{afterCreated} AND id &lt; #{afterId}))
+                </if>
+                ORDER BY created_at DESC, id DESC
+              </otherwise>
+            </choose>
+            LIMIT #{limit}
+            </script>
+            """)
+    List<QuestionBank> selectPage(@Param("prefix") String prefix, @Param("sort") String sort,
+                                  @Param("afterId") Long afterId, @Param("afterCreated") LocalDateTime afterCreated,
+                                  @Param("afterProgress") Integer afterProgress, @Param("afterName") String afterName,
+                                  @Param("limit") int limit);
+
+    /**
+     * 软删除题库，记录删除时的题目总数用于计算清理进度
+     *
+     * @param id 题库ID
+     * @return 受影响行数，题库不存在或已删除时为 0
+     */
+    @Update("UPDATE question_banks SET deleted = 1, deleted_at = NOW(), purge_total = total_count "
+            + "WHERE id = #{id} AND deleted = 0")
+    int softDelete(@Param("id") Long id);
+
+    /**
+     * 查询等待清理的题库，按删除时间先后
+     *
+     * @return 题库ID
+     */
+    @Select("SELECT id FROM question_banks WHERE deleted = 1 ORDER BY deleted_at, id")
+    List<Long> selectPurgeQueue();
+
+    /**
+     * 查询清理进度：已清理数 = 删除时题目总数 - 当前题目总数（删除触发器随题目删除递减）
+     *
+     * @return 清理进度
+     */
+    @Select("""
+            SELECT id AS bank_id, name, deleted_at, purge_total AS total_questions,
+                   GREATEST(CAST(purge_total AS SIGNED) - CAST(total_count AS SIGNED), 0) AS purged_questions
+            FROM question_banks
+            WHERE deleted = 1
+            ORDER BY deleted_at, id
+            """)
+    List<BankPurgeProgressDTO> selectPurgeProgress();
+
+    /**
+     * 题目清理完毕后物理删除题库行
+     *
+     * @param id 题库ID
+     * @return 受影响行数
+     */
+    @Delete("DELETE FROM question_banks WHERE id = #{id} AND deleted = 1")
+    int deletePurged(@Param("id") Long id);
+
+    /**
+     * 按主键顺序分批查询未删除的题库ID，供计数校对任务遍历
+     *
+     * @param afterId 上一批最后一个题库ID，首批为 0
+     * @param limit   批大小
+     * @return 题库ID
+     */
+    @Select("SELECT id FROM question_banks WHERE deleted = 0 AND id > #{afterId} ORDER BY id LIMIT #{limit}")
+    List<Long> selectLiveIdsAfter(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * 锁定题库行并读取当前计数
+     * 题目增删的触发器同样要更新该行，持锁期间的题目变化在本事务提交后才累加，重算结果不会与之重复或遗漏
+     *
+     * @param id 题库ID
+     * @return 题库ID与三项计数，题库不存在或已删除时为 null
+     */
+    @Select("SELECT id, total_count, completed_count, wrong_count FROM question_banks "
+            + "WHERE id = #{id} AND deleted = 0 FOR UPDATE")
+    QuestionBank selectCountersForUpdate(@Param("id") Long id);
+
+    /**
+     * 按题目表实际统计题库计数，只扫描 idx_bank_completed_correct 覆盖索引
+     *
+     * @param id 题库ID
+     * @return 三项计数
+     */
+    @Select("""
+            SELECT #{id} AS id,
+                   COUNT(*) AS total_count,
+                   COALESCE(SUM(is_completed = 1), 0) AS completed_count,
+                   COALESCE(SUM(is_completed = 1 AND is_correct = 0), 0) AS wrong_count
+            FROM questions FORCE INDEX (idx_bank_completed_correct)
+            WHERE bank_id = #{id}
+            """)
+    QuestionBank selectActualCounters(@Param("id") Long id);
+
+    /**
+     * 将题库计数修正为实际值并递增版本号，使列表指纹与缓存随之失效
+     *
+     * @param counters 实际计数
+     * @return 受影响行数
+     */
+    @Update("UPDATE question_banks SET total_count = #{totalCount}, completed_count = #{completedCount}, "
+            + "wrong_count = #{wrongCount}, version = version + 1 WHERE id = #{id}")
+    int repairCounters(QuestionBank counters);
+
+    /**
+     * 锁定并读取题库总数行，题库新增与软删除的触发器在本事务提交前等待
+     *
+     * @return 记录的未删除题库数，总数行不存在时为 null
+     */
+    @Select("SELECT live_count FROM question_bank_totals WHERE id = 1 FOR UPDATE")
+    Long lockLiveTotal();
+
+    /**
+     * 按题库表实际统计未删除的题库数
+     *
+     * @return 未删除的题库数
+     */
+    @Select("SELECT COUNT(*) FROM question_banks WHERE deleted = 0")
+    long countLive();
+
+    /**
+     * 将题库总数修正为实际值，总数行不存在时补建
+     *
+     * @param liveCount 未删除的题库数
+     * @return 受影响行数
+     */
+    @Insert("INSERT INTO question_bank_totals (id, live_count) VALUES (1, #{liveCount}) "
+            + "ON DUPLICATE KEY UPDATE live_count = VALUES(live_count)")
+    int repairLiveTotal(@Param("liveCount") long liveCount);
+}
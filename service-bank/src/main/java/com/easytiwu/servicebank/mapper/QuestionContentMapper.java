@@ -0,0 +1,118 @@
+package com.easytiwu.servicebank.mapper;
+
+import com.easytiwu.servicebank.entity.QuestionContent;
+import com.easytiwu.commoncontent.entity.QuestionContentOption;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 共享题目内容的读写，内容按哈希去重，已存在时只刷新引用时间
+ *
+ * @author sheny
+ */
+@Mapper
+public interface QuestionContentMapper {
+
+    /**
+     * 单条多行写入题目内容，哈希已存在的行只刷新 updated_at，使其不会在回收宽限期内被清理
+     *
+     * @param contents 题目内容
+     * @return 受影响行数
+     */
+    @Insert("""
+            <script>
+            INSERT INTO question_contents (content_hash, content, correct_answer, analysis) VALUES
+            <foreach collection="contents" item="c" separator=",">
+                (UNHEX(#{c.hash}), #{c.content}, #{c.correctAnswer}, #{c.analysis})
+            </foreach>
+            ON DUPLICATE KEY UPDATE updated_at = NOW()
+            </script>
+            """)
+    int upsert(@Param("contents") List<QuestionContent> contents);
+
+    /**
+     * 按哈希查询题目内容ID
+     *
+     * @param hashes 十六进制哈希
+     * @return 仅含 id、hash 的题目内容
+     */
+    @Select("""
+            <script>
+            SELECT id, LOWER(HEX(content_hash)) AS hash FROM question_contents
+            WHERE content_hash IN <foreach collection="hashes" item="h" open="(" separator="," close=")">UNHEX(#{h})</foreach>
+            </script>
+            """)
+    List<QuestionContent> selectIdsByHash(@Param("hashes") Collection<String> hashes);
+
+    /**
+     * 写入题目内容的选项；同一内容的选项由哈希决定，已存在时保持不变
+     *
+     * @param options 选项
+     * @return 受影响行数
+     */
+    @Insert("""
+            <script>
+            INSERT INTO question_content_options (content_id, sort_order, option_content) VALUES
+            <foreach collection="options" item="o" separator=",">
+                (#{o.contentId}, #{o.sortOrder}, #{o.optionContent})
+            </foreach>
+            ON DUPLICATE KEY UPDATE content_id = content_id
+            </script>
+            """)
+    int insertOptions(@Param("options") List<QuestionContentOption> options);
+
+    /**
+     * 按主键顺序查找一批无题目引用且超过宽限期未被引用的内容（引用侧走 idx_content_id）
+     *
+     * @param afterId      起始内容ID（不含）
+     * @param graceMinutes 宽限期（分钟），期间刚写入或刚被复用的内容不回收
+     * @param limit        扫描的内容条数
+     * @return 可回收的内容ID；本批扫描到的最大ID另由 selectMaxIdAfter 给出
+     */
+    @Select("""
+            SELECT c.id FROM (
+                SELECT id, updated_at FROM question_contents WHERE id > #{afterId} ORDER BY id LIMIT #{limit}
+            ) c
+            WHERE c.updated_at < NOW() - INTERVAL #{graceMinutes} MINUTE
+              AND NOT EXISTS (SELECT 1 FROM questions q WHERE q.content_id = c.id)
+            """)
+    List<Long> selectOrphanIds(@Param("afterId") long afterId, @Param("graceMinutes") int graceMinutes,
+                               @Param("limit") int limit);
+
+    /**
+     * 查询一批扫描范围的最大内容ID，用于推进键集游标
+     *
+     * @param afterId 起始内容ID（不含）
+     * @param limit   扫描的内容条数
+     * @return 最大ID，没有更多内容时为 NULL
+     */
+    @Select("""
+            SELECT MAX(id) FROM (
+                SELECT id FROM question_contents WHERE id > #{afterId} ORDER BY id LIMIT #{limit}
+            ) c
+            """)
+    Long selectMaxIdAfter(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * 删除无引用的内容，删除时再次校验引用与宽限期，并发复用的内容不会被误删；选项随外键级联删除
+     *
+     * @param ids          候选内容ID
+     * @param graceMinutes 宽限期（分钟）
+     * @return 删除行数
+     */
+    @Delete("""
+            <script>
+            DELETE FROM question_contents
+            WHERE id IN <foreach collection="ids" item="id" open="(" separator="," close=")">#{id}</foreach>
+              AND updated_at &lt; NOW() - INTERVAL #{graceMinutes} MINUTE
+              AND NOT EXISTS (SELECT 1 FROM questions q WHERE q.content_id = question_contents.id)
+            </script>
+            """)
+    int deleteOrphans(@Param("ids") List<Long> ids, @Param("graceMinutes") int graceMinutes);
+}
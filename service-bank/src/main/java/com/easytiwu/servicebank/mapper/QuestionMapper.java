@@ -2,7 +2,18 @@ package com.easytiwu.servicebank.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.easytiwu.servicebank.entity.Question;
+import com.easytiwu.servicebank.entity.QuestionMergeRow;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
+
+import java.util.List;
 
 /**
  * @author sheny
@@ -10,4 +21,113 @@ import org.apache.ibatis.annotations.Mapper;
 @Mapper
 public interface QuestionMapper extends BaseMapper<Question> {
 
+    /**
+     * 在数据库内将源题库的题目复制到目标题库：只复制内容引用，作答状态重置
+     *
+     * @param targetBankId  目标题库ID
+     * @param sourceBankIds 源题库ID
+     * @return 复制的题目数
+     */
+    @Insert("""
+            <script>
+            INSERT INTO questions (bank_id, content_id, type)
+            SELECT #{targetBankId}, content_id, type
+            FROM questions
+            WHERE bank_id IN <foreach collection="sourceBankIds" item="id" open="(" separator="," close=")">#{id}</foreach>
+            ORDER BY id
+            </script>
+            """)
+    int copyQuestions(@Param("targetBankId") Long targetBankId, @Param("sourceBankIds") List<Long> sourceBankIds);
+
+    /**
+     * 流式读取源题库的题目及其选项，按 (题目ID, 选项标识) 有序返回
+     * 须经 ServerCursorFetch 打开，以服务端游标分批拉取，读取期间同一连接仍可执行写入
+     *
+     * @param sourceBankIds 源题库ID
+     * @return 游标，须在事务内消费
+     */
+    @Select("""
+            <script>
+            SELECT q.id, q.content_id, q.type, c.content, c.correct_answer, c.analysis,
+                   o.sort_order AS option_label, o.option_content AS option_text
+            FROM questions q
+            JOIN question_contents c ON c.id = q.content_id
+            LEFT JOIN question_content_options o ON o.content_id = q.content_id
+            WHERE q.bank_id IN <foreach collection="sourceBankIds" item="id" open="(" separator="," close=")">#{id}</foreach>
+            ORDER BY q.id, o.sort_order
+            </script>
+            """)
+    @Options(fetchSize = 1000, resultSetType = ResultSetType.FORWARD_ONLY)
+    Cursor<QuestionMergeRow> streamForMerge(@Param("sourceBankIds") List<Long> sourceBankIds);
+
+    /**
+     * 流式读取单个题库的题目及其选项，按 (题目ID, 选项标识) 有序返回，用于导出
+     * fetchSize 为 Integer.MIN_VALUE 时驱动逐行流式读取，消费完之前同一连接不能执行其他语句
+     *
+     * @param bankId 题库ID
+     * @return 游标，须在事务内消费
+     */
+    @Select("""
+            SELECT q.id, q.content_id, q.type, c.content, c.correct_answer, c.analysis,
+                   o.sort_order AS option_label, o.option_content AS option_text
+            FROM questions q
+            JOIN question_contents c ON c.id = q.content_id
+            LEFT JOIN question_content_options o ON o.content_id = q.content_id
+            WHERE q.bank_id = #{bankId}
+            ORDER BY q.id, o.sort_order
+            """)
+    @Options(fetchSize = Integer.MIN_VALUE, resultSetType = ResultSetType.FORWARD_ONLY)
+    Cursor<QuestionMergeRow> streamForExport(@Param("bankId") Long bankId);
+
+    /**
+     * 单条多行 INSERT 写入合并后的题目：引用源题目的内容，作答状态为默认值
+     *
+     * @param targetBankId 目标题库ID
+     * @param questions    源题目
+     * @return 插入行数
+     */
+    @Insert("""
+            <script>
+            INSERT INTO questions (bank_id, content_id, type) VALUES
+            <foreach collection="questions" item="q" separator=",">
+                (#{targetBankId}, #{q.contentId}, #{q.type})
+            </foreach>
+            </script>
+            """)
+    int insertMerged(@Param("targetBankId") Long targetBankId, @Param("questions") List<QuestionMergeRow> questions);
+
+    /**
+     * 让题目改为引用另一条内容
+     *
+     * @param id        题目ID
+     * @param contentId 题目内容ID
+     * @return 受影响行数
+     */
+    @Update("UPDATE questions SET content_id = #{contentId} WHERE id = #{id}")
+    int updateContentId(@Param("id") Long id, @Param("contentId") Long contentId);
+
+    /**
+     * 按主键顺序读取题库的一批题目ID（走 idx_bank_id，键集分页）
+     *
+     * @param bankId  题库ID
+     * @param afterId 起始题目ID（不含）
+     * @param limit   读取条数
+     * @return 题目ID，升序
+     */
+    @Select("SELECT id FROM questions WHERE bank_id = #{bankId} AND id > #{afterId} ORDER BY id LIMIT #{limit}")
+    List<Long> selectIdsAfter(@Param("bankId") Long bankId, @Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * 按主键删除题目
+     *
+     * @param ids 题目ID
+     * @return 删除行数
+     */
+    @Delete("""
+            <script>
+            DELETE FROM questions
+            WHERE id IN <foreach collection="ids" item="id" open="(" separator="," close=")">#{id}</foreach>
+            </script>
+            """)
+    int deleteByIdList(@Param("ids") List<Long> ids);
 }
@@ -0,0 +1,106 @@
+package com.easytiwu.servicebank.mapper;
+
+import com.easytiwu.servicebank.entity.BankTypeStats;
+import com.easytiwu.servicebank.entity.CounterStripeSum;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+/**
+ * 题型统计表维护
+ * question_bank_type_stats 按题库、题型累计；question_type_stats 只累计未删除题库，供统计概览直接读取
+ *
+ * @author sheny
+ */
+@Mapper
+public interface TypeStatsMapper {
+
+    /**
+     * 将单个题型的增量累加到题库题型统计
+     *
+     * @param sum 题型增量合计
+     * @return 受影响行数
+     */
+    @Insert("""
+            INSERT INTO question_bank_type_stats (bank_id, type, question_count, completed_count, correct_count)
+            VALUES (#{bankId}, #{type}, #{questionDelta}, #{completedDelta}, #{correctDelta})
+            ON DUPLICATE KEY UPDATE question_count = question_count + VALUES(question_count),
+                                    completed_count = completed_count + VALUES(completed_count),
+                                    correct_count = correct_count + VALUES(correct_count)
+            """)
+    int addBankTypeStats(CounterStripeSum sum);
+
+    /**
+     * 将单个题型的增量累加到全局题型统计
+     *
+     * @param sum 题型增量合计
+     * @return 受影响行数
+     */
+    @Insert("""
+            INSERT INTO question_type_stats (type, question_count, completed_count, correct_count)
+            VALUES (#{type}, #{questionDelta}, #{completedDelta}, #{correctDelta})
+            ON DUPLICATE KEY UPDATE question_count = question_count + VALUES(question_count),
+                                    completed_count = completed_count + VALUES(completed_count),
+                                    correct_count = correct_count + VALUES(correct_count)
+            """)
+    int addTypeStats(CounterStripeSum sum);
+
+    /**
+     * 软删除题库时从全局题型统计中扣除该题库已折叠的部分，此后该题库的增量不再计入全局统计
+     *
+     * @param bankId 题库ID
+     * @return 受影响行数
+     */
+    @Update("""
+            UPDATE question_type_stats t
+            JOIN question_bank_type_stats s ON s.type = t.type
+            SET t.question_count = t.question_count - s.question_count,
+                t.completed_count = t.completed_count - s.completed_count,
+                t.correct_count = t.correct_count - s.correct_count
+            WHERE s.bank_id = #{bankId}
+            """)
+    int subtractBank(@Param("bankId") Long bankId);
+
+    /**
+     * 锁定并读取题库的题型统计，校对时与实际值比较
+     *
+     * @param bankId 题库ID
+     * @return 各题型统计
+     */
+    @Select("""
+            SELECT bank_id, type, question_count, completed_count, correct_count
+            FROM question_bank_type_stats
+            WHERE bank_id = #{bankId}
+            FOR UPDATE
+            """)
+    List<BankTypeStats> selectBankTypeStatsForUpdate(@Param("bankId") Long bankId);
+
+    /**
+     * 按题目表实际统计题库各题型的题目数、完成数与答对数，沿 idx_bank_question_type 按题型顺序读取
+     *
+     * @param bankId 题库ID
+     * @return 存在题目的各题型统计
+     */
+    @Select("""
+            SELECT bank_id, type,
+                   COUNT(*) AS question_count,
+                   COALESCE(SUM(is_completed = 1), 0) AS completed_count,
+                   COALESCE(SUM(is_correct = 1), 0) AS correct_count
+            FROM questions FORCE INDEX (idx_bank_question_type)
+            WHERE bank_id = #{bankId}
+            GROUP BY bank_id, type
+            """)
+    List<BankTypeStats> selectActualBankTypeStats(@Param("bankId") Long bankId);
+
+    /**
+     * 题型统计是否尚未建立：全局题型统计为空而题目表中已有题目（升级前的存量数据）
+     *
+     * @return 是否需要按题目表补建
+     */
+    @Select("SELECT NOT EXISTS (SELECT 1 FROM question_type_stats) AND EXISTS (SELECT 1 FROM questions)")
+    boolean selectSeedNeeded();
+}
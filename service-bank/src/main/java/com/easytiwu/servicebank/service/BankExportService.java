@@ -0,0 +1,178 @@
+package com.easytiwu.servicebank.service;
+
+import com.easytiwu.commonexception.enums.ErrorCode;
+import com.easytiwu.commonexception.exception.BusinessException;
+import com.easytiwu.servicebank.entity.QuestionBank;
+import com.easytiwu.servicebank.entity.QuestionMergeRow;
+import com.easytiwu.servicebank.mapper.QuestionBankMapper;
+import com.easytiwu.servicebank.mapper.QuestionMapper;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 题库导出服务
+ * 以服务端游标逐行读取题目与选项，边读边写 JSONL 到输出流，内存占用与题库大小无关
+ * 每行格式与上传服务导入的 JSONL 一致：type、content、correct_answer、analysis、options[{label, text}]
+ *
+ * @author sheny
+ */
+@Slf4j
+@Service
+public class BankExportService {
+
+    /**
+     * 导出格式
+     */
+    public enum Format {
+        JSONL(".jsonl", "application/x-ndjson"),
+        GZIP(".jsonl.gz", "application/gzip"),
+        ZIP(".zip", "application/zip");
+
+        private final String extension;
+        private final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        /**
+         * 解析请求参数中的格式，为空时为 JSONL
+         *
+         * @throws BusinessException 格式不支持时抛出
+         */
+        public static Format parse(String value) {
+            if (value == null || value.isBlank()) {
+                return JSONL;
+            }
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(value.trim())) {
+                    return format;
+                }
+            }
+            throw BusinessException.of(ErrorCode.PARAM_INVALID, "不支持的导出格式: " + value);
+        }
+    }
+
+    private final QuestionBankMapper questionBankMapper;
+    private final QuestionMapper questionMapper;
+    private final ObjectMapper objectMapper;
+
+    public BankExportService(QuestionBankMapper questionBankMapper, QuestionMapper questionMapper,
+                             ObjectMapper objectMapper) {
+        this.questionBankMapper = questionBankMapper;
+        this.questionMapper = questionMapper;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 查询待导出的题库，用于在写出内容前确定文件名
+     *
+     * @param bankId 题库ID
+     * @return 题库
+     * @throws BusinessException 题库不存在时抛出
+     */
+    public QuestionBank requireBank(Long bankId) {
+        QuestionBank bank = questionBankMapper.selectById(bankId);
+        if (bank == null) {
+            throw BusinessException.of(ErrorCode.NOT_FOUND, "题库不存在，ID: " + bankId);
+        }
+        return bank;
+    }
+
+    /**
+     * 将题库导出到输出流，输出流由调用方关闭
+     * 只读事务保证游标读取期间看到一致的快照
+     *
+     * @param bankId 题库ID
+     * @param format 导出格式
+     * @param out    输出流
+     * @return 导出的题目数
+     * @throws IOException 写出失败（通常是客户端断开）时抛出
+     */
+    @Transactional(readOnly = true)
+    public int export(Long bankId, Format format, OutputStream out) throws IOException {
+        int count;
+        switch (format) {
+            case GZIP -> {
+                GZIPOutputStream gzip = new GZIPOutputStream(out, 8192);
+                count = writeJsonl(bankId, gzip);
+                gzip.finish();
+            }
+            case ZIP -> {
+                ZipOutputStream zip = new ZipOutputStream(out);
+                zip.putNextEntry(new ZipEntry("bank-" + bankId + Format.JSONL.getExtension()));
+                count = writeJsonl(bankId, zip);
+                zip.closeEntry();
+                zip.finish();
+            }
+            default -> count = writeJsonl(bankId, out);
+        }
+        out.flush();
+        log.info("题库导出完成，ID: {}，格式: {}，题目 {} 条", bankId, format, count);
+        return count;
+    }
+
+    private int writeJsonl(Long bankId, OutputStream out) throws IOException {
+        int count = 0;
+        JsonGenerator gen = objectMapper.getFactory().createGenerator(out);
+        // 由调用方结束压缩流，生成器关闭时不能连带关闭
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // 行之间只用换行分隔，不要默认的空格
+        gen.setRootValueSeparator(null);
+        try (gen; Cursor<QuestionMergeRow> cursor = questionMapper.streamForExport(bankId)) {
+            Long currentId = null;
+            for (QuestionMergeRow row : cursor) {
+                if (!row.getId().equals(currentId)) {
+                    if (currentId != null) {
+                        endQuestion(gen);
+                    }
+                    currentId = row.getId();
+                    count++;
+                    gen.writeStartObject();
+                    gen.writeStringField("type", row.getType());
+                    gen.writeStringField("content", row.getContent());
+                    gen.writeStringField("correct_answer", row.getCorrectAnswer());
+                    if (row.getAnalysis() != null) {
+                        gen.writeStringField("analysis", row.getAnalysis());
+                    }
+                    gen.writeArrayFieldStart("options");
+                }
+                if (row.getOptionLabel() != null) {
+                    gen.writeStartObject();
+                    gen.writeStringField("label", row.getOptionLabel());
+                    gen.writeStringField("text", row.getOptionText());
+                    gen.writeEndObject();
+                }
+            }
+            if (currentId != null) {
+                endQuestion(gen);
+            }
+        }
+        return count;
+    }
+
+    private void endQuestion(JsonGenerator gen) throws IOException {
+        gen.writeEndArray();
+        gen.writeEndObject();
+        gen.writeRaw('\n');
+    }
+}
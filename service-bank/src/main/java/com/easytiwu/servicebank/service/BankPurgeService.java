@@ -0,0 +1,68 @@
+package com.easytiwu.servicebank.service;
+
+import com.easytiwu.servicebank.dto.BankPurgeProgressDTO;
+import com.easytiwu.servicebank.mapper.QuestionBankMapper;
+import com.easytiwu.servicebank.mapper.QuestionMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * 已删除题库的分批清理服务
+ * 每批按主键顺序取一小段题目删除，各批独立提交，锁持有时间与 undo 量只与批大小有关
+ * 题目内容可能被其他题库共享，不在此删除，失去引用后由 ContentGcJob 回收
+ *
+ * @author sheny
+ */
+@Slf4j
+@Service
+public class BankPurgeService {
+
+    private final QuestionBankMapper questionBankMapper;
+    private final QuestionMapper questionMapper;
+
+    public BankPurgeService(QuestionBankMapper questionBankMapper, QuestionMapper questionMapper) {
+        this.questionBankMapper = questionBankMapper;
+        this.questionMapper = questionMapper;
+    }
+
+    /**
+     * 查询等待清理的题库
+     *
+     * @return 题库ID，按删除时间先后
+     */
+    public List<Long> purgeQueue() {
+        return questionBankMapper.selectPurgeQueue();
+    }
+
+    /**
+     * 查询清理进度
+     *
+     * @return 各个已删除题库的清理进度
+     */
+    public List<BankPurgeProgressDTO> progress() {
+        return questionBankMapper.selectPurgeProgress();
+    }
+
+    /**
+     * 清理题库的下一批题目
+     *
+     * @param bankId  题库ID
+     * @param afterId 上一批最后一道题目的ID，首批为 0
+     * @param limit   批大小
+     * @return 本批最后一道题目的ID；题目已清理完毕时删除题库行并返回 -1
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public long purgeChunk(Long bankId, long afterId, int limit) {
+        List<Long> ids = questionMapper.selectIdsAfter(bankId, afterId, limit);
+        if (ids.isEmpty()) {
+            questionBankMapper.deletePurged(bankId);
+            log.info("题库清理完成，ID: {}", bankId);
+            return -1;
+        }
+        questionMapper.deleteByIdList(ids);
+        return ids.get(ids.size() - 1);
+    }
+}
@@ -0,0 +1,253 @@
+package com.easytiwu.servicebank.service;
+
+import com.easytiwu.servicebank.cache.BankListCache;
+import com.easytiwu.servicebank.entity.BankTypeStats;
+import com.easytiwu.servicebank.entity.CounterStripeSum;
+import com.easytiwu.servicebank.entity.QuestionBank;
+import com.easytiwu.servicebank.mapper.CounterStripeMapper;
+import com.easytiwu.servicebank.mapper.QuestionBankMapper;
+import com.easytiwu.servicebank.mapper.TypeStatsMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * 题库计数校对服务
+ * 触发器维护的 total_count、completed_count、wrong_count 会因外键级联删除等绕过触发器的写入而漂移，
+ * 这里按题目表重新统计并修正，每个题库一个短事务
+ * 作答增量先记在计数分片上，由本服务定期折叠进题库行与题型统计表；校对前同样先折叠，再与实际值比较，
+ * 题型统计同样按题目表逐题型重算，差额同时修正题库题型统计与全局题型统计；升级前的存量数据也由此补建
+ *
+ * @author sheny
+ */
+@Slf4j
+@Service
+public class CounterReconcileService {
+
+    private final QuestionBankMapper questionBankMapper;
+    private final CounterStripeMapper counterStripeMapper;
+    private final TypeStatsMapper typeStatsMapper;
+    private final BankListCache bankListCache;
+
+    public CounterReconcileService(QuestionBankMapper questionBankMapper, CounterStripeMapper counterStripeMapper,
+                                   TypeStatsMapper typeStatsMapper, BankListCache bankListCache) {
+        this.questionBankMapper = questionBankMapper;
+        this.counterStripeMapper = counterStripeMapper;
+        this.typeStatsMapper = typeStatsMapper;
+        this.bankListCache = bankListCache;
+    }
+
+    /**
+     * 单个题库的计数偏差，均为 记录值 - 实际值；typeStats 为各题型统计偏差的绝对值之和
+     */
+    public record Drift(long total, long completed, long wrong, long typeStats) {
+
+        public static final Drift NONE = new Drift(0, 0, 0, 0);
+
+        public boolean isZero() {
+            return total == 0 && completed == 0 && wrong == 0 && typeStats == 0;
+        }
+    }
+
+    /**
+     * 按主键顺序分批查询未删除的题库
+     *
+     * @param afterId 上一批最后一个题库ID，首批为 0
+     * @param limit   批大小
+     * @return 题库ID
+     */
+    public List<Long> liveBankIds(long afterId, int limit) {
+        return questionBankMapper.selectLiveIdsAfter(afterId, limit);
+    }
+
+    /**
+     * 题型统计是否需要按题目表补建（升级前已有题目、统计表仍为空）
+     *
+     * @return 是否需要补建
+     */
+    public boolean typeStatsSeedNeeded() {
+        return typeStatsMapper.selectSeedNeeded();
+    }
+
+    /**
+     * 查询存在未折叠分片增量的题库
+     *
+     * @return 题库ID
+     */
+    public List<Long> pendingFoldBankIds() {
+        return counterStripeMapper.selectPendingBankIds();
+    }
+
+    /**
+     * 将题库的分片增量折叠进题库行与题型统计
+     *
+     * @param bankId 题库ID
+     * @return 是否有增量被折叠
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public boolean fold(Long bankId) {
+        if (!foldStripes(bankId)) {
+            return false;
+        }
+        bankListCache.invalidateAfterCommit();
+        return true;
+    }
+
+    /**
+     * 校对单个题库的计数与题型统计，不一致时修正
+     * 先折叠分片并锁题库行再统计，并发的题目写入在本事务提交后由触发器照常累加；
+     * 题库行锁住期间不会被软删除，题型统计的差额可以直接计入全局统计
+     *
+     * @param bankId 题库ID
+     * @return 修正前的偏差，题库不存在或已删除时视为无偏差
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public Drift reconcile(Long bankId) {
+        if (foldStripes(bankId)) {
+            bankListCache.invalidateAfterCommit();
+        }
+        QuestionBank recorded = questionBankMapper.selectCountersForUpdate(bankId);
+        if (recorded == null) {
+            return Drift.NONE;
+        }
+        QuestionBank actual = questionBankMapper.selectActualCounters(bankId);
+        Drift drift = new Drift(
+                diff(recorded.getTotalCount(), actual.getTotalCount()),
+                diff(recorded.getCompletedCount(), actual.getCompletedCount()),
+                diff(recorded.getWrongCount(), actual.getWrongCount()),
+                repairTypeStats(bankId));
+        if (drift.total() != 0 || drift.completed() != 0 || drift.wrong() != 0) {
+            questionBankMapper.repairCounters(actual);
+            bankListCache.invalidateAfterCommit();
+            log.warn("题库计数已修正，ID: {}，记录值 {}/{}/{}，实际值 {}/{}/{}", bankId,
+                    recorded.getTotalCount(), recorded.getCompletedCount(), recorded.getWrongCount(),
+                    actual.getTotalCount(), actual.getCompletedCount(), actual.getWrongCount());
+        }
+        return drift;
+    }
+
+    /**
+     * 校对未删除题库数，不一致时修正
+     * 先锁总数行再统计，并发的题库新增与软删除在本事务提交后由触发器照常累加
+     *
+     * @return 修正前的偏差（记录值 - 实际值）
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public long reconcileBankTotal() {
+        Long recorded = questionBankMapper.lockLiveTotal();
+        long actual = questionBankMapper.countLive();
+        long drift = Objects.requireNonNullElse(recorded, 0L) - actual;
+        if (recorded == null || drift != 0) {
+            questionBankMapper.repairLiveTotal(actual);
+            log.warn("题库总数已修正，记录值 {}，实际值 {}", recorded, actual);
+        }
+        return drift;
+    }
+
+    /**
+     * 按题目表重算题库各题型统计，将差额累加到题库题型统计与全局题型统计，调用方须已锁定未删除的题库行
+     *
+     * @return 各题型偏差的绝对值之和
+     */
+    private long repairTypeStats(Long bankId) {
+        Map<String, BankTypeStats> recorded = new HashMap<>();
+        for (BankTypeStats stats : typeStatsMapper.selectBankTypeStatsForUpdate(bankId)) {
+            recorded.put(stats.getType(), stats);
+        }
+        List<CounterStripeSum> corrections = new ArrayList<>();
+        for (BankTypeStats actual : typeStatsMapper.selectActualBankTypeStats(bankId)) {
+            corrections.add(correction(bankId, actual.getType(), recorded.remove(actual.getType()), actual));
+        }
+        // 题目表中已没有该题型，记录值应归零
+        for (BankTypeStats stale : recorded.values()) {
+            corrections.add(correction(bankId, stale.getType(), stale, null));
+        }
+
+        long drift = 0;
+        for (CounterStripeSum c : corrections) {
+            if (!c.hasStatsDelta()) {
+                continue;
+            }
+            typeStatsMapper.addBankTypeStats(c);
+            typeStatsMapper.addTypeStats(c);
+            drift += Math.abs(c.getQuestionDelta()) + Math.abs(c.getCompletedDelta())
+                    + Math.abs(c.getCorrectDelta());
+            log.warn("题型统计已修正，题库ID: {}，题型: {}，题目数 {}，完成数 {}，答对数 {}", bankId, c.getType(),
+                    c.getQuestionDelta(), c.getCompletedDelta(), c.getCorrectDelta());
+        }
+        return drift;
+    }
+
+    /**
+     * 以 实际值 - 记录值 作为题型统计的修正增量
+     */
+    private static CounterStripeSum correction(Long bankId, String type, BankTypeStats recorded,
+                                               BankTypeStats actual) {
+        CounterStripeSum c = new CounterStripeSum();
+        c.setBankId(bankId);
+        c.setType(type);
+        c.setQuestionDelta(count(actual, BankTypeStats::getQuestionCount)
+                - count(recorded, BankTypeStats::getQuestionCount));
+        c.setCompletedDelta(count(actual, BankTypeStats::getCompletedCount)
+                - count(recorded, BankTypeStats::getCompletedCount));
+        c.setCorrectDelta(count(actual, BankTypeStats::getCorrectCount)
+                - count(recorded, BankTypeStats::getCorrectCount));
+        return c;
+    }
+
+    private static int count(BankTypeStats stats, Function<BankTypeStats, Integer> field) {
+        return stats == null ? 0 : Objects.requireNonNullElse(field.apply(stats), 0);
+    }
+
+    /**
+     * 锁定分片并折叠到题库行与题型统计，调用方负责事务
+     * 已软删除的题库只折叠到自身的题型统计，其题型统计在删除时已从全局扣除
+     */
+    private boolean foldStripes(Long bankId) {
+        List<CounterStripeSum> sums = counterStripeMapper.selectSumsForUpdate(bankId).stream()
+                .filter(sum -> !sum.isEmpty())
+                .toList();
+        if (sums.isEmpty()) {
+            return false;
+        }
+        Integer deleted = counterStripeMapper.lockBankDeleted(bankId);
+        if (deleted == null) {
+            // 题库行已物理删除，分片随外键级联删除
+            return false;
+        }
+
+        CounterStripeSum total = new CounterStripeSum();
+        total.setBankId(bankId);
+        int completed = 0;
+        int wrong = 0;
+        long version = 0;
+        for (CounterStripeSum sum : sums) {
+            completed += sum.getCompletedDelta();
+            wrong += sum.getWrongDelta();
+            version += sum.getVersionDelta();
+            if (sum.hasStatsDelta()) {
+                typeStatsMapper.addBankTypeStats(sum);
+                if (deleted == 0) {
+                    typeStatsMapper.addTypeStats(sum);
+                }
+            }
+        }
+        total.setCompletedDelta(completed);
+        total.setWrongDelta(wrong);
+        total.setVersionDelta(version);
+        counterStripeMapper.applyToBank(total);
+        counterStripeMapper.clear(bankId);
+        return true;
+    }
+
+    private static long diff(Integer recorded, Integer actual) {
+        return (long) Objects.requireNonNullElse(recorded, 0) - Objects.requireNonNullElse(actual, 0);
+    }
+}
@@ -1,5 +1,7 @@
 package com.easytiwu.servicebank.service;
 
+import com.easytiwu.servicebank.dto.BankPageDTO;
+import com.easytiwu.servicebank.dto.MergeBanksResultDTO;
 import com.easytiwu.servicebank.dto.QuestionBankDTO;
 
 import java.util.List;
@@ -18,6 +20,25 @@ public interface QuestionBankService {
      */
     List<QuestionBankDTO> getAllQuestionBanks();
 
+    /**
+     * 生成题库列表的 ETag，仅做一次聚合查询
+     *
+     * @return 题库列表 ETag
+     */
+    String getQuestionBanksEtag();
+
+    /**
+     * 按键集分页查询题库，可按名称前缀过滤
+     *
+     * @param prefix 名称前缀（可选）
+     * @param sort   排序方式：created（创建时间倒序，默认）、progress（完成进度倒序）、name（名称升序）
+     * @param cursor 上一页返回的游标，为空表示第一页
+     * @param limit  每页数量
+     * @return 本页题库与下一页游标
+     * @throws com.easytiwu.commonexception.exception.BusinessException 排序方式、数量或游标非法时抛出
+     */
+    BankPageDTO listQuestionBanks(String prefix, String sort, String cursor, int limit);
+
     /**
      * 根据ID删除题库
      *
@@ -27,7 +48,7 @@ public interface QuestionBankService {
     boolean deleteQuestionBank(Long id);
 
     /**
-     * 合并两个题库，创建新题库并复制题目和选项
+     * 合并两个题库，创建新题库并引用源题目的内容
      *
      * @param bankId1     第一个题库ID
      * @param bankId2     第二个题库ID
@@ -37,4 +58,15 @@ public interface QuestionBankService {
      * @throws com.easytiwu.commonexception.exception.BusinessException 参数非法或题库不存在时抛出
      */
     Long mergeAndCreateNewBank(Long bankId1, Long bankId2, String name, String description);
-}
\ No newline at end of file
+
+    /**
+     * 合并任意多个题库并创建新题库，内容相同的题目只保留第一道（按题目ID）
+     *
+     * @param bankIds     源题库ID
+     * @param name        新题库名称
+     * @param description 新题库描述（可选）
+     * @return 合并结果
+     * @throws com.easytiwu.commonexception.exception.BusinessException 参数非法或题库不存在时抛出
+     */
+    MergeBanksResultDTO mergeBanks(List<Long> bankIds, String name, String description);
+}
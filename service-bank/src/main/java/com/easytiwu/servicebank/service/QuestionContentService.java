@@ -0,0 +1,109 @@
+package com.easytiwu.servicebank.service;
+
+import com.easytiwu.commonexception.enums.ErrorCode;
+import com.easytiwu.commonexception.exception.BusinessException;
+import com.easytiwu.servicebank.dto.UpdateQuestionContentRequest;
+import com.easytiwu.servicebank.entity.QuestionContent;
+import com.easytiwu.commoncontent.entity.QuestionContentOption;
+import com.easytiwu.servicebank.mapper.QuestionContentMapper;
+import com.easytiwu.servicebank.mapper.QuestionMapper;
+import com.easytiwu.commoncontent.util.ContentHash;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 共享题目内容服务
+ * 内容按哈希只存一份、写入后不再修改；编辑题目时写入（或复用）新内容并改写该题目的引用，
+ * 其他引用旧内容的题目不受影响（写时复制）。失去全部引用的内容在宽限期后回收
+ *
+ * @author sheny
+ */
+@Slf4j
+@Service
+public class QuestionContentService {
+
+    private final QuestionContentMapper questionContentMapper;
+    private final QuestionMapper questionMapper;
+
+    /**
+     * 内容失去引用后保留的时间，覆盖导入或编辑事务从写入内容到写入题目之间的窗口
+     */
+    @Value("${bank.content-gc.grace-minutes:60}")
+    private int graceMinutes;
+
+    public QuestionContentService(QuestionContentMapper questionContentMapper, QuestionMapper questionMapper) {
+        this.questionContentMapper = questionContentMapper;
+        this.questionMapper = questionMapper;
+    }
+
+    /**
+     * 编辑题目内容
+     *
+     * @param questionId 题目ID
+     * @param request    新内容
+     * @return 题目现在引用的内容ID
+     * @throws BusinessException 题目不存在或选项标识重复时抛出
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public Long updateContent(Long questionId, UpdateQuestionContentRequest request) {
+        List<QuestionContentOption> options = new ArrayList<>();
+        Set<String> labels = new HashSet<>();
+        if (request.getOptions() != null) {
+            for (UpdateQuestionContentRequest.Option item : request.getOptions()) {
+                if (!labels.add(item.getLabel())) {
+                    throw BusinessException.of(ErrorCode.PARAM_INVALID, "选项标识重复: " + item.getLabel());
+                }
+                QuestionContentOption option = new QuestionContentOption();
+                option.setSortOrder(item.getLabel());
+                option.setOptionContent(item.getText());
+                options.add(option);
+            }
+        }
+
+        QuestionContent content = new QuestionContent();
+        content.setContent(request.getContent());
+        content.setCorrectAnswer(request.getCorrectAnswer());
+        content.setAnalysis(request.getAnalysis());
+        content.setHash(ContentHash.of(content.getContent(), content.getCorrectAnswer(), content.getAnalysis(), options));
+
+        questionContentMapper.upsert(List.of(content));
+        Long contentId = questionContentMapper.selectIdsByHash(List.of(content.getHash())).get(0).getId();
+        if (!options.isEmpty()) {
+            options.forEach(o -> o.setContentId(contentId));
+            questionContentMapper.insertOptions(options);
+        }
+        if (questionMapper.updateContentId(questionId, contentId) == 0) {
+            throw BusinessException.of(ErrorCode.NOT_FOUND, "题目不存在，ID: " + questionId);
+        }
+        log.info("题目内容已更新，题目ID: {}，内容ID: {}", questionId, contentId);
+        return contentId;
+    }
+
+    /**
+     * 回收一批无引用的内容
+     *
+     * @param afterId 上一批扫描到的最大内容ID，首批为 0
+     * @param limit   每批扫描的内容条数
+     * @return 本批扫描到的最大内容ID；已扫描到末尾时返回 -1
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public long collectChunk(long afterId, int limit) {
+        Long maxId = questionContentMapper.selectMaxIdAfter(afterId, limit);
+        if (maxId == null) {
+            return -1;
+        }
+        List<Long> orphans = questionContentMapper.selectOrphanIds(afterId, graceMinutes, limit);
+        if (!orphans.isEmpty()) {
+            int deleted = questionContentMapper.deleteOrphans(orphans, graceMinutes);
+            log.debug("回收无引用题目内容 {} 条", deleted);
+        }
+        return maxId;
+    }
+}
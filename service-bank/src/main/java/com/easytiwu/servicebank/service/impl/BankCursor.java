@@ -0,0 +1,92 @@
+package com.easytiwu.servicebank.service.impl;
+
+import com.easytiwu.commonexception.enums.ErrorCode;
+import com.easytiwu.commonexception.exception.BusinessException;
+import com.easytiwu.servicebank.entity.QuestionBank;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 题库列表分页游标：排序方式、最后一行的ID与排序值，编码为 URL 安全的 Base64
+ *
+ * @param sort  排序方式
+ * @param id    最后一行的题库ID
+ * @param value 最后一行的排序值
+ * @author sheny
+ */
+record BankCursor(String sort, long id, String value) {
+
+    static final String SORT_CREATED = "created";
+    static final String SORT_PROGRESS = "progress";
+    static final String SORT_NAME = "name";
+
+    /**
+     * 以一页的最后一行生成游标
+     *
+     * @param sort 排序方式
+     * @param last 最后一行
+     * @return 游标
+     */
+    static BankCursor after(String sort, QuestionBank last) {
+        String value = switch (sort) {
+            case SORT_PROGRESS -> String.valueOf(progressPermille(last));
+            case SORT_NAME -> last.getName();
+            default -> last.getCreatedAt().toString();
+        };
+        return new BankCursor(sort, last.getId(), value);
+    }
+
+    /**
+     * 解析客户端回传的游标
+     *
+     * @param token 游标字符串
+     * @param sort  本次请求的排序方式，须与生成游标时一致
+     * @return 游标
+     * @throws BusinessException 游标无法解析或与排序方式不符时抛出
+     */
+    static BankCursor decode(String token, String sort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 3);
+            if (parts.length == 3 && parts[0].equals(sort)) {
+                BankCursor cursor = new BankCursor(parts[0], Long.parseLong(parts[1]), parts[2]);
+                // 提前校验排序值格式，避免把非法值带进 SQL
+                cursor.createdAt();
+                cursor.progress();
+                return cursor;
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // 落到下面统一报错
+        }
+        throw BusinessException.of(ErrorCode.PARAM_INVALID, "分页游标无效");
+    }
+
+    String encode() {
+        String raw = sort + ":" + id + ":" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    LocalDateTime createdAt() {
+        return SORT_CREATED.equals(sort) ? LocalDateTime.parse(value) : null;
+    }
+
+    Integer progress() {
+        return SORT_PROGRESS.equals(sort) ? Integer.valueOf(value) : null;
+    }
+
+    String name() {
+        return SORT_NAME.equals(sort) ? value : null;
+    }
+
+    /**
+     * 与 question_banks.progress_permille 生成列的表达式一致
+     */
+    static int progressPermille(QuestionBank bank) {
+        int total = bank.getTotalCount() == null ? 0 : bank.getTotalCount();
+        int completed = bank.getCompletedCount() == null ? 0 : bank.getCompletedCount();
+        return total == 0 ? 0 : (int) (completed * 1000L / total);
+    }
+}
@@ -3,19 +3,25 @@ package com.easytiwu.servicebank.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.easytiwu.commonexception.enums.ErrorCode;
 import com.easytiwu.commonexception.exception.BusinessException;
+import com.easytiwu.servicebank.cache.BankListCache;
+import com.easytiwu.servicebank.dto.BankPageDTO;
+import com.easytiwu.servicebank.dto.MergeBanksResultDTO;
 import com.easytiwu.servicebank.dto.QuestionBankDTO;
-import com.easytiwu.servicebank.entity.Question;
 import com.easytiwu.servicebank.entity.QuestionBank;
-import com.easytiwu.servicebank.entity.QuestionOption;
+import com.easytiwu.servicebank.entity.QuestionMergeRow;
 import com.easytiwu.servicebank.mapper.QuestionBankMapper;
 import com.easytiwu.servicebank.mapper.QuestionMapper;
-import com.easytiwu.servicebank.mapper.QuestionOptionMapper;
+import com.easytiwu.servicebank.mapper.TypeStatsMapper;
 import com.easytiwu.servicebank.service.QuestionBankService;
+import com.easytiwu.servicebank.util.ServerCursorFetch;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -30,12 +36,31 @@ import java.util.stream.Collectors;
 @Service
 public class QuestionBankServiceImpl implements QuestionBankService {
 
+    /**
+     * 多题库合并时单条 INSERT 写入的题目数
+     */
+    private static final int MERGE_BATCH_SIZE = 500;
+
+    /**
+     * 分页查询单页最大数量
+     */
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final Set<String> SORT_KEYS =
+            Set.of(BankCursor.SORT_CREATED, BankCursor.SORT_PROGRESS, BankCursor.SORT_NAME);
+
     private final QuestionBankMapper questionBankMapper;
     private final QuestionMapper questionMapper;
-    private final QuestionOptionMapper questionOptionMapper;
+    private final TypeStatsMapper typeStatsMapper;
+    private final BankListCache bankListCache;
+    private final ServerCursorFetch serverCursorFetch;
 
     @Override
     public List<QuestionBankDTO> getAllQuestionBanks() {
+        return bankListCache.get("all", this::loadAllQuestionBanks);
+    }
+
+    private List<QuestionBankDTO> loadAllQuestionBanks() {
         log.info("开始查询所有题库");
 
         QueryWrapper<QuestionBank> wrapper = new QueryWrapper<>();
@@ -50,6 +75,50 @@ public class QuestionBankServiceImpl implements QuestionBankService {
         return dtos;
     }
 
+    @Override
+    public String getQuestionBanksEtag() {
+        return bankListCache.get("etag", () -> "\"banks-" + questionBankMapper.selectListFingerprint() + "\"");
+    }
+
+    @Override
+    public BankPageDTO listQuestionBanks(String prefix, String sort, String cursor, int limit) {
+        String sortKey = sort == null || sort.isBlank() ? BankCursor.SORT_CREATED : sort.trim().toLowerCase();
+        if (!SORT_KEYS.contains(sortKey)) {
+            throw BusinessException.of(ErrorCode.PARAM_INVALID, "不支持的排序方式: " + sort);
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw BusinessException.of(ErrorCode.PARAM_INVALID, "每页数量须在 1 到 " + MAX_PAGE_SIZE + " 之间");
+        }
+        String namePrefix = prefix == null || prefix.isBlank() ? null : prefix.trim();
+        String token = cursor == null || cursor.isBlank() ? null : cursor;
+        String key = "page:" + sortKey + ":" + limit + ":" + (token == null ? "" : token) + ":"
+                + (namePrefix == null ? "" : namePrefix);
+        return bankListCache.get(key, () -> loadPage(namePrefix, sortKey, token, limit));
+    }
+
+    private BankPageDTO loadPage(String prefix, String sort, String token, int limit) {
+        BankCursor after = token == null ? null : BankCursor.decode(token, sort);
+        String likePrefix = prefix == null ? null : escapeLike(prefix);
+        // 多取一行判断是否还有下一页
+        List<QuestionBank> rows = questionBankMapper.selectPage(likePrefix, sort,
+                after == null ? null : after.id(),
+                after == null ? null : after.createdAt(),
+                after == null ? null : after.progress(),
+                after == null ? null : after.name(),
+                limit + 1);
+        BankPageDTO page = new BankPageDTO();
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            page.setNextCursor(BankCursor.after(sort, rows.get(limit - 1)).encode());
+        }
+        page.setItems(rows.stream().map(this::convertToDTO).collect(Collectors.toList()));
+        return page;
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public boolean deleteQuestionBank(Long id) {
@@ -60,22 +129,15 @@ public class QuestionBankServiceImpl implements QuestionBankService {
         try {
             log.info("开始删除题库，ID: {}", id);
 
-            // 先检查题库是否存在
-            QuestionBank existingBank = questionBankMapper.selectById(id);
-            if (existingBank == null) {
+            // 只做标记，题目由 BankPurgeJob 在后台分批清理，避免一次级联删除长时间持锁
+            int deletedRows = questionBankMapper.softDelete(id);
+            if (deletedRows == 0) {
                 throw BusinessException.of(ErrorCode.NOT_FOUND, "题库不存在，ID: " + id);
             }
-
-            // 执行删除操作（会级联删除题目和选项，因表有 ON DELETE CASCADE）
-            int deletedRows = questionBankMapper.deleteById(id);
-
-            if (deletedRows > 0) {
-                log.info("成功删除题库，ID: {}, 题库名称: {}", id, existingBank.getName());
-                return true;
-            } else {
-                log.warn("删除题库失败，ID: {}", id);
-                throw BusinessException.of(ErrorCode.BUSINESS_ERROR, "删除题库失败");
-            }
+            typeStatsMapper.subtractBank(id);
+            bankListCache.invalidateAfterCommit();
+            log.info("题库已标记删除，等待后台清理，ID: {}", id);
+            return true;
         } catch (BusinessException e) {
             throw e;
         } catch (Exception e) {
@@ -85,7 +147,7 @@ public class QuestionBankServiceImpl implements QuestionBankService {
     }
 
     /**
-     * 合并两个题库，创建新题库并复制题目和选项
+     * 合并两个题库，创建新题库并引用源题目的内容
      *
      * @param bankId1     第一个题库ID
      * @param bankId2     第二个题库ID
@@ -94,6 +156,7 @@ public class QuestionBankServiceImpl implements QuestionBankService {
      * @return 新题库ID
      */
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public Long mergeAndCreateNewBank(Long bankId1, Long bankId2, String name, String description) {
         // 参数校验
         if (bankId1 == null || bankId2 == null || bankId1 <= 0 || bankId2 <= 0) {
@@ -105,7 +168,7 @@ public class QuestionBankServiceImpl implements QuestionBankService {
 
         log.info("开始合并题库，bankId1: {}, bankId2: {}, 新题库名: {}", bankId1, bankId2, name);
 
-        // 检查两个源题库是否存在（只读操作，无需事务）
+        // 检查两个源题库是否存在
         QuestionBank bank1 = questionBankMapper.selectById(bankId1);
         QuestionBank bank2 = questionBankMapper.selectById(bankId2);
         if (bank1 == null) {
@@ -115,22 +178,113 @@ public class QuestionBankServiceImpl implements QuestionBankService {
             throw BusinessException.of(ErrorCode.NOT_FOUND, "题库2不存在，ID: " + bankId2);
         }
 
-        // 执行需要事务的操作
-        return doMergeInTransaction(bankId1, bankId2, name, description);
+        return doMerge(Arrays.asList(bankId1, bankId2), name, description);
     }
 
     /**
-     * 在事务中执行合并操作
+     * 创建新题库并在数据库内以集合操作复制题目，题目不经过应用内存
+     * 只复制内容引用，题干与选项仍由源题目与新题目共享；题目总数由插入触发器累加
      *
-     * @param bankId1     第一个题库ID
-     * @param bankId2     第二个题库ID
-     * @param name        新题库名称
-     * @param description 新题库描述
+     * @param sourceBankIds 源题库ID
+     * @param name          新题库名称
+     * @param description   新题库描述
      * @return 新题库ID
      */
+    private Long doMerge(List<Long> sourceBankIds, String name, String description) {
+        Long newBankId = createEmptyBank(name, description);
+
+        int questionCount = questionMapper.copyQuestions(newBankId, sourceBankIds);
+        log.info("题库合并完成，新题库ID: {}，共复制题目 {} 条", newBankId, questionCount);
+        return newBankId;
+    }
+
+    @Override
     @Transactional(rollbackFor = Exception.class)
-    protected Long doMergeInTransaction(Long bankId1, Long bankId2, String name, String description) {
-        // 创建新题库
+    public MergeBanksResultDTO mergeBanks(List<Long> bankIds, String name, String description) {
+        if (bankIds == null || bankIds.isEmpty()) {
+            throw BusinessException.of(ErrorCode.BAD_REQUEST, "源题库ID不能为空");
+        }
+        if (name == null || name.trim().isEmpty()) {
+            throw BusinessException.of(ErrorCode.BAD_REQUEST, "题库名称不能为空");
+        }
+        List<Long> sourceIds = bankIds.stream().distinct().collect(Collectors.toList());
+        Set<Long> found = questionBankMapper.selectByIds(sourceIds).stream()
+                .map(QuestionBank::getId)
+                .collect(Collectors.toSet());
+        List<Long> missing = sourceIds.stream().filter(id -> !found.contains(id)).collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            throw BusinessException.of(ErrorCode.NOT_FOUND, "题库不存在，ID: " + missing);
+        }
+
+        log.info("开始合并题库，源题库: {}, 新题库名: {}", sourceIds, name);
+        Long newBankId = createEmptyBank(name, description);
+
+        // 逐行流式读取，内存只保留指纹集合和一个写入批次
+        Set<QuestionFingerprint> seen = new HashSet<>();
+        List<QuestionMergeRow> batch = new ArrayList<>(MERGE_BATCH_SIZE);
+        int sourceCount = 0;
+        int mergedCount = 0;
+        QuestionMergeRow current = null;
+        QuestionFingerprint.Builder fingerprint = null;
+        try (Cursor<QuestionMergeRow> cursor = serverCursorFetch.open(() -> questionMapper.streamForMerge(sourceIds))) {
+            for (QuestionMergeRow row : cursor) {
+                if (current == null || !current.getId().equals(row.getId())) {
+                    if (current != null) {
+                        sourceCount++;
+                        if (seen.add(fingerprint.build())) {
+                            mergedCount += appendMerged(newBankId, batch, current);
+                        }
+                    }
+                    current = row;
+                    fingerprint = QuestionFingerprint.builder(row.getType(), row.getContent(), row.getCorrectAnswer());
+                }
+                fingerprint.option(row.getOptionLabel(), row.getOptionText());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (current != null) {
+            sourceCount++;
+            if (seen.add(fingerprint.build())) {
+                mergedCount += appendMerged(newBankId, batch, current);
+            }
+        }
+        if (!batch.isEmpty()) {
+            questionMapper.insertMerged(newBankId, batch);
+            mergedCount += batch.size();
+        }
+
+        MergeBanksResultDTO result = new MergeBanksResultDTO();
+        result.setBankId(newBankId);
+        result.setSourceQuestions(sourceCount);
+        result.setMergedQuestions(mergedCount);
+        result.setDuplicates(sourceCount - mergedCount);
+        log.info("题库合并完成，新题库ID: {}，源题目 {} 条，写入 {} 条，重复 {} 条",
+                newBankId, sourceCount, mergedCount, sourceCount - mergedCount);
+        return result;
+    }
+
+    /**
+     * 加入写入批次，批次满时写入
+     *
+     * @return 本次写入的题目数
+     */
+    private int appendMerged(Long bankId, List<QuestionMergeRow> batch, QuestionMergeRow question) {
+        batch.add(question);
+        if (batch.size() < MERGE_BATCH_SIZE) {
+            return 0;
+        }
+        int written = questionMapper.insertMerged(bankId, batch);
+        batch.clear();
+        return written;
+    }
+
+    /**
+     * 创建计数为 0 的新题库
+     *
+     * @return 新题库ID
+     */
+    private Long createEmptyBank(String name, String description) {
         QuestionBank newBank = new QuestionBank();
         newBank.setName(name);
         newBank.setDescription(description != null ? description : "");
@@ -141,79 +295,11 @@ public class QuestionBankServiceImpl implements QuestionBankService {
         newBank.setUpdatedAt(LocalDateTime.now());
 
         questionBankMapper.insert(newBank);
-        Long newBankId = newBank.getId();
-        log.info("新题库创建成功，ID: {}", newBankId);
-
-        // 查询两个题库的所有题目
-        List<Long> sourceBankIds = Arrays.asList(bankId1, bankId2);
-        QueryWrapper<Question> qw = new QueryWrapper<>();
-        qw.in("bank_id", sourceBankIds);
-        List<Question> oldQuestions = questionMapper.selectList(qw);
-
-        if (oldQuestions.isEmpty()) {
-            log.info("无题目可复制，直接返回新题库ID: {}", newBankId);
-            return newBankId;
-        }
-
-        // 复制题目（重置用户相关字段）
-        List<Question> newQuestions = new ArrayList<>();
-        Map<Long, Long> oldToNewQuestionIdMap = new HashMap<>();
-
-        for (Question oldQ : oldQuestions) {
-            Question newQ = new Question();
-            newQ.setBankId(newBankId);
-            newQ.setContent(oldQ.getContent());
-            newQ.setType(oldQ.getType());
-            newQ.setCorrectAnswer(oldQ.getCorrectAnswer());
-            newQ.setAnalysis(oldQ.getAnalysis());
-            newQ.setUserAnswer(null);
-            newQ.setIsCompleted(0);
-            newQ.setIsCorrect(null);
-            newQ.setCreatedAt(LocalDateTime.now());
-            newQ.setUpdatedAt(LocalDateTime.now());
-
-            questionMapper.insert(newQ);
-            newQuestions.add(newQ);
-            oldToNewQuestionIdMap.put(oldQ.getId(), newQ.getId());
-        }
-
-        log.info("复制题目 {} 条", newQuestions.size());
-
-        // 获取所有旧题目的ID，用于查询选项
-        List<Long> oldQuestionIds = oldQuestions.stream().map(Question::getId).collect(Collectors.toList());
-        if (!oldQuestionIds.isEmpty()) {
-            QueryWrapper<QuestionOption> optionQw = new QueryWrapper<>();
-            optionQw.in("question_id", oldQuestionIds);
-            List<QuestionOption> oldOptions = questionOptionMapper.selectList(optionQw);
-
-            // 批量插入新选项
-            for (QuestionOption oldOpt : oldOptions) {
-                Long newQuestionId = oldToNewQuestionIdMap.get(oldOpt.getQuestionId());
-                if (newQuestionId == null) {
-                    continue;
-                }
-
-                QuestionOption newOpt = new QuestionOption();
-                newOpt.setQuestionId(newQuestionId);
-                newOpt.setOptionContent(oldOpt.getOptionContent());
-                newOpt.setSortOrder(oldOpt.getSortOrder());
-                newOpt.setCreatedAt(LocalDateTime.now());
-                newOpt.setUpdatedAt(LocalDateTime.now());
-
-                questionOptionMapper.insert(newOpt);
-            }
-
-            log.info("复制选项 {} 条", oldOptions.size());
-        }
-
-        // 更新新题库的题目总数
-        newBank.setTotalCount(newQuestions.size());
-        questionBankMapper.updateById(newBank);
-
-        log.info("题库合并完成，新题库ID: {}，共复制题目 {} 条", newBankId, newQuestions.size());
-        return newBankId;
+        bankListCache.invalidateAfterCommit();
+        log.info("新题库创建成功，ID: {}", newBank.getId());
+        return newBank.getId();
     }
-    
+
     /**
      * 将QuestionBank实体转换为QuestionBankDTO
      *
@@ -0,0 +1,84 @@
+package com.easytiwu.servicebank.service.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 题目内容指纹：规范化后的题型、题干、答案与按标识有序的选项的 SHA-256 前 128 位
+ * 规范化包括 NFKC（全角转半角等）、去除首尾空白、连续空白合并为一个空格、转小写
+ *
+ * @param hi 高 64 位
+ * @param lo 低 64 位
+ * @author sheny
+ */
+record QuestionFingerprint(long hi, long lo) {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /**
+     * 开始计算一道题目的指纹，选项随后按标识顺序逐个追加
+     *
+     * @param type          题型
+     * @param content       题干
+     * @param correctAnswer 正确答案
+     * @return 指纹构建器
+     */
+    static Builder builder(String type, String content, String correctAnswer) {
+        Builder builder = new Builder();
+        builder.field(type);
+        builder.field(content);
+        builder.field(correctAnswer);
+        return builder;
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).strip();
+        return WHITESPACE.matcher(normalized).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    static final class Builder {
+
+        private final MessageDigest digest;
+
+        private Builder() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * 追加一个选项
+         *
+         * @param label 选项标识，为空表示题目无选项，忽略
+         * @param text  选项内容
+         */
+        void option(String label, String text) {
+            if (label == null) {
+                return;
+            }
+            field(label);
+            field(text);
+        }
+
+        QuestionFingerprint build() {
+            ByteBuffer hash = ByteBuffer.wrap(digest.digest());
+            return new QuestionFingerprint(hash.getLong(), hash.getLong());
+        }
+
+        private void field(String text) {
+            digest.update(normalize(text).getBytes(StandardCharsets.UTF_8));
+            // 分隔符避免相邻字段拼接产生歧义
+            digest.update((byte) 0);
+        }
+    }
+}
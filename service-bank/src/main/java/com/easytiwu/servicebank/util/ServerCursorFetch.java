@@ -0,0 +1,61 @@
+package com.easytiwu.servicebank.util;
+
+import com.mysql.cj.conf.PropertyKey;
+import com.mysql.cj.conf.PropertySet;
+import com.mysql.cj.conf.RuntimeProperty;
+import com.mysql.cj.jdbc.JdbcConnection;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+/**
+ * 服务端游标读取
+ * 只在打开指定查询时为当前事务的连接开启 useCursorFetch（连带服务端预处理），查询按 fetchSize 分批拉取，
+ * 读取期间同一连接仍可执行写入；打开后立即恢复连接原有设置，其他语句不受影响
+ *
+ * @author sheny
+ */
+@Component
+public class ServerCursorFetch {
+
+    private final DataSource dataSource;
+
+    public ServerCursorFetch(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * 以服务端游标打开查询，须在事务内调用，保证 MyBatis 使用同一连接
+     *
+     * @param query 返回游标的查询，语句需声明 fetchSize &gt; 0 且为 FORWARD_ONLY
+     * @param <T>   游标类型
+     * @return 查询返回的游标
+     */
+    public <T> T open(Supplier<T> query) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            PropertySet properties = connection.unwrap(JdbcConnection.class).getPropertySet();
+            RuntimeProperty<Boolean> cursorFetch = properties.getBooleanProperty(PropertyKey.useCursorFetch);
+            RuntimeProperty<Boolean> serverPrepare = properties.getBooleanProperty(PropertyKey.useServerPrepStmts);
+            boolean cursorFetchBefore = cursorFetch.getValue();
+            boolean serverPrepareBefore = serverPrepare.getValue();
+            cursorFetch.setValue(true);
+            serverPrepare.setValue(true);
+            try {
+                return query.get();
+            } finally {
+                cursorFetch.setValue(cursorFetchBefore);
+                serverPrepare.setValue(serverPrepareBefore);
+            }
+        } catch (SQLException e) {
+            throw new CannotGetJdbcConnectionException("无法开启服务端游标", e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.easytiwu.servicecontent.cache;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 基于答案键索引的判题结果
+ *
+ * @author sheny
+ */
+@Getter
+@RequiredArgsConstructor
+public class AnswerGrade {
+    private final Long bankId;
+    private final String type;
+    private final String normalizedAnswer;
+    private final boolean correct;
+    private final String displayAnswer;
+}
@@ -0,0 +1,270 @@
+package com.easytiwu.servicecontent.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.easytiwu.commonexception.enums.ErrorCode;
+import com.easytiwu.commonexception.exception.BusinessException;
+import com.easytiwu.servicecontent.entity.Question;
+import com.easytiwu.servicecontent.mapper.QuestionBankMapper;
+import com.easytiwu.servicecontent.mapper.QuestionMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 题库答案键内存索引
+ * 按题库批量加载 (id, type, correct_answer)，判题只需一次二分定位和一次掩码比较，不再读取题目整行；
+ * 定期以题库版本号核对快照，题库服务编辑题目内容（写时复制改写 content_id）后不再按旧答案判题
+ *
+ * @author sheny
+ */
+@Slf4j
+@Component
+public class AnswerKeyIndex {
+
+    private final QuestionMapper questionMapper;
+    private final QuestionBankMapper questionBankMapper;
+    private final Map<Long, BankAnswerKeys> banks = new ConcurrentHashMap<>();
+    /**
+     * 已缓存题库中各题目所属的题库，按题目ID判题时直接定位，不必逐个题库查找
+     */
+    private final Map<Long, Long> owners = new ConcurrentHashMap<>();
+
+    @Value("${content.answer-key.max-banks:256}")
+    private int maxBanks;
+
+    @Value("${content.answer-key.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${content.answer-key.revalidate-ms:2000}")
+    private long revalidateMs;
+
+    public AnswerKeyIndex(QuestionMapper questionMapper, QuestionBankMapper questionBankMapper) {
+        this.questionMapper = questionMapper;
+        this.questionBankMapper = questionBankMapper;
+    }
+
+    /**
+     * 使用答案键判题，不改变缓存的作答状态；共享作答状态在写入提交后由 applyAnswer 记录
+     *
+     * @param questionId 题目ID
+     * @param userAnswer 用户答案
+     * @return 判题结果；题目不存在或答案键无法编码时返回 null，由调用方走数据库路径
+     */
+    public AnswerGrade grade(long questionId, String userAnswer) {
+        BankAnswerKeys keys = locate(questionId);
+        if (keys == null) {
+            return null;
+        }
+        int i = keys.indexOf(questionId);
+        if (i < 0 || keys.kinds[i] == BankAnswerKeys.KIND_UNSUPPORTED) {
+            return null;
+        }
+        return keys.grade(i, userAnswer);
+    }
+
+    /**
+     * 记录已提交的共享作答状态，题库未缓存或不含该题时忽略
+     *
+     * @param bankId     题库ID
+     * @param questionId 题目ID
+     * @param isCorrect  是否答对
+     */
+    public void applyAnswer(long bankId, long questionId, boolean isCorrect) {
+        BankAnswerKeys keys = banks.get(bankId);
+        if (keys == null) {
+            return;
+        }
+        int i = keys.indexOf(questionId);
+        if (i >= 0) {
+            keys.states[i] = isCorrect ? BankAnswerKeys.STATE_CORRECT : BankAnswerKeys.STATE_WRONG;
+        }
+    }
+
+    /**
+     * 预取一组题目的答案键，供考试会话在整个作答期间使用同一份答案键判题
+     *
+     * @param bankId      题库ID
+     * @param questionIds 题目ID
+     * @return 预取的答案键，不在题库中的题目被忽略
+     */
+    public PrefetchedAnswerKeys prefetch(long bankId, long[] questionIds) {
+        return new PrefetchedAnswerKeys(snapshot(bankId).subset(questionIds));
+    }
+
+    /**
+     * 使题库的答案键失效，下次访问时重新加载
+     *
+     * @param bankId 题库ID
+     */
+    public void invalidate(Long bankId) {
+        if (bankId == null) {
+            return;
+        }
+        BankAnswerKeys removed = banks.remove(bankId);
+        if (removed != null) {
+            forgetOwners(removed);
+            log.debug("答案键索引失效，bankId: {}", bankId);
+        }
+    }
+
+    /**
+     * 获取题库快照，不存在或已过期时重新加载
+     *
+     * @param bankId 题库ID
+     * @return 题库快照
+     * @throws BusinessException 题库不存在或已删除
+     */
+    BankAnswerKeys snapshot(long bankId) {
+        BankAnswerKeys keys = banks.get(bankId);
+        if (keys != null && isCurrent(keys)) {
+            return keys;
+        }
+        keys = load(bankId);
+        if (keys.version < 0) {
+            throw new BusinessException(ErrorCode.NOT_FOUND, "题库不存在，ID: " + bankId);
+        }
+        return keys;
+    }
+
+    /**
+     * 查找包含该题目的题库答案键，未命中时按题目所属题库加载
+     */
+    private BankAnswerKeys locate(long questionId) {
+        Long bankId = owners.get(questionId);
+        if (bankId != null) {
+            BankAnswerKeys keys = banks.get(bankId);
+            if (keys != null && keys.indexOf(questionId) >= 0) {
+                return isCurrent(keys) ? keys : load(bankId);
+            }
+        }
+
+        LambdaQueryWrapper<Question> qw = new LambdaQueryWrapper<>();
+        qw.select(Question::getBankId).eq(Question::getId, questionId);
+        Question owner = questionMapper.selectOne(qw);
+        if (owner == null) {
+            return null;
+        }
+        return load(owner.getBankId());
+    }
+
+    /**
+     * 快照是否仍可使用：未超过有效期，且距上次核对超过间隔时题库版本号未变
+     */
+    private boolean isCurrent(BankAnswerKeys keys) {
+        long now = System.currentTimeMillis();
+        if (now - keys.loadedAtMillis >= ttlSeconds * 1000) {
+            return false;
+        }
+        if (now - keys.validatedAtMillis <= revalidateMs) {
+            return true;
+        }
+        Long version = questionBankMapper.selectVersion(keys.bankId);
+        if (version == null || version != keys.version) {
+            return false;
+        }
+        keys.validatedAtMillis = now;
+        return true;
+    }
+
+    /**
+     * 批量加载题库答案键；没有题目时只返回空快照，不占用缓存容量
+     */
+    private BankAnswerKeys load(long bankId) {
+        // 先读版本号再加载，加载期间发生的变更会在下次核对时发现
+        Long version = questionBankMapper.selectVersion(bankId);
+        List<Question> rows = version == null ? List.of() : questionMapper.selectAnswerKeys(bankId);
+
+        int n = rows.size();
+        long[] ids = new long[n];
+        byte[] types = new byte[n];
+        byte[] kinds = new byte[n];
+        int[] keys = new int[n];
+        String[] texts = new String[n];
+        String[] displays = new String[n];
+        byte[] states = new byte[n];
+        for (int i = 0; i < n; i++) {
+            Question q = rows.get(i);
+            String answer = q.getCorrectAnswer();
+            ids[i] = q.getId();
+            types[i] = AnswerKeys.typeCode(q.getType());
+            states[i] = stateOf(q);
+            displays[i] = answer == null ? "无" : answer;
+
+            if (types[i] == AnswerKeys.TYPE_MULTIPLE) {
+                int mask = AnswerKeys.parseOptionMask(answer);
+                if (mask == AnswerKeys.INVALID_MASK) {
+                    kinds[i] = BankAnswerKeys.KIND_UNSUPPORTED;
+                } else {
+                    kinds[i] = BankAnswerKeys.KIND_MASK;
+                    keys[i] = mask;
+                    displays[i] = AnswerKeys.maskToDisplay(mask);
+                }
+            } else if (types[i] == AnswerKeys.TYPE_TRUE_FALSE && ("1".equals(answer) || "0".equals(answer))) {
+                kinds[i] = BankAnswerKeys.KIND_BOOL;
+                keys[i] = answer.charAt(0) - '0';
+                displays[i] = keys[i] == 1 ? "正确" : "错误";
+            } else {
+                kinds[i] = BankAnswerKeys.KIND_TEXT;
+                texts[i] = answer;
+                if (types[i] == AnswerKeys.TYPE_TRUE_FALSE && answer != null) {
+                    displays[i] = "错误";
+                }
+            }
+        }
+
+        BankAnswerKeys loaded = new BankAnswerKeys(bankId, System.currentTimeMillis(),
+                ids, types, kinds, keys, texts, displays, states);
+        loaded.version = version == null ? -1 : version;
+        if (n == 0) {
+            // 不存在的题库ID同样查不到题目，缓存空结果会让任意ID挤出真实题库
+            invalidate(bankId);
+            return loaded;
+        }
+        evictIfFull(bankId);
+        BankAnswerKeys previous = banks.put(bankId, loaded);
+        if (previous != null) {
+            forgetOwners(previous);
+        }
+        for (long id : ids) {
+            owners.put(id, bankId);
+        }
+        log.debug("加载题库答案键，bankId: {}, 题目数: {}", bankId, n);
+        return loaded;
+    }
+
+    private static byte stateOf(Question q) {
+        if (!Integer.valueOf(1).equals(q.getIsCompleted())) {
+            return BankAnswerKeys.STATE_UNANSWERED;
+        }
+        return Integer.valueOf(0).equals(q.getIsCorrect()) ? BankAnswerKeys.STATE_WRONG : BankAnswerKeys.STATE_CORRECT;
+    }
+
+    /**
+     * 超出容量时淘汰最早加载的题库
+     */
+    private void evictIfFull(long incomingBankId) {
+        if (banks.size() < maxBanks || banks.containsKey(incomingBankId)) {
+            return;
+        }
+        banks.values().stream()
+                .min((a, b) -> Long.compare(a.loadedAtMillis, b.loadedAtMillis))
+                .ifPresent(oldest -> {
+                    if (banks.remove(oldest.bankId, oldest)) {
+                        forgetOwners(oldest);
+                    }
+                });
+    }
+
+    /**
+     * 移除快照中题目的归属记录；题目已被新快照或其他题库重新登记时保留
+     */
+    private void forgetOwners(BankAnswerKeys keys) {
+        for (long id : keys.ids) {
+            owners.remove(id, keys.bankId);
+        }
+    }
+}
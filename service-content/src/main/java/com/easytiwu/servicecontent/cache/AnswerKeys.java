@@ -0,0 +1,122 @@
+package com.easytiwu.servicecontent.cache;
+
+/**
+ * 答案键编码工具
+ * 多选/单字母答案编码为 A-Z 位掩码，判断题编码为布尔，便于判题时直接按位比较
+ *
+ * @author sheny
+ */
+public final class AnswerKeys {
+
+    public static final byte TYPE_SINGLE = 0;
+    public static final byte TYPE_MULTIPLE = 1;
+    public static final byte TYPE_FILL_BLANK = 2;
+    public static final byte TYPE_TRUE_FALSE = 3;
+    public static final byte TYPE_SHORT_ANSWER = 4;
+
+    /**
+     * 无法编码为位掩码时的返回值
+     */
+    public static final int INVALID_MASK = -1;
+
+    private static final String[] TYPE_NAMES = {"single", "multiple", "fill_blank", "true_false", "short_answer"};
+
+    private AnswerKeys() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * 题型名称转编码
+     *
+     * @param type 题型名称
+     * @return 题型编码，未知题型返回 -1
+     */
+    public static byte typeCode(String type) {
+        if (type == null) {
+            return -1;
+        }
+        for (byte i = 0; i < TYPE_NAMES.length; i++) {
+            if (TYPE_NAMES[i].equals(type)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 题型编码转名称
+     *
+     * @param code 题型编码
+     * @return 题型名称
+     */
+    public static String typeName(byte code) {
+        return code >= 0 && code < TYPE_NAMES.length ? TYPE_NAMES[code] : null;
+    }
+
+    /**
+     * 将选项答案解析为位掩码
+     * 兼容 JSON 数组（["A","C"]）与逗号分隔（A,C）两种格式，逐字符扫描，不使用正则
+     *
+     * @param answer 答案字符串
+     * @return A-Z 位掩码；包含非单个大写字母的选项时返回 {@link #INVALID_MASK}
+     */
+    public static int parseOptionMask(String answer) {
+        if (answer == null) {
+            return INVALID_MASK;
+        }
+        int mask = 0;
+        int tokenChar = -1;
+        int tokenLength = 0;
+        int len = answer.length();
+        for (int i = 0; i <= len; i++) {
+            char c = i < len ? answer.charAt(i) : ',';
+            if (c == ',') {
+                if (tokenLength == 1 && tokenChar >= 'A' && tokenChar <= 'Z') {
+                    mask |= 1 << (tokenChar - 'A');
+                } else if (tokenLength != 0) {
+                    return INVALID_MASK;
+                }
+                tokenLength = 0;
+            } else if (c != '[' && c != ']' && c != '"' && !Character.isWhitespace(c)) {
+                tokenChar = c;
+                tokenLength++;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * 将位掩码还原为标准化的 JSON 数组答案，如 ["A","C"]
+     *
+     * @param mask 位掩码
+     * @return 标准化答案
+     */
+    public static String maskToJson(int mask) {
+        StringBuilder sb = new StringBuilder(2 + Integer.bitCount(mask) * 4);
+        sb.append('[');
+        for (int bits = mask; bits != 0; bits &= bits - 1) {
+            if (sb.length() > 1) {
+                sb.append(',');
+            }
+            sb.append('"').append((char) ('A' + Integer.numberOfTrailingZeros(bits))).append('"');
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * 将位掩码格式化为展示文本，如 A, C
+     *
+     * @param mask 位掩码
+     * @return 展示文本
+     */
+    public static String maskToDisplay(int mask) {
+        StringBuilder sb = new StringBuilder(Integer.bitCount(mask) * 3);
+        for (int bits = mask; bits != 0; bits &= bits - 1) {
+            if (!sb.isEmpty()) {
+                sb.append(", ");
+            }
+            sb.append((char) ('A' + Integer.numberOfTrailingZeros(bits)));
+        }
+        return sb.toString();
+    }
+}
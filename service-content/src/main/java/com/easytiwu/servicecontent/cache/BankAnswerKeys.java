@@ -0,0 +1,150 @@
+package com.easytiwu.servicecontent.cache;
+
+import java.util.Arrays;
+
+/**
+ * 单个题库的答案键快照
+ * 以题目ID升序的并行数组存储，按ID二分定位；除作答状态外整体不可变，失效时整块替换
+ *
+ * @author sheny
+ */
+final class BankAnswerKeys {
+
+    static final byte KIND_TEXT = 0;
+    static final byte KIND_MASK = 1;
+    static final byte KIND_BOOL = 2;
+    /**
+     * 无法编码的多选答案，交由数据库路径按原逻辑判题
+     */
+    static final byte KIND_UNSUPPORTED = 3;
+
+    static final byte STATE_UNANSWERED = 0;
+    static final byte STATE_CORRECT = 1;
+    static final byte STATE_WRONG = 2;
+
+    final long bankId;
+    final long loadedAtMillis;
+    final long[] ids;
+    final byte[] types;
+    final byte[] kinds;
+    /**
+     * KIND_MASK 为选项位掩码，KIND_BOOL 为 0/1
+     */
+    final int[] keys;
+    /**
+     * KIND_TEXT 的原始正确答案，其余为 null
+     */
+    final String[] texts;
+    /**
+     * 预先格式化好的正确答案展示文本
+     */
+    final String[] displays;
+    /**
+     * 作答状态，供抽题过滤与加权使用，判题时写穿更新
+     */
+    final byte[] states;
+
+    /**
+     * 加载前读取的题库版本号，题库不存在时为 -1；题目内容被编辑或其他实例作答后版本号随之变化
+     */
+    volatile long version = -1;
+    volatile long validatedAtMillis;
+
+    BankAnswerKeys(long bankId, long loadedAtMillis, long[] ids, byte[] types, byte[] kinds,
+                   int[] keys, String[] texts, String[] displays, byte[] states) {
+        this.bankId = bankId;
+        this.loadedAtMillis = loadedAtMillis;
+        this.validatedAtMillis = loadedAtMillis;
+        this.ids = ids;
+        this.types = types;
+        this.kinds = kinds;
+        this.keys = keys;
+        this.texts = texts;
+        this.displays = displays;
+        this.states = states;
+    }
+
+    /**
+     * 定位题目下标
+     *
+     * @param questionId 题目ID
+     * @return 下标，不存在时返回负数
+     */
+    int indexOf(long questionId) {
+        if (ids.length == 0 || questionId < ids[0] || questionId > ids[ids.length - 1]) {
+            return -1;
+        }
+        return Arrays.binarySearch(ids, questionId);
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    /**
+     * 判题，不修改作答状态
+     *
+     * @param i          题目下标，答案键须可编码
+     * @param userAnswer 用户答案
+     * @return 判题结果
+     */
+    AnswerGrade grade(int i, String userAnswer) {
+        String trimmed = userAnswer == null ? "" : userAnswer.trim();
+        String type = AnswerKeys.typeName(types[i]);
+        String normalized = trimmed;
+        boolean correct;
+        switch (kinds[i]) {
+            case KIND_MASK -> {
+                int mask = AnswerKeys.parseOptionMask(trimmed);
+                if (mask == AnswerKeys.INVALID_MASK) {
+                    // 含非法选项，必然不等于由合法选项组成的答案键，标准化交由调用方
+                    return new AnswerGrade(bankId, type, null, false, displays[i]);
+                }
+                normalized = AnswerKeys.maskToJson(mask);
+                correct = mask == keys[i];
+            }
+            case KIND_BOOL -> {
+                int value = trimmed.length() == 1 ? trimmed.charAt(0) - '0' : -1;
+                correct = value == keys[i];
+            }
+            default -> correct = trimmed.equals(texts[i]);
+        }
+        return new AnswerGrade(bankId, type, normalized, correct, displays[i]);
+    }
+
+    /**
+     * 截取部分题目的答案键，作答状态不随之复制
+     *
+     * @param questionIds 题目ID，不在本快照中的被忽略
+     * @return 新快照
+     */
+    BankAnswerKeys subset(long[] questionIds) {
+        long[] sorted = questionIds.clone();
+        Arrays.sort(sorted);
+        int[] idx = new int[sorted.length];
+        int n = 0;
+        for (int k = 0; k < sorted.length; k++) {
+            int i = indexOf(sorted[k]);
+            if (i >= 0 && (n == 0 || ids[idx[n - 1]] != sorted[k])) {
+                idx[n++] = i;
+            }
+        }
+        long[] subIds = new long[n];
+        byte[] subTypes = new byte[n];
+        byte[] subKinds = new byte[n];
+        int[] subKeys = new int[n];
+        String[] subTexts = new String[n];
+        String[] subDisplays = new String[n];
+        for (int k = 0; k < n; k++) {
+            int i = idx[k];
+            subIds[k] = ids[i];
+            subTypes[k] = types[i];
+            subKinds[k] = kinds[i];
+            subKeys[k] = keys[i];
+            subTexts[k] = texts[i];
+            subDisplays[k] = displays[i];
+        }
+        return new BankAnswerKeys(bankId, loadedAtMillis, subIds, subTypes, subKinds, subKeys, subTexts,
+                subDisplays, new byte[n]);
+    }
+}
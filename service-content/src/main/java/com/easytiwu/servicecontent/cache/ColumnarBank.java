@@ -0,0 +1,264 @@
+package com.easytiwu.servicecontent.cache;
+
+import com.easytiwu.servicecontent.dto.QuestionDTO;
+import com.easytiwu.servicecontent.dto.QuestionFields;
+import com.easytiwu.servicecontent.dto.QuestionOptionDTO;
+import com.easytiwu.servicecontent.entity.QuestionJoinRow;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 列式存储的单个题库
+ * 题干、解析、正确答案与选项文本按题目顺序以 UTF-8 连续写入同一字节数组，通过偏移量定位；
+ * 题型为字节编码，共享作答状态为 BitSet，仅用户最近一次作答内容以字符串数组保存并随写入更新
+ *
+ * @author sheny
+ */
+final class ColumnarBank {
+
+    static final int STR_CONTENT = 0;
+    static final int STR_ANALYSIS = 1;
+    static final int STR_CORRECT_ANSWER = 2;
+    static final int STR_FIRST_OPTION = 3;
+
+    final long bankId;
+    final long loadedAtMillis;
+    final long[] ids;
+    final byte[] types;
+
+    /**
+     * 第 i 题的字符串从 firstString[i] 开始，依次为题干、解析、正确答案、各选项文本
+     */
+    private final int[] firstString;
+    private final int[] offsets;
+    private final byte[] arena;
+    private final BitSet nullStrings;
+    private final char[] optionLabels;
+
+    private final BitSet completed;
+    private final BitSet correct;
+    private final String[] userAnswers;
+
+    final long estimatedBytes;
+    /**
+     * 载入前读取的题库版本号，版本号变化说明题目或作答状态已被其他实例或服务改变
+     */
+    volatile long version;
+    volatile long lastAccessMillis;
+    volatile long validatedAtMillis;
+
+    private ColumnarBank(long bankId, long[] ids, byte[] types, int[] firstString, int[] offsets, byte[] arena,
+                         BitSet nullStrings, char[] optionLabels, BitSet completed, BitSet correct,
+                         String[] userAnswers) {
+        this.bankId = bankId;
+        this.loadedAtMillis = System.currentTimeMillis();
+        this.lastAccessMillis = loadedAtMillis;
+        this.validatedAtMillis = loadedAtMillis;
+        this.ids = ids;
+        this.types = types;
+        this.firstString = firstString;
+        this.offsets = offsets;
+        this.arena = arena;
+        this.nullStrings = nullStrings;
+        this.optionLabels = optionLabels;
+        this.completed = completed;
+        this.correct = correct;
+        this.userAnswers = userAnswers;
+
+        long bytes = arena.length + offsets.length * 4L + firstString.length * 4L + ids.length * 8L
+                + types.length + optionLabels.length * 2L + userAnswers.length * 8L;
+        for (String s : userAnswers) {
+            bytes += s == null ? 0 : 40 + s.length() * 2L;
+        }
+        this.estimatedBytes = bytes;
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    int indexOf(long questionId) {
+        return Arrays.binarySearch(ids, questionId);
+    }
+
+    /**
+     * 写入共享作答状态
+     */
+    synchronized void applyAnswer(int i, String userAnswer, boolean isCorrect) {
+        completed.set(i);
+        correct.set(i, isCorrect);
+        userAnswers[i] = userAnswer;
+    }
+
+    /**
+     * 复制一份共享作答状态，读取时不持锁
+     */
+    synchronized SharedState sharedState() {
+        return new SharedState((BitSet) completed.clone(), (BitSet) correct.clone(), userAnswers.clone());
+    }
+
+    String analysis(int i) {
+        return string(firstString[i] + STR_ANALYSIS);
+    }
+
+    /**
+     * 按字段投影组装题目DTO
+     *
+     * @param i          题目下标
+     * @param fields     字段投影
+     * @param completed  是否已完成
+     * @param isCorrect  是否答对，未作答为 null
+     * @param userAnswer 用户作答
+     */
+    QuestionDTO toDTO(int i, QuestionFields fields, boolean completed, Integer isCorrect, String userAnswer) {
+        int base = firstString[i];
+        QuestionDTO dto = new QuestionDTO();
+        dto.setId(ids[i]);
+        dto.setType(AnswerKeys.typeName(types[i]));
+        if (fields.isContent()) {
+            dto.setContent(string(base + STR_CONTENT));
+        }
+        if (fields.isAnalysis()) {
+            dto.setAnalysis(string(base + STR_ANALYSIS));
+        }
+        if (fields.isCorrectAnswer()) {
+            dto.setCorrectAnswer(string(base + STR_CORRECT_ANSWER));
+        }
+        if (fields.isUserAnswer()) {
+            dto.setUserAnswer(userAnswer);
+        }
+        if (fields.isCompleted()) {
+            dto.setIsCompleted(completed ? 1 : 0);
+        }
+        if (fields.isCorrect()) {
+            dto.setIsCorrect(isCorrect);
+        }
+        if (fields.isOptions()) {
+            int end = firstString[i + 1];
+            if (end == base + STR_FIRST_OPTION) {
+                dto.setOptions(Collections.emptyList());
+            } else {
+                List<QuestionOptionDTO> options = new ArrayList<>(end - base - STR_FIRST_OPTION);
+                for (int s = base + STR_FIRST_OPTION; s < end; s++) {
+                    QuestionOptionDTO od = new QuestionOptionDTO();
+                    od.setLabel(String.valueOf(optionLabels[s]));
+                    od.setText(string(s));
+                    options.add(od);
+                }
+                dto.setOptions(options);
+            }
+        }
+        return dto;
+    }
+
+    private String string(int s) {
+        if (nullStrings.get(s)) {
+            return null;
+        }
+        return new String(arena, offsets[s], offsets[s + 1] - offsets[s], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 共享作答状态快照
+     */
+    record SharedState(BitSet completed, BitSet correct, String[] userAnswers) {
+    }
+
+    /**
+     * 从按 (题目ID, 选项标识) 有序的联表结果逐行构建列式题库
+     */
+    static final class Builder implements ResultHandler<QuestionJoinRow> {
+
+        private final long bankId;
+        private long[] ids = new long[256];
+        private byte[] types = new byte[256];
+        private int[] firstString = new int[257];
+        private int[] offsets = new int[1024];
+        private char[] optionLabels = new char[1024];
+        private byte[] arena = new byte[64 * 1024];
+        private final BitSet nullStrings = new BitSet();
+        private final BitSet completed = new BitSet();
+        private final BitSet correct = new BitSet();
+        private final List<String> userAnswers = new ArrayList<>();
+        private int n;
+        private int strings;
+        private int arenaSize;
+        private long lastId = -1;
+
+        Builder(long bankId) {
+            this.bankId = bankId;
+        }
+
+        @Override
+        public void handleResult(ResultContext<? extends QuestionJoinRow> context) {
+            QuestionJoinRow row = context.getResultObject();
+            if (row.getId() != lastId) {
+                startQuestion(row);
+            }
+            if (row.getOptionLabel() != null) {
+                String label = row.getOptionLabel();
+                int s = addString(row.getOptionText());
+                optionLabels[s] = label.isEmpty() ? ' ' : label.charAt(0);
+            }
+        }
+
+        private void startQuestion(QuestionJoinRow row) {
+            if (n == ids.length) {
+                ids = Arrays.copyOf(ids, n * 2);
+                types = Arrays.copyOf(types, n * 2);
+                firstString = Arrays.copyOf(firstString, n * 2 + 1);
+            }
+            lastId = row.getId();
+            ids[n] = row.getId();
+            types[n] = AnswerKeys.typeCode(row.getType());
+            firstString[n] = strings;
+            addString(row.getContent());
+            addString(row.getAnalysis());
+            addString(row.getCorrectAnswer());
+            if (Integer.valueOf(1).equals(row.getIsCompleted())) {
+                completed.set(n);
+            }
+            if (Integer.valueOf(1).equals(row.getIsCorrect())) {
+                correct.set(n);
+            }
+            userAnswers.add(row.getUserAnswer());
+            n++;
+        }
+
+        private int addString(String value) {
+            int s = strings++;
+            if (strings + 1 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                optionLabels = Arrays.copyOf(optionLabels, optionLabels.length * 2);
+            }
+            offsets[s] = arenaSize;
+            if (value == null) {
+                nullStrings.set(s);
+            } else {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                if (arenaSize + bytes.length > arena.length) {
+                    arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaSize + bytes.length));
+                }
+                System.arraycopy(bytes, 0, arena, arenaSize, bytes.length);
+                arenaSize += bytes.length;
+            }
+            offsets[s + 1] = arenaSize;
+            return s;
+        }
+
+        ColumnarBank build() {
+            firstString[n] = strings;
+            return new ColumnarBank(bankId, Arrays.copyOf(ids, n), Arrays.copyOf(types, n),
+                    Arrays.copyOf(firstString, n + 1), Arrays.copyOf(offsets, strings + 1),
+                    Arrays.copyOf(arena, arenaSize), nullStrings, Arrays.copyOf(optionLabels, strings),
+                    completed, correct, userAnswers.toArray(new String[0]));
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.easytiwu.servicecontent.cache;
+
+import com.easytiwu.servicecontent.dto.QuestionDTO;
+import com.easytiwu.servicecontent.dto.QuestionFields;
+import com.easytiwu.servicecontent.entity.UserAnswerState;
+import com.easytiwu.servicecontent.mapper.QuestionBankMapper;
+import com.easytiwu.servicecontent.mapper.QuestionMapper;
+import com.easytiwu.servicecontent.mapper.UserAnswerStateMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 热点题库列式内存存储（可选）
+ * 读取次数达到阈值的题库整体载入内存，题目列表、抽题与解析直接从内存组装；
+ * 本实例的共享作答状态在写入提交后更新内存，其他实例的作答、导入合并删除与题目编辑通过定期核对题库版本号发现；
+ * 总占用超过内存预算时淘汰最久未访问的题库
+ *
+ * @author sheny
+ */
+@Slf4j
+@Component
+public class HotBankStore {
+
+    private final QuestionMapper questionMapper;
+    private final QuestionBankMapper questionBankMapper;
+    private final UserAnswerStateMapper userAnswerStateMapper;
+    private final Map<Long, ColumnarBank> banks = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicInteger> readCounts = new ConcurrentHashMap<>();
+    private final AtomicLong usedBytes = new AtomicLong();
+
+    @Value("${content.hot-store.enabled:false}")
+    private boolean enabled;
+
+    @Value("${content.hot-store.memory-budget-mb:64}")
+    private long memoryBudgetMb;
+
+    @Value("${content.hot-store.min-reads:3}")
+    private int minReads;
+
+    @Value("${content.hot-store.revalidate-ms:2000}")
+    private long revalidateMs;
+
+    @Value("${content.hot-store.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    public HotBankStore(QuestionMapper questionMapper, QuestionBankMapper questionBankMapper,
+                        UserAnswerStateMapper userAnswerStateMapper) {
+        this.questionMapper = questionMapper;
+        this.questionBankMapper = questionBankMapper;
+        this.userAnswerStateMapper = userAnswerStateMapper;
+    }
+
+    /**
+     * 从内存查询题库题目
+     *
+     * @param bankId       题库ID
+     * @param questionType 题型过滤，为空表示不过滤
+     * @param wrongOnly    是否仅返回错题
+     * @param fields       字段投影
+     * @param userId       用户ID，为空表示共享状态
+     * @return 题目列表；题库未驻留内存或无法由内存满足时返回 null，由调用方查询数据库
+     */
+    public List<QuestionDTO> list(Long bankId, String questionType, boolean wrongOnly, QuestionFields fields,
+                                  Long userId) {
+        if (userId != null && fields.isUserAnswer()) {
+            return null;
+        }
+        ColumnarBank bank = acquire(bankId);
+        if (bank == null) {
+            return null;
+        }
+        byte typeCode = questionType == null ? -1 : AnswerKeys.typeCode(questionType);
+        StateView state = state(bank, userId);
+        List<QuestionDTO> result = new ArrayList<>();
+        for (int i = 0; i < bank.size(); i++) {
+            if (typeCode >= 0 && bank.types[i] != typeCode) {
+                continue;
+            }
+            if (wrongOnly && !(state.completed(i) && Integer.valueOf(0).equals(state.correct(i)))) {
+                continue;
+            }
+            result.add(bank.toDTO(i, fields, state.completed(i), state.correct(i), state.userAnswer(i)));
+        }
+        return result;
+    }
+
+    /**
+     * 从内存按给定顺序取回题目
+     *
+     * @param bankId 题库ID
+     * @param ids    题目ID，顺序即返回顺序
+     * @param fields 字段投影
+     * @param userId 用户ID，为空表示共享状态
+     * @return 题目列表；无法由内存满足时返回 null
+     */
+    public List<QuestionDTO> byIds(Long bankId, long[] ids, QuestionFields fields, Long userId) {
+        if (userId != null && fields.isUserAnswer()) {
+            return null;
+        }
+        ColumnarBank bank = acquire(bankId);
+        if (bank == null) {
+            return null;
+        }
+        StateView state = state(bank, userId);
+        List<QuestionDTO> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            int i = bank.indexOf(id);
+            if (i >= 0) {
+                result.add(bank.toDTO(i, fields, state.completed(i), state.correct(i), state.userAnswer(i)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 从内存读取题目解析，题库未驻留或不含该题时不写入
+     *
+     * @param bankId      题库ID
+     * @param questionIds 题目ID
+     * @param out         题目ID -> 解析（可能为 null）
+     */
+    public void collectAnalyses(Long bankId, Collection<Long> questionIds, Map<Long, String> out) {
+        ColumnarBank bank = enabled ? banks.get(bankId) : null;
+        if (bank == null) {
+            return;
+        }
+        for (Long questionId : questionIds) {
+            int i = bank.indexOf(questionId);
+            if (i >= 0) {
+                out.put(questionId, bank.analysis(i));
+            }
+        }
+    }
+
+    /**
+     * 记录已提交的共享作答状态
+     *
+     * @param bankId     题库ID
+     * @param questionId 题目ID
+     * @param userAnswer 用户作答
+     * @param isCorrect  是否答对
+     */
+    public void applyAnswer(Long bankId, long questionId, String userAnswer, boolean isCorrect) {
+        ColumnarBank bank = enabled ? banks.get(bankId) : null;
+        if (bank == null) {
+            return;
+        }
+        int i = bank.indexOf(questionId);
+        if (i >= 0) {
+            bank.applyAnswer(i, userAnswer, isCorrect);
+        }
+    }
+
+    /**
+     * 使题库失效，下次读取时按热度重新载入
+     *
+     * @param bankId 题库ID
+     */
+    public void invalidate(Long bankId) {
+        ColumnarBank removed = banks.remove(bankId);
+        if (removed != null) {
+            usedBytes.addAndGet(-removed.estimatedBytes);
+        }
+    }
+
+    /**
+     * 获取驻留的题库：定期以题库版本号（含分片增量）核对是否被作答、导入、合并、删除或编辑改变，
+     * 冷题库累计读取次数达到阈值后载入
+     */
+    private ColumnarBank acquire(Long bankId) {
+        if (!enabled || bankId == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        ColumnarBank bank = banks.get(bankId);
+        if (bank != null) {
+            if (now - bank.loadedAtMillis > ttlSeconds * 1000) {
+                invalidate(bankId);
+            } else if (now - bank.validatedAtMillis > revalidateMs) {
+                Long version = questionBankMapper.selectVersion(bankId);
+                if (version == null || version != bank.version) {
+                    invalidate(bankId);
+                    return null;
+                }
+                bank.validatedAtMillis = now;
+                bank.lastAccessMillis = now;
+                return bank;
+            } else {
+                bank.lastAccessMillis = now;
+                return bank;
+            }
+        }
+        if (readCounts.computeIfAbsent(bankId, k -> new AtomicInteger()).incrementAndGet() < minReads) {
+            return null;
+        }
+        return load(bankId);
+    }
+
+    private synchronized ColumnarBank load(Long bankId) {
+        ColumnarBank existing = banks.get(bankId);
+        if (existing != null) {
+            return existing;
+        }
+        // 先读版本号再载入，载入期间发生的变更会在下次核对时发现
+        Long version = questionBankMapper.selectVersion(bankId);
+        if (version == null) {
+            readCounts.remove(bankId);
+            return null;
+        }
+        ColumnarBank.Builder builder = new ColumnarBank.Builder(bankId);
+        questionMapper.streamWithOptions(bankId, null, false, QuestionFields.ALL, null, builder);
+        ColumnarBank bank = builder.build();
+        bank.version = version;
+        long budget = memoryBudgetMb * 1024 * 1024;
+        if (bank.estimatedBytes > budget) {
+            log.warn("题库 {} 约占 {} 字节，超过内存预算，不驻留", bankId, bank.estimatedBytes);
+            readCounts.remove(bankId);
+            return null;
+        }
+        while (usedBytes.get() + bank.estimatedBytes > budget && evictColdest()) {
+            // 继续淘汰
+        }
+        banks.put(bankId, bank);
+        usedBytes.addAndGet(bank.estimatedBytes);
+        readCounts.remove(bankId);
+        log.info("热点题库 {} 已载入内存，{} 题，约 {} 字节，当前共 {} 字节",
+                bankId, bank.size(), bank.estimatedBytes, usedBytes.get());
+        return bank;
+    }
+
+    /**
+     * 淘汰最久未访问的题库
+     *
+     * @return 是否淘汰了题库
+     */
+    private boolean evictColdest() {
+        ColumnarBank coldest = null;
+        for (ColumnarBank b : banks.values()) {
+            if (coldest == null || b.lastAccessMillis < coldest.lastAccessMillis) {
+                coldest = b;
+            }
+        }
+        if (coldest == null) {
+            return false;
+        }
+        invalidate(coldest.bankId);
+        return true;
+    }
+
+    /**
+     * 共享状态取内存快照；用户状态沿 idx_user_bank_correct 读取，不回表
+     */
+    private StateView state(ColumnarBank bank, Long userId) {
+        if (userId == null) {
+            ColumnarBank.SharedState shared = bank.sharedState();
+            return new StateView() {
+                @Override
+                public boolean completed(int i) {
+                    return shared.completed().get(i);
+                }
+
+                @Override
+                public Integer correct(int i) {
+                    return shared.completed().get(i) ? (shared.correct().get(i) ? 1 : 0) : null;
+                }
+
+                @Override
+                public String userAnswer(int i) {
+                    return shared.userAnswers()[i];
+                }
+            };
+        }
+        Map<Integer, Integer> answered = new HashMap<>();
+        for (UserAnswerState s : userAnswerStateMapper.selectBankStates(userId, bank.bankId)) {
+            int i = bank.indexOf(s.getQuestionId());
+            if (i >= 0) {
+                answered.put(i, s.getIsCorrect());
+            }
+        }
+        return new StateView() {
+            @Override
+            public boolean completed(int i) {
+                return answered.containsKey(i);
+            }
+
+            @Override
+            public Integer correct(int i) {
+                return answered.get(i);
+            }
+
+            @Override
+            public String userAnswer(int i) {
+                return null;
+            }
+        };
+    }
+
+    /**
+     * 作答状态视图
+     */
+    private interface StateView {
+        boolean completed(int i);
+
+        Integer correct(int i);
+
+        String userAnswer(int i);
+    }
+}
@@ -0,0 +1,42 @@
+package com.easytiwu.servicecontent.cache;
+
+/**
+ * 预取的一组题目答案键，不随题库答案键失效而变化，也不记录作答状态
+ *
+ * @author sheny
+ */
+public final class PrefetchedAnswerKeys {
+
+    private final BankAnswerKeys keys;
+
+    PrefetchedAnswerKeys(BankAnswerKeys keys) {
+        this.keys = keys;
+    }
+
+    /**
+     * 判题
+     *
+     * @param questionId 题目ID
+     * @param userAnswer 用户答案
+     * @return 判题结果；题目不在预取范围内或答案键无法编码时返回 null，由调用方走数据库路径
+     */
+    public AnswerGrade grade(long questionId, String userAnswer) {
+        int i = keys.indexOf(questionId);
+        if (i < 0 || keys.kinds[i] == BankAnswerKeys.KIND_UNSUPPORTED) {
+            return null;
+        }
+        return keys.grade(i, userAnswer);
+    }
+
+    /**
+     * 估算内存占用（字节）
+     */
+    public long estimatedBytes() {
+        long bytes = 64L + keys.size() * 24L;
+        for (int i = 0; i < keys.size(); i++) {
+            bytes += 2L * (keys.displays[i] == null ? 0 : keys.displays[i].length());
+            bytes += keys.texts[i] == null ? 0 : 40L + 2L * keys.texts[i].length();
+        }
+        return bytes;
+    }
+}
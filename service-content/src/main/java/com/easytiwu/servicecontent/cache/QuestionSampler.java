@@ -0,0 +1,171 @@
+package com.easytiwu.servicecontent.cache;
+
+import com.easytiwu.servicecontent.entity.UserAnswerState;
+import com.easytiwu.servicecontent.mapper.UserAnswerStateMapper;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 基于题库快照的随机抽题
+ * 在内存中的题目ID数组上抽取不重复的题目，避免 ORDER BY RAND() 全表排序
+ *
+ * @author sheny
+ */
+@Component
+public class QuestionSampler {
+
+    /**
+     * 加权抽题时各作答状态的权重：未作答、答对、答错
+     */
+    private static final double[] STATE_WEIGHTS = {2.0, 1.0, 4.0};
+
+    private final AnswerKeyIndex answerKeyIndex;
+    private final UserAnswerStateMapper userAnswerStateMapper;
+
+    public QuestionSampler(AnswerKeyIndex answerKeyIndex, UserAnswerStateMapper userAnswerStateMapper) {
+        this.answerKeyIndex = answerKeyIndex;
+        this.userAnswerStateMapper = userAnswerStateMapper;
+    }
+
+    /**
+     * 从题库中抽取不重复的题目ID
+     *
+     * @param bankId       题库ID
+     * @param count        抽取数量
+     * @param questionType 题型过滤，为空表示不过滤
+     * @param wrongOnly    是否仅从错题中抽取
+     * @param weighted     是否按作答状态加权（错题、未做题更容易被抽中）
+     * @param userId       用户ID，非空时按该用户的作答状态过滤与加权，否则使用共享状态
+     * @return 抽中的题目ID，顺序即出题顺序
+     */
+    public long[] sample(long bankId, int count, String questionType, boolean wrongOnly, boolean weighted,
+                         Long userId) {
+        BankAnswerKeys keys = answerKeyIndex.snapshot(bankId);
+        byte[] states = userId == null ? keys.states : userStates(keys, userId);
+        byte typeCode = questionType == null ? -1 : AnswerKeys.typeCode(questionType);
+
+        int[] candidates = new int[keys.size()];
+        int m = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            if (typeCode >= 0 && keys.types[i] != typeCode) {
+                continue;
+            }
+            if (wrongOnly && states[i] != BankAnswerKeys.STATE_WRONG) {
+                continue;
+            }
+            candidates[m++] = i;
+        }
+
+        int n = Math.min(count, m);
+        int[] picked = weighted
+                ? weightedPick(states, candidates, m, n)
+                : uniformPick(candidates, m, n);
+
+        long[] ids = new long[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = keys.ids[picked[i]];
+        }
+        return ids;
+    }
+
+    /**
+     * 按快照中的题目顺序展开用户作答状态，未作答的题目保持 STATE_UNANSWERED
+     */
+    private byte[] userStates(BankAnswerKeys keys, long userId) {
+        byte[] states = new byte[keys.size()];
+        for (UserAnswerState state : userAnswerStateMapper.selectBankStates(userId, keys.bankId)) {
+            int i = keys.indexOf(state.getQuestionId());
+            if (i >= 0) {
+                states[i] = Integer.valueOf(1).equals(state.getIsCorrect())
+                        ? BankAnswerKeys.STATE_CORRECT : BankAnswerKeys.STATE_WRONG;
+            }
+        }
+        return states;
+    }
+
+    /**
+     * 部分 Fisher-Yates 洗牌，只交换前 n 个位置
+     */
+    private int[] uniformPick(int[] candidates, int m, int n) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < n; i++) {
+            int j = i + random.nextInt(m - i);
+            int tmp = candidates[i];
+            candidates[i] = candidates[j];
+            candidates[j] = tmp;
+        }
+        int[] picked = new int[n];
+        System.arraycopy(candidates, 0, picked, 0, n);
+        return picked;
+    }
+
+    /**
+     * 加权无放回抽样（Efraimidis-Spirakis）
+     * 每个候选取键 ln(u)/w，保留键最大的 n 个，用大小为 n 的最小堆维护
+     */
+    private int[] weightedPick(byte[] states, int[] candidates, int m, int n) {
+        if (n == 0) {
+            return new int[0];
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double[] heapKeys = new double[n];
+        int[] heapPos = new int[n];
+        int size = 0;
+        for (int c = 0; c < m; c++) {
+            int pos = candidates[c];
+            double key = Math.log(1.0 - random.nextDouble()) / STATE_WEIGHTS[states[pos]];
+            if (size < n) {
+                heapKeys[size] = key;
+                heapPos[size] = pos;
+                siftUp(heapKeys, heapPos, size++);
+            } else if (key > heapKeys[0]) {
+                heapKeys[0] = key;
+                heapPos[0] = pos;
+                siftDown(heapKeys, heapPos, n);
+            }
+        }
+        // 堆内顺序与键大小无关，再打乱一次作为出题顺序
+        return uniformPick(heapPos, n, n);
+    }
+
+    private static void siftUp(double[] keys, int[] pos, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= keys[i]) {
+                return;
+            }
+            swap(keys, pos, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(double[] keys, int[] pos, int size) {
+        int i = 0;
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && keys[left] < keys[smallest]) {
+                smallest = left;
+            }
+            if (right < size && keys[right] < keys[smallest]) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(keys, pos, i, smallest);
+            i = smallest;
+        }
+    }
+
+    private static void swap(double[] keys, int[] pos, int a, int b) {
+        double k = keys[a];
+        keys[a] = keys[b];
+        keys[b] = k;
+        int p = pos[a];
+        pos[a] = pos[b];
+        pos[b] = p;
+    }
+}
@@ -0,0 +1,130 @@
+package com.easytiwu.servicecontent.cache;
+
+import com.easytiwu.commonexception.enums.ErrorCode;
+import com.easytiwu.commonexception.exception.BusinessException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 题目列表响应字节缓存
+ * 以题目列表的 ETag（题库、版本、用户及其版本、列表视图、字段投影）为键缓存序列化后的 JSON 字节及其 gzip 压缩结果，
+ * 题库版本或用户版本变化后键随之变化，旧条目不再命中并被自然淘汰；命中时直接写出字节，不再查询、组装与序列化。
+ * 准入与淘汰采用 W-TinyLFU，只访问一次的列表不会挤掉热点列表
+ *
+ * @author sheny
+ */
+@Slf4j
+@Component
+public class ResponseByteCache {
+
+    /**
+     * 预估的单条响应大小，用于确定频率估计器的大小
+     */
+    private static final int ESTIMATED_ENTRY_BYTES = 16 * 1024;
+
+    private final ObjectMapper objectMapper;
+    private TinyLfuCache<String, CachedResponse> cache;
+
+    @Value("${content.response-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${content.response-cache.max-size-mb:32}")
+    private long maxSizeMb;
+
+    @Value("${content.response-cache.gzip:true}")
+    private boolean gzip;
+
+    @Value("${content.response-cache.gzip-min-bytes:1024}")
+    private int gzipMinBytes;
+
+    public ResponseByteCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        long maxBytes = maxSizeMb * 1024 * 1024;
+        int expectedEntries = (int) Math.min(1 << 20, Math.max(1024, maxBytes / ESTIMATED_ENTRY_BYTES));
+        cache = new TinyLfuCache<>(maxBytes, expectedEntries, CachedResponse::weight);
+    }
+
+    /**
+     * 写出题目列表响应：缓存命中时直接写出字节，否则调用 loader 查询并序列化后写出，并尝试放入缓存
+     *
+     * @param etag     题目列表 ETag，为空（题库不存在）时不缓存
+     * @param request  当前请求，用于判断客户端是否接受 gzip
+     * @param response 当前响应
+     * @param loader   未命中时的查询
+     */
+    public void write(String etag, HttpServletRequest request, HttpServletResponse response, Supplier<?> loader) {
+        CachedResponse cached = cache == null || etag == null ? null : cache.get(etag);
+        if (cached == null) {
+            cached = serialize(loader.get());
+            if (cache != null && etag != null) {
+                cache.put(etag, cached);
+            }
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        byte[] body = cached.json;
+        if (cached.gzip != null && acceptsGzip(request)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            body = cached.gzip;
+        }
+        response.setContentLength(body.length);
+        try {
+            response.getOutputStream().write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private CachedResponse serialize(Object value) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new BusinessException(ErrorCode.INTERNAL_SERVER_ERROR, "题目列表序列化失败");
+        }
+        if (!gzip || json.length < gzipMinBytes) {
+            return new CachedResponse(json, null);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(json);
+        } catch (IOException e) {
+            log.warn("题目列表 gzip 压缩失败，按未压缩缓存", e);
+            return new CachedResponse(json, null);
+        }
+        return new CachedResponse(json, out.toByteArray());
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return accept != null && accept.contains("gzip");
+    }
+
+    private record CachedResponse(byte[] json, byte[] gzip) {
+
+        int weight() {
+            return json.length + (gzip == null ? 0 : gzip.length);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.easytiwu.servicecontent.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * 按字节容量限制的 W-TinyLFU 缓存
+ * 新条目先进入约占 1% 容量的窗口 LRU；被挤出窗口时与主区（分段 LRU：试用区 + 保护区）的淘汰候选比较访问频率，
+ * 频率更高者留下。频率由 4 位计数的 Count-Min Sketch 估计，计数总量达到阈值后整体减半以适应热点变化
+ *
+ * @author sheny
+ */
+public class TinyLfuCache<K, V> {
+
+    private final long windowMax;
+    private final long protectedMax;
+    private final long mainMax;
+    private final ToIntFunction<V> weigher;
+    private final FrequencySketch sketch;
+
+    private final LinkedHashMap<K, V> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, V> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, V> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private long windowBytes;
+    private long probationBytes;
+    private long protectedBytes;
+
+    /**
+     * @param maxBytes        最大容量（按权重计）
+     * @param expectedEntries 预估条目数，用于确定频率估计器大小
+     * @param weigher         条目权重
+     */
+    public TinyLfuCache(long maxBytes, int expectedEntries, ToIntFunction<V> weigher) {
+        this.windowMax = Math.max(1, maxBytes / 100);
+        this.mainMax = maxBytes - windowMax;
+        this.protectedMax = mainMax * 4 / 5;
+        this.weigher = weigher;
+        this.sketch = new FrequencySketch(expectedEntries);
+    }
+
+    /**
+     * 读取并记录一次访问
+     *
+     * @param key 键
+     * @return 值，未命中时为 null
+     */
+    public synchronized V get(K key) {
+        sketch.increment(key.hashCode());
+        V value = window.get(key);
+        if (value != null) {
+            return value;
+        }
+        value = protectedSegment.get(key);
+        if (value != null) {
+            return value;
+        }
+        value = probation.remove(key);
+        if (value != null) {
+            // 试用区再次命中，晋升到保护区，保护区溢出的条目降回试用区
+            int w = weigher.applyAsInt(value);
+            probationBytes -= w;
+            protectedSegment.put(key, value);
+            protectedBytes += w;
+            while (protectedBytes > protectedMax && !protectedSegment.isEmpty()) {
+                Map.Entry<K, V> eldest = removeEldest(protectedSegment);
+                int ew = weigher.applyAsInt(eldest.getValue());
+                protectedBytes -= ew;
+                probation.put(eldest.getKey(), eldest.getValue());
+                probationBytes += ew;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 写入条目，是否最终留在缓存中由准入策略决定
+     *
+     * @param key   键
+     * @param value 值
+     */
+    public synchronized void put(K key, V value) {
+        int w = weigher.applyAsInt(value);
+        if (w > mainMax || window.containsKey(key) || probation.containsKey(key)
+                || protectedSegment.containsKey(key)) {
+            return;
+        }
+        sketch.increment(key.hashCode());
+        window.put(key, value);
+        windowBytes += w;
+        while (windowBytes > windowMax && !window.isEmpty()) {
+            Map.Entry<K, V> candidate = removeEldest(window);
+            windowBytes -= weigher.applyAsInt(candidate.getValue());
+            admit(candidate.getKey(), candidate.getValue());
+        }
+    }
+
+    /**
+     * 当前占用的容量
+     */
+    public synchronized long weightedSize() {
+        return windowBytes + probationBytes + protectedBytes;
+    }
+
+    private void admit(K key, V value) {
+        int w = weigher.applyAsInt(value);
+        int candidateFreq = sketch.frequency(key.hashCode());
+        while (probationBytes + protectedBytes + w > mainMax) {
+            LinkedHashMap<K, V> segment = probation.isEmpty() ? protectedSegment : probation;
+            Map.Entry<K, V> victim = segment.entrySet().iterator().next();
+            if (sketch.frequency(victim.getKey().hashCode()) >= candidateFreq) {
+                return;
+            }
+            segment.remove(victim.getKey());
+            int vw = weigher.applyAsInt(victim.getValue());
+            if (segment == probation) {
+                probationBytes -= vw;
+            } else {
+                protectedBytes -= vw;
+            }
+        }
+        probation.put(key, value);
+        probationBytes += w;
+    }
+
+    private static <K, V> Map.Entry<K, V> removeEldest(LinkedHashMap<K, V> map) {
+        Iterator<Map.Entry<K, V>> it = map.entrySet().iterator();
+        Map.Entry<K, V> eldest = it.next();
+        Map.Entry<K, V> copy = Map.entry(eldest.getKey(), eldest.getValue());
+        it.remove();
+        return copy;
+    }
+
+    /**
+     * 4 位计数的 Count-Min Sketch，每个 long 存 16 个计数器，4 个哈希函数
+     */
+    private static final class FrequencySketch {
+
+        private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L,
+                0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private final long[] table;
+        private final int tableMask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int expectedEntries) {
+            int size = Integer.highestOneBit(Math.max(64, expectedEntries) - 1) << 1;
+            this.table = new long[size];
+            this.tableMask = size - 1;
+            this.sampleSize = size * 10;
+        }
+
+        int frequency(int hash) {
+            int min = 15;
+            for (int i = 0; i < 4; i++) {
+                min = Math.min(min, counter(hash, i));
+            }
+            return min;
+        }
+
+        void increment(int hash) {
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                int index = index(hash, i);
+                int offset = offset(hash, i);
+                long mask = 0xfL << offset;
+                if ((table[index] & mask) != mask) {
+                    table[index] += 1L << offset;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        private int counter(int hash, int i) {
+            return (int) ((table[index(hash, i)] >>> offset(hash, i)) & 0xfL);
+        }
+
+        private int index(int hash, int i) {
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            h += h >>> 32;
+            return (int) h & tableMask;
+        }
+
+        private int offset(int hash, int i) {
+            return (((hash >>> (i << 3)) & 3) << 2) + (i << 4) & 63;
+        }
+
+        /**
+         * 所有计数器减半
+         */
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+            additions /= 2;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.easytiwu.servicecontent.config;
+
+import com.easytiwu.commonauth.UserTokenCodec;
+import com.easytiwu.commonexception.enums.ErrorCode;
+import com.easytiwu.commonexception.exception.BusinessException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Instant;
+
+/**
+ * 当前用户解析
+ * 用户身份只取自 service-auth 签发的 Bearer 令牌，校验通过后写入请求属性，不再信任客户端自报的用户ID；
+ * 未携带令牌的请求读写共享作答状态，携带了无效或过期令牌的请求直接拒绝
+ *
+ * @author sheny
+ */
+@Component
+public class CurrentUserInterceptor implements HandlerInterceptor {
+
+    /**
+     * 当前用户ID请求属性，未登录时不存在
+     */
+    public static final String USER_ID_ATTRIBUTE = "easytiwu.userId";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final UserTokenCodec userTokenCodec;
+
+    public CurrentUserInterceptor(UserTokenCodec userTokenCodec) {
+        this.userTokenCodec = userTokenCodec;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || authorization.isBlank()) {
+            return true;
+        }
+        if (!authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            throw new BusinessException(ErrorCode.UNAUTHORIZED, "仅支持 Bearer 令牌");
+        }
+        Long userId = userTokenCodec.verify(authorization.substring(BEARER_PREFIX.length()).trim(),
+                Instant.now().getEpochSecond());
+        if (userId == null) {
+            throw new BusinessException(ErrorCode.UNAUTHORIZED, "登录令牌无效或已过期");
+        }
+        request.setAttribute(USER_ID_ATTRIBUTE, userId);
+        return true;
+    }
+}
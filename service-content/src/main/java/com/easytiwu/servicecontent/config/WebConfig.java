@@ -0,0 +1,23 @@
+package com.easytiwu.servicecontent.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * @author sheny
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final CurrentUserInterceptor currentUserInterceptor;
+
+    public WebConfig(CurrentUserInterceptor currentUserInterceptor) {
+        this.currentUserInterceptor = currentUserInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(currentUserInterceptor).addPathPatterns("/api/v1/content/**");
+    }
+}
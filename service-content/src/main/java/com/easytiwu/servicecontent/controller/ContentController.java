@@ -2,11 +2,26 @@ package com.easytiwu.servicecontent.controller;
 
 import com.easytiwu.commonexception.enums.ErrorCode;
 import com.easytiwu.commonexception.exception.BusinessException;
+import com.easytiwu.servicecontent.cache.ResponseByteCache;
+import com.easytiwu.servicecontent.config.CurrentUserInterceptor;
+import com.easytiwu.servicecontent.dto.ProgressResetDTO;
 import com.easytiwu.servicecontent.dto.QuestionDTO;
+import com.easytiwu.servicecontent.dto.QuestionFields;
+import com.easytiwu.servicecontent.dto.QuestionSearchHitDTO;
+import com.easytiwu.servicecontent.dto.QuizSessionDTO;
+import com.easytiwu.servicecontent.dto.QuizSessionStatusDTO;
+import com.easytiwu.servicecontent.dto.SyncDeltaDTO;
 import com.easytiwu.servicecontent.service.AnswerVerificationServiceInterface;
+import com.easytiwu.servicecontent.service.BankVersionService;
+import com.easytiwu.servicecontent.service.ProgressResetServiceInterface;
 import com.easytiwu.servicecontent.service.QuestionQueryServiceInterface;
+import com.easytiwu.servicecontent.service.QuestionSearchServiceInterface;
+import com.easytiwu.servicecontent.service.QuizSessionServiceInterface;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.Data;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 
@@ -17,43 +32,279 @@ import java.util.List;
 @RequestMapping("/api/v1/content")
 public class ContentController {
 
+    private static final int MAX_BATCH_ANSWERS = 500;
+    private static final int MAX_SAMPLE_COUNT = 200;
+    private static final int MAX_SEARCH_LIMIT = 100;
+    private static final int MAX_SYNC_ANSWERS = 2000;
+    private static final int MAX_SESSION_SECONDS = 4 * 60 * 60;
+
+    /**
+     * 当前用户ID，由 CurrentUserInterceptor 校验登录令牌后写入，未登录时读写题目表上的共享作答状态
+     */
+    private static final String USER_ID = CurrentUserInterceptor.USER_ID_ATTRIBUTE;
+
     private final QuestionQueryServiceInterface questionQueryService;
     private final AnswerVerificationServiceInterface answerVerificationService;
+    private final QuestionSearchServiceInterface questionSearchService;
+    private final BankVersionService bankVersionService;
+    private final ResponseByteCache responseByteCache;
+    private final QuizSessionServiceInterface quizSessionService;
+    private final ProgressResetServiceInterface progressResetService;
 
     public ContentController(QuestionQueryServiceInterface questionQueryService,
-            AnswerVerificationServiceInterface answerVerificationService) {
+            AnswerVerificationServiceInterface answerVerificationService,
+            QuestionSearchServiceInterface questionSearchService,
+            BankVersionService bankVersionService,
+            ResponseByteCache responseByteCache,
+            QuizSessionServiceInterface quizSessionService,
+            ProgressResetServiceInterface progressResetService) {
         this.questionQueryService = questionQueryService;
         this.answerVerificationService = answerVerificationService;
+        this.questionSearchService = questionSearchService;
+        this.bankVersionService = bankVersionService;
+        this.responseByteCache = responseByteCache;
+        this.quizSessionService = quizSessionService;
+        this.progressResetService = progressResetService;
     }
 
+    /**
+     * 题目列表，响应体由 ResponseByteCache 直接写入 HttpServletResponse
+     */
     @GetMapping("/questions")
-    public List<QuestionDTO> getQuestions(@RequestParam Long bankId, @RequestParam(required = false) String type) {
+    public void getQuestions(@RequestParam Long bankId, @RequestParam(required = false) String type,
+                             @RequestParam(required = false) String fields,
+                             @RequestParam(defaultValue = "false") Boolean exam,
+                             @RequestAttribute(value = USER_ID, required = false) Long userId,
+                             ServletWebRequest webRequest, HttpServletResponse response) {
         if (bankId == null) {
             throw new BusinessException(ErrorCode.PARAM_MISSING, "参数 bankId 不能为空");
         }
-        return questionQueryService.queryQuestions(bankId, type);
+        QuestionFields projection = QuestionFields.parse(fields, Boolean.TRUE.equals(exam));
+        String variant = ("wrong".equalsIgnoreCase(type) ? "wrong" : "all") + "." + projection.key();
+        String etag = bankVersionService.questionListEtag(bankId, variant, userId);
+        if (notModified(webRequest, etag)) {
+            return;
+        }
+        responseByteCache.write(etag, webRequest.getRequest(), response,
+                () -> questionQueryService.queryQuestions(bankId, type, projection, userId));
     }
 
+    /**
+     * 按题型查询题目，响应体由 ResponseByteCache 直接写入 HttpServletResponse
+     */
     @GetMapping("/questions-by-type")
-    public List<QuestionDTO> getQuestionsByType(@RequestParam Long bankId, @RequestParam String questionType) {
+    public void getQuestionsByType(@RequestParam Long bankId, @RequestParam String questionType,
+                                   @RequestParam(required = false) String fields,
+                                   @RequestParam(defaultValue = "false") Boolean exam,
+                                   @RequestAttribute(value = USER_ID, required = false) Long userId,
+                                   ServletWebRequest webRequest, HttpServletResponse response) {
         if (bankId == null) {
             throw new BusinessException(ErrorCode.PARAM_MISSING, "参数 bankId 不能为空");
         }
         if (questionType == null || questionType.trim().isEmpty()) {
             throw new BusinessException(ErrorCode.PARAM_MISSING, "参数 questionType 不能为空");
         }
-        return questionQueryService.queryQuestionsByType(bankId, questionType);
+        QuestionFields projection = QuestionFields.parse(fields, Boolean.TRUE.equals(exam));
+        String variant = "type:" + questionType.trim().toLowerCase() + "." + projection.key();
+        String etag = bankVersionService.questionListEtag(bankId, variant, userId);
+        if (notModified(webRequest, etag)) {
+            return;
+        }
+        responseByteCache.write(etag, webRequest.getRequest(), response,
+                () -> questionQueryService.queryQuestionsByType(bankId, questionType, projection, userId));
+    }
+
+    @GetMapping("/questions/sample")
+    public List<QuestionDTO> sampleQuestions(@RequestParam Long bankId,
+                                             @RequestParam(defaultValue = "20") Integer count,
+                                             @RequestParam(required = false) String questionType,
+                                             @RequestParam(defaultValue = "false") Boolean wrongOnly,
+                                             @RequestParam(defaultValue = "uniform") String strategy,
+                                             @RequestParam(required = false) String fields,
+                                             @RequestParam(defaultValue = "false") Boolean exam,
+                                             @RequestAttribute(value = USER_ID, required = false) Long userId) {
+        if (bankId == null) {
+            throw new BusinessException(ErrorCode.PARAM_MISSING, "参数 bankId 不能为空");
+        }
+        if (count == null || count < 1 || count > MAX_SAMPLE_COUNT) {
+            throw new BusinessException(ErrorCode.PARAM_INVALID, "参数 count 必须在 1 到 " + MAX_SAMPLE_COUNT + " 之间");
+        }
+        if (!"uniform".equalsIgnoreCase(strategy) && !"weighted".equalsIgnoreCase(strategy)) {
+            throw new BusinessException(ErrorCode.PARAM_INVALID, "参数 strategy 仅支持 uniform 或 weighted");
+        }
+        String type = questionType == null || questionType.trim().isEmpty() ? null : questionType;
+        QuestionFields projection = QuestionFields.parse(fields, Boolean.TRUE.equals(exam));
+        return questionQueryService.sampleQuestions(bankId, count, type, Boolean.TRUE.equals(wrongOnly),
+                "weighted".equalsIgnoreCase(strategy), projection, userId);
+    }
+
+    @GetMapping("/review/due")
+    public List<QuestionDTO> dueQuestions(@RequestParam Long bankId,
+                                          @RequestParam(defaultValue = "20") Integer limit,
+                                          @RequestParam(required = false) String fields,
+                                          @RequestParam(defaultValue = "false") Boolean exam,
+                                          @RequestAttribute(value = USER_ID, required = false) Long userId) {
+        if (bankId == null) {
+            throw new BusinessException(ErrorCode.PARAM_MISSING, "参数 bankId 不能为空");
+        }
+        if (limit == null || limit < 1 || limit > MAX_SAMPLE_COUNT) {
+            throw new BusinessException(ErrorCode.PARAM_INVALID, "参数 limit 必须在 1 到 " + MAX_SAMPLE_COUNT + " 之间");
+        }
+        QuestionFields projection = QuestionFields.parse(fields, Boolean.TRUE.equals(exam));
+        return questionQueryService.dueQuestions(bankId, limit, projection, userId);
+    }
+
+    /**
+     * 重置题库练习进度：带用户ID时只清空该用户的作答，否则清空共享作答状态
+     */
+    @PostMapping("/banks/{bankId}/reset")
+    public ProgressResetDTO resetBankProgress(@PathVariable Long bankId,
+                                              @RequestAttribute(value = USER_ID, required = false) Long userId) {
+        return progressResetService.resetBank(bankId, userId);
+    }
+
+    @GetMapping("/sync")
+    public SyncDeltaDTO syncDelta(@RequestParam Long bankId,
+                                  @RequestParam(required = false) Long sinceVersion,
+                                  @RequestAttribute(value = USER_ID, required = false) Long userId) {
+        if (bankId == null) {
+            throw new BusinessException(ErrorCode.PARAM_MISSING, "参数 bankId 不能为空");
+        }
+        return questionQueryService.syncDelta(bankId, sinceVersion, userId);
+    }
+
+    /**
+     * 离线作答一次性回传，按提交顺序判题并写入作答状态，同一题目以最后一次作答为准
+     */
+    @PostMapping("/sync/answers")
+    public BatchAnswerVerificationResponse syncAnswers(@RequestBody BatchAnswerVerificationRequest req,
+                                                       @RequestAttribute(value = USER_ID, required = false) Long userId) {
+        if (req.getAnswers() == null || req.getAnswers().isEmpty()) {
+            throw new BusinessException(ErrorCode.PARAM_MISSING, "参数 answers 不能为空");
+        }
+        if (req.getAnswers().size() > MAX_SYNC_ANSWERS) {
+            throw new BusinessException(ErrorCode.PARAM_INVALID, "单次回传的答案不能超过 " + MAX_SYNC_ANSWERS + " 条");
+        }
+        for (AnswerVerificationRequest item : req.getAnswers()) {
+            if (item == null || item.getQuestionId() == null) {
+                throw new BusinessException(ErrorCode.PARAM_MISSING, "参数 questionId 不能为空");
+            }
+            if (item.getUserAnswer() == null || item.getUserAnswer().trim().isEmpty()) {
+                throw new BusinessException(ErrorCode.PARAM_MISSING, "参数 userAnswer 不能为空");
+            }
+        }
+        return answerVerificationService.verifyAnswers(req.getAnswers(), userId);
+    }
+
+    @PostMapping("/sessions")
+    public QuizSessionDTO startSession(@RequestBody StartSessionRequest req,
+                                       @RequestAttribute(value = USER_ID, required = false) Long userId) {
+        if (req.getBankId() == null) {
+            throw new BusinessException(ErrorCode.PARAM_MISSING, "参数 bankId 不能为空");
+        }
+        if (req.getCount() == null || req.getCount() < 1 || req.getCount() > MAX_SAMPLE_COUNT) {
+            throw new BusinessException(ErrorCode.PARAM_INVALID, "参数 count 必须在 1 到 " + MAX_SAMPLE_COUNT + " 之间");
+        }
+        if (req.getDurationSeconds() == null || req.getDurationSeconds() < 1
+                || req.getDurationSeconds() > MAX_SESSION_SECONDS) {
+            throw new BusinessException(ErrorCode.PARAM_INVALID,
+                    "参数 durationSeconds 必须在 1 到 " + MAX_SESSION_SECONDS + " 之间");
+        }
+        String type = req.getQuestionType() == null || req.getQuestionType().trim().isEmpty()
+                ? null : req.getQuestionType();
+        return quizSessionService.start(req.getBankId(), req.getCount(), type, req.getDurationSeconds(), userId);
+    }
+
+    @PostMapping("/sessions/{sessionId}/answers")
+    public QuizSessionStatusDTO answerSession(@PathVariable String sessionId,
+                                              @RequestBody BatchAnswerVerificationRequest req,
+                                              @RequestAttribute(value = USER_ID, required = false) Long userId) {
+        if (req.getAnswers() == null || req.getAnswers().isEmpty()) {
+            throw new BusinessException(ErrorCode.PARAM_MISSING, "参数 answers 不能为空");
+        }
+        if (req.getAnswers().size() > MAX_BATCH_ANSWERS) {
+            throw new BusinessException(ErrorCode.PARAM_INVALID, "单次提交的答案不能超过 " + MAX_BATCH_ANSWERS + " 条");
+        }
+        for (AnswerVerificationRequest item : req.getAnswers()) {
+            if (item == null || item.getQuestionId() == null) {
+                throw new BusinessException(ErrorCode.PARAM_MISSING, "参数 questionId 不能为空");
+            }
+            if (item.getUserAnswer() == null || item.getUserAnswer().trim().isEmpty()) {
+                throw new BusinessException(ErrorCode.PARAM_MISSING, "参数 userAnswer 不能为空");
+            }
+        }
+        return quizSessionService.answer(sessionId, req.getAnswers(), userId);
+    }
+
+    @PostMapping("/sessions/{sessionId}/submit")
+    public QuizSessionStatusDTO submitSession(@PathVariable String sessionId,
+                                              @RequestAttribute(value = USER_ID, required = false) Long userId) {
+        return quizSessionService.submit(sessionId, userId);
+    }
+
+    @GetMapping("/sessions/{sessionId}")
+    public QuizSessionStatusDTO getSession(@PathVariable String sessionId,
+                                           @RequestAttribute(value = USER_ID, required = false) Long userId) {
+        return quizSessionService.status(sessionId, userId);
+    }
+
+    @GetMapping("/search")
+    public List<QuestionSearchHitDTO> searchQuestions(@RequestParam String keyword,
+                                                      @RequestParam(required = false) Long bankId,
+                                                      @RequestParam(defaultValue = "20") Integer limit) {
+        if (keyword == null || keyword.trim().length() < 2) {
+            throw new BusinessException(ErrorCode.PARAM_INVALID, "参数 keyword 至少需要 2 个字符");
+        }
+        if (limit == null || limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            throw new BusinessException(ErrorCode.PARAM_INVALID, "参数 limit 必须在 1 到 " + MAX_SEARCH_LIMIT + " 之间");
+        }
+        return questionSearchService.search(keyword.trim(), bankId, limit);
     }
 
     @PostMapping("/verify-answer")
-    public AnswerVerificationResponse verifyAnswer(@RequestBody AnswerVerificationRequest req) {
+    public AnswerVerificationResponse verifyAnswer(@RequestBody AnswerVerificationRequest req,
+                                                   @RequestAttribute(value = USER_ID, required = false) Long userId) {
         if (req.getQuestionId() == null) {
             throw new BusinessException(ErrorCode.PARAM_MISSING, "参数 questionId 不能为空");
         }
         if (req.getUserAnswer() == null || req.getUserAnswer().trim().isEmpty()) {
             throw new BusinessException(ErrorCode.PARAM_MISSING, "参数 userAnswer 不能为空");
         }
-        return answerVerificationService.verifyAnswer(req.getQuestionId(), req.getUserAnswer());
+        return answerVerificationService.verifyAnswer(req.getQuestionId(), req.getUserAnswer(), req.getLatencyMs(),
+                userId);
+    }
+
+    @PostMapping("/verify-answers")
+    public BatchAnswerVerificationResponse verifyAnswers(@RequestBody BatchAnswerVerificationRequest req,
+                                                         @RequestAttribute(value = USER_ID, required = false) Long userId) {
+        if (req.getAnswers() == null || req.getAnswers().isEmpty()) {
+            throw new BusinessException(ErrorCode.PARAM_MISSING, "参数 answers 不能为空");
+        }
+        if (req.getAnswers().size() > MAX_BATCH_ANSWERS) {
+            throw new BusinessException(ErrorCode.PARAM_INVALID, "单次提交的答案不能超过 " + MAX_BATCH_ANSWERS + " 条");
+        }
+        for (AnswerVerificationRequest item : req.getAnswers()) {
+            if (item == null || item.getQuestionId() == null) {
+                throw new BusinessException(ErrorCode.PARAM_MISSING, "参数 questionId 不能为空");
+            }
+        }
+        return answerVerificationService.verifyAnswers(req.getAnswers(), userId);
+    }
+
+    /**
+     * 条件请求校验：If-None-Match 命中时直接返回 304，否则写出 ETag 并要求客户端每次重新验证
+     */
+    private static boolean notModified(ServletWebRequest webRequest, String etag) {
+        if (etag == null) {
+            return false;
+        }
+        if (webRequest.checkNotModified(etag)) {
+            return true;
+        }
+        if (webRequest.getResponse() != null) {
+            webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        }
+        return false;
     }
 
     @Data
@@ -68,10 +319,22 @@ public class ContentController {
         private String questionType;
     }
 
+    @Data
+    public static class StartSessionRequest {
+        private Long bankId;
+        private Integer count;
+        private String questionType;
+        private Integer durationSeconds;
+    }
+
     @Data
     public static class AnswerVerificationRequest {
         private Long questionId;
         private String userAnswer;
+        /**
+         * 作答耗时（毫秒），可选，仅用于统计
+         */
+        private Integer latencyMs;
     }
 
     @Data
@@ -83,4 +346,18 @@ public class ContentController {
         private Long questionId;
         private String userAnswer;
     }
-}
\ No newline at end of file
+
+    @Data
+    public static class BatchAnswerVerificationRequest {
+        private List<AnswerVerificationRequest> answers;
+    }
+
+    @Data
+    public static class BatchAnswerVerificationResponse {
+        private List<AnswerVerificationResponse> results;
+        private Integer total;
+        private Integer correctCount;
+        private Integer wrongCount;
+        private Double accuracy;
+    }
+}
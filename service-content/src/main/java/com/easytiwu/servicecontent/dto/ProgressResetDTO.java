@@ -0,0 +1,17 @@
+package com.easytiwu.servicecontent.dto;
+
+import lombok.Data;
+
+/**
+ * 题库进度重置结果
+ *
+ * @author sheny
+ */
+@Data
+public class ProgressResetDTO {
+    private Long bankId;
+    /**
+     * 被清空作答状态的题目数
+     */
+    private Integer resetQuestions;
+}
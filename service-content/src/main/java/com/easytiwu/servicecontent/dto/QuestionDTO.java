@@ -1,12 +1,16 @@
 package com.easytiwu.servicecontent.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import java.util.List;
 
 /**
+ * 题目DTO，按字段投影查询时未选中的字段为 null 并在序列化时省略
+ *
  * @author sheny
  */
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class QuestionDTO {
     private Long id;
     private String content;
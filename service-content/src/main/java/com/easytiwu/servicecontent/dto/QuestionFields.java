@@ -0,0 +1,88 @@
+package com.easytiwu.servicecontent.dto;
+
+import com.easytiwu.commonexception.enums.ErrorCode;
+import com.easytiwu.commonexception.exception.BusinessException;
+import lombok.Getter;
+
+/**
+ * 题目查询的字段投影
+ * id 与 type 始终返回，其余字段按需在 SQL 层裁剪；考试模式下不返回任何可推出答案的字段
+ *
+ * @author sheny
+ */
+@Getter
+public final class QuestionFields {
+
+    /**
+     * 全部字段，未指定 fields 且非考试模式时使用
+     */
+    public static final QuestionFields ALL = new QuestionFields(true, true, true, true, true, true, true);
+
+    private final boolean content;
+    private final boolean options;
+    private final boolean userAnswer;
+    private final boolean correctAnswer;
+    private final boolean analysis;
+    private final boolean completed;
+    private final boolean correct;
+
+    private QuestionFields(boolean content, boolean options, boolean userAnswer, boolean correctAnswer,
+                           boolean analysis, boolean completed, boolean correct) {
+        this.content = content;
+        this.options = options;
+        this.userAnswer = userAnswer;
+        this.correctAnswer = correctAnswer;
+        this.analysis = analysis;
+        this.completed = completed;
+        this.correct = correct;
+    }
+
+    /**
+     * 解析 fields 参数
+     *
+     * @param fields 逗号分隔的字段名，为空表示全部字段
+     * @param exam   是否考试模式
+     * @return 字段投影
+     * @throws BusinessException 字段名不合法时抛出
+     */
+    public static QuestionFields parse(String fields, boolean exam) {
+        boolean content = false, options = false, userAnswer = false, correctAnswer = false;
+        boolean analysis = false, completed = false, correct = false;
+        if (fields == null || fields.trim().isEmpty()) {
+            if (!exam) {
+                return ALL;
+            }
+            content = options = completed = true;
+        } else {
+            for (String raw : fields.split(",")) {
+                String name = raw.trim();
+                switch (name) {
+                    case "", "id", "type" -> { }
+                    case "content" -> content = true;
+                    case "options" -> options = true;
+                    case "userAnswer" -> userAnswer = true;
+                    case "correctAnswer" -> correctAnswer = true;
+                    case "analysis" -> analysis = true;
+                    case "isCompleted" -> completed = true;
+                    case "isCorrect" -> correct = true;
+                    default -> throw new BusinessException(ErrorCode.PARAM_INVALID, "不支持的字段: " + name);
+                }
+            }
+        }
+        if (exam) {
+            userAnswer = correctAnswer = analysis = correct = false;
+        }
+        return new QuestionFields(content, options, userAnswer, correctAnswer, analysis, completed, correct);
+    }
+
+    /**
+     * 规范化的字段标识，用于区分不同投影的 ETag
+     *
+     * @return 按固定顺序排列的字段位图
+     */
+    public String key() {
+        int bits = (content ? 1 : 0) | (options ? 2 : 0) | (userAnswer ? 4 : 0) | (correctAnswer ? 8 : 0)
+                | (analysis ? 16 : 0) | (completed ? 32 : 0) | (correct ? 64 : 0);
+        return Integer.toHexString(bits);
+    }
+}
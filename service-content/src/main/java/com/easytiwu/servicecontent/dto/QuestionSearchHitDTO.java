@@ -0,0 +1,17 @@
+package com.easytiwu.servicecontent.dto;
+
+import lombok.Data;
+
+/**
+ * 题目检索结果
+ *
+ * @author sheny
+ */
+@Data
+public class QuestionSearchHitDTO {
+    private Long id;
+    private Long bankId;
+    private String type;
+    private String content;
+    private Float score;
+}
@@ -0,0 +1,22 @@
+package com.easytiwu.servicecontent.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 新建的考试会话
+ *
+ * @author sheny
+ */
+@Data
+public class QuizSessionDTO {
+    private String sessionId;
+    private Long bankId;
+    private Long startedAt;
+    private Long deadline;
+    /**
+     * 按出题顺序的题目，不含答案与解析
+     */
+    private List<QuestionDTO> questions;
+}
@@ -0,0 +1,29 @@
+package com.easytiwu.servicecontent.dto;
+
+import com.easytiwu.servicecontent.controller.ContentController;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+/**
+ * 考试会话状态
+ *
+ * @author sheny
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class QuizSessionStatusDTO {
+    private String sessionId;
+    private Long bankId;
+    /**
+     * ACTIVE 作答中，SUBMITTING 交卷中，SUBMITTED 已交卷，EXPIRED 到期自动交卷
+     */
+    private String status;
+    private Integer total;
+    private Integer answered;
+    private Long deadline;
+    private Long remainingMs;
+    /**
+     * 判题结果，交卷完成后才有
+     */
+    private ContentController.BatchAnswerVerificationResponse result;
+}
@@ -0,0 +1,31 @@
+package com.easytiwu.servicecontent.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 题库增量同步结果
+ *
+ * @author sheny
+ */
+@Data
+public class SyncDeltaDTO {
+    private Long bankId;
+    /**
+     * 下次同步时应携带的版本号
+     */
+    private Long version;
+    /**
+     * 是否为全量结果；为 true 时客户端应以 changed 替换本地题库
+     */
+    private Boolean fullResync;
+    /**
+     * 新增或修改的题目（含选项与作答状态）
+     */
+    private List<QuestionDTO> changed;
+    /**
+     * 已删除或移出题库的题目ID
+     */
+    private List<Long> deleted;
+}
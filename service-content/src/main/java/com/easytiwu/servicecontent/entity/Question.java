@@ -17,6 +17,10 @@ public class Question {
     @TableField("bank_id")
     private Long bankId;
 
+    /**
+     * 题干、正确答案、解析存于共享的 question_contents，仅由联表查询填充
+     */
+    @TableField(exist = false)
     private String content;
 
     // ENUM('single','multiple','fill_blank','true_false','short_answer')
@@ -25,11 +29,15 @@ public class Question {
     @TableField("user_answer")
     private String userAnswer;
 
-    @TableField("correct_answer")
+    @TableField(exist = false)
     private String correctAnswer;
 
+    @TableField(exist = false)
     private String analysis;
 
+    @TableField("content_id")
+    private Long contentId;
+
     @TableField("is_completed")
     private Integer isCompleted;
 
@@ -0,0 +1,24 @@
+package com.easytiwu.servicecontent.entity;
+
+import lombok.Data;
+
+/**
+ * 题目与选项联表查询的扁平行
+ * 每行对应一个选项；无选项的题目仅有一行，option 字段为 NULL
+ *
+ * @author sheny
+ */
+@Data
+public class QuestionJoinRow {
+    private Long id;
+    private String content;
+    private String type;
+    private String userAnswer;
+    private String correctAnswer;
+    private String analysis;
+    private Integer isCompleted;
+    private Integer isCorrect;
+
+    private String optionLabel;
+    private String optionText;
+}
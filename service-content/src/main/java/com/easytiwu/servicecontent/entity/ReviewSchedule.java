@@ -0,0 +1,21 @@
+package com.easytiwu.servicecontent.entity;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 题目的间隔复习计划，对应 review_schedules 表
+ *
+ * @author sheny
+ */
+@Data
+public class ReviewSchedule {
+    private Long userId;
+    private Long questionId;
+    private Long bankId;
+    private Double easeFactor;
+    private Integer intervalDays;
+    private Integer repetitions;
+    private LocalDateTime dueAt;
+}
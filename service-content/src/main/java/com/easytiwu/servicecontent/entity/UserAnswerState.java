@@ -0,0 +1,18 @@
+package com.easytiwu.servicecontent.entity;
+
+import lombok.Data;
+
+/**
+ * 用户答题状态，对应 user_answer_states 表
+ * 有记录即表示该用户已完成此题
+ *
+ * @author sheny
+ */
+@Data
+public class UserAnswerState {
+    private Long userId;
+    private Long questionId;
+    private Long bankId;
+    private String userAnswer;
+    private Integer isCorrect;
+}
@@ -0,0 +1,71 @@
+package com.easytiwu.servicecontent.job;
+
+import com.easytiwu.servicecontent.mapper.QuestionSyncMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 删除记录定时清理任务
+ * 超过保留期的删除记录分批删除；版本号早于保留期的客户端同步时改为下发全量
+ *
+ * @author sheny
+ */
+@Slf4j
+@Component
+public class TombstonePurgeJob {
+
+    private static final int PURGE_BATCH = 5000;
+
+    private final QuestionSyncMapper questionSyncMapper;
+    private ScheduledExecutorService scheduler;
+
+    @Value("${content.sync.tombstone-retention-days:30}")
+    private int retentionDays;
+
+    @Value("${content.sync.purge-interval-ms:3600000}")
+    private long intervalMs;
+
+    public TombstonePurgeJob(QuestionSyncMapper questionSyncMapper) {
+        this.questionSyncMapper = questionSyncMapper;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "tombstone-purge");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::run, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void run() {
+        try {
+            int total = 0;
+            int deleted;
+            do {
+                deleted = questionSyncMapper.purgeTombstones(retentionDays, PURGE_BATCH);
+                total += deleted;
+            } while (deleted == PURGE_BATCH && !Thread.currentThread().isInterrupted());
+            if (total > 0) {
+                log.info("清理过期删除记录 {} 条", total);
+            }
+        } catch (Exception e) {
+            log.error("清理删除记录失败，下个周期重试", e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.easytiwu.servicecontent.mapper;
+
+import com.easytiwu.servicecontent.writebehind.AttemptRecord;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 作答流水追加写入
+ *
+ * @author sheny
+ */
+@Mapper
+public interface AnswerAttemptMapper {
+
+    /**
+     * 单条多行 INSERT 追加一批作答流水
+     *
+     * @param attempts 作答流水
+     * @return 插入行数
+     */
+    @Insert("""
+            <script>
+            INSERT INTO answer_attempts (user_id, question_id, bank_id, question_type, is_correct, latency_ms, created_at)
+            VALUES
+            <foreach collection="attempts" item="a" separator=",">
+                (#{a.userId}, #{a.questionId}, #{a.bankId}, #{a.questionType}, #{a.isCorrect}, #{a.latencyMs}, #{a.createdAt})
+            </foreach>
+            </script>
+            """)
+    int insertBatch(@Param("attempts") List<AttemptRecord> attempts);
+}
@@ -0,0 +1,122 @@
+package com.easytiwu.servicecontent.mapper;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+/**
+ * 题库计数器维护
+ * 作答增量写入 question_bank_counter_stripes 分片，由 service-bank 定期折叠进题库行与题型统计表
+ *
+ * @author sheny
+ */
+@Mapper
+public interface BankCounterMapper {
+
+    /**
+     * 分片数，须与 add_counter_stripe 中的 MOD 16 一致
+     */
+    int STRIPES = 16;
+
+    /**
+     * 题目所在的计数分片，与触发器一致按题目ID取模，同一题目的增量总是落在同一分片
+     *
+     * @param questionId 题目ID
+     * @return 分片号
+     */
+    static int stripeOf(long questionId) {
+        return (int) (questionId % STRIPES);
+    }
+
+    /**
+     * 将完成数、错题数与答对数增量累加到指定分片，并递增分片的版本号增量
+     * 同一事务内多次调用时须按 (bankId, type, stripe) 升序，与主键顺序一致以固定加锁顺序
+     *
+     * @param bankId         题库ID
+     * @param type           题型
+     * @param stripe         分片号，见 stripeOf
+     * @param completedDelta 完成数增量
+     * @param wrongDelta     错题数增量
+     * @param correctDelta   答对数增量
+     * @return 受影响行数
+     */
+    @Insert("""
+            INSERT INTO question_bank_counter_stripes
+                (bank_id, type, stripe, completed_delta, wrong_delta, correct_delta, version_delta)
+            VALUES (#{bankId}, #{type}, #{stripe}, #{completedDelta}, #{wrongDelta}, #{correctDelta}, 1)
+            ON DUPLICATE KEY UPDATE completed_delta = completed_delta + VALUES(completed_delta),
+                                    wrong_delta = wrong_delta + VALUES(wrong_delta),
+                                    correct_delta = correct_delta + VALUES(correct_delta),
+                                    version_delta = version_delta + 1
+            """)
+    int addStripeCounters(@Param("bankId") Long bankId,
+                          @Param("type") String type,
+                          @Param("stripe") int stripe,
+                          @Param("completedDelta") int completedDelta,
+                          @Param("wrongDelta") int wrongDelta,
+                          @Param("correctDelta") int correctDelta);
+
+    /**
+     * 设置当前连接的会话变量，非空时 trg_questions_au 跳过题库计数更新，由调用方统一补偿
+     *
+     * @param flag 1 跳过，NULL 恢复
+     */
+    @Update("SET @easytiwu_skip_bank_counters = #{flag}")
+    void setSkipBankCounters(@Param("flag") Integer flag);
+
+    /**
+     * 清零题库分片上的完成数、错题数与答对数增量，保留题目数与版本号增量
+     * 重算计数前调用：重算结果已包含这些增量，同时锁住分片，并发作答的增量在本事务提交后再累加
+     *
+     * @param bankId 题库ID
+     * @return 受影响行数
+     */
+    @Update("UPDATE question_bank_counter_stripes SET completed_delta = 0, wrong_delta = 0, correct_delta = 0 "
+            + "WHERE bank_id = #{bankId}")
+    int clearStripeCounters(@Param("bankId") Long bankId);
+
+    /**
+     * 按题目表重新统计题库的完成数与错题数，并递增题库版本号
+     * 须先调用 clearStripeCounters，否则分片上的增量折叠后会重复计入
+     *
+     * @param bankId 题库ID
+     * @return 受影响行数
+     */
+    @Update("""
+            UPDATE question_banks b
+            SET completed_count = (SELECT COUNT(*) FROM questions q WHERE q.bank_id = b.id AND q.is_completed = 1),
+                wrong_count = (SELECT COUNT(*) FROM questions q
+                               WHERE q.bank_id = b.id AND q.is_completed = 1 AND q.is_correct = 0),
+                version = version + 1
+            WHERE b.id = #{bankId}
+            """)
+    int recomputeCounters(@Param("bankId") Long bankId);
+
+    /**
+     * 从全局题型统计中扣除题库已折叠的完成数与答对数，题库已软删除时不扣除
+     * 须在 clearResetTypeStats 之前、recomputeCounters 锁定题库行之后调用
+     *
+     * @param bankId 题库ID
+     * @return 受影响行数
+     */
+    @Update("""
+            UPDATE question_type_stats t
+            JOIN question_bank_type_stats s ON s.type = t.type
+            JOIN question_banks b ON b.id = s.bank_id AND b.deleted = 0
+            SET t.completed_count = t.completed_count - s.completed_count,
+                t.correct_count = t.correct_count - s.correct_count
+            WHERE s.bank_id = #{bankId}
+            """)
+    int subtractResetTypeStats(@Param("bankId") Long bankId);
+
+    /**
+     * 清零题库各题型的完成数与答对数
+     * 共享进度重置在同一事务内清空并锁住了该题库的全部题目，提交时这两项必然为 0
+     *
+     * @param bankId 题库ID
+     * @return 受影响行数
+     */
+    @Update("UPDATE question_bank_type_stats SET completed_count = 0, correct_count = 0 WHERE bank_id = #{bankId}")
+    int clearResetTypeStats(@Param("bankId") Long bankId);
+}
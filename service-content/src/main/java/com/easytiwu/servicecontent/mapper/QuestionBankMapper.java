@@ -0,0 +1,39 @@
+package com.easytiwu.servicecontent.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * 题库只读查询
+ *
+ * @author sheny
+ */
+@Mapper
+public interface QuestionBankMapper {
+
+    /**
+     * 查询全部未删除的题库ID
+     *
+     * @return 升序排列的题库ID
+     */
+    @Select("SELECT id FROM question_banks WHERE deleted = 0 ORDER BY id")
+    List<Long> selectAllIds();
+
+    /**
+     * 按主键读取题库版本号，含计数分片上尚未折叠的版本号增量
+     * 折叠只是把增量从分片搬到题库行，两者之和不变，作答后版本号立即变化
+     *
+     * @param bankId 题库ID
+     * @return 版本号，题库不存在或已删除时为 null
+     */
+    @Select("""
+            SELECT b.version + (SELECT COALESCE(SUM(s.version_delta), 0)
+                                FROM question_bank_counter_stripes s WHERE s.bank_id = b.id)
+            FROM question_banks b
+            WHERE b.id = #{bankId} AND b.deleted = 0
+            """)
+    Long selectVersion(@Param("bankId") Long bankId);
+}
@@ -1,12 +1,274 @@
 package com.easytiwu.servicecontent.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.easytiwu.servicecontent.dto.QuestionFields;
 import com.easytiwu.servicecontent.entity.Question;
+import com.easytiwu.servicecontent.entity.QuestionJoinRow;
+import com.easytiwu.servicecontent.writebehind.PendingAnswer;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * @author sheny
  */
 @Mapper
 public interface QuestionMapper extends BaseMapper<Question> {
-}
\ No newline at end of file
+
+    /**
+     * 一次往返查询题库下的题目及其选项，按 (题目ID, 选项标识) 有序返回
+     * 选项侧走 question_content_options 主键，结果可直接顺序组装，无需分组与排序
+     * 仅读取 fields 中要求的列，不需要内容或选项时不做对应联表
+     * 指定用户时作答状态取自 user_answer_states 主键，否则取题目表上的共享状态；已软删除题库不返回题目
+     *
+     * @param bankId       题库ID
+     * @param questionType 题型过滤，为空表示不过滤
+     * @param wrongOnly    是否仅返回错题
+     * @param fields       字段投影
+     * @param userId       用户ID，为空表示共享状态
+     * @param handler      逐行回调
+     */
+    @Select("""
+            <script>
+            SELECT q.id, q.type
+            <if test="fields.content">, c.content</if>
+            <if test="fields.correctAnswer">, c.correct_answer</if>
+            <if test="fields.analysis">, c.analysis</if>
+            <choose>
+                <when test="userId != null">
+                    <if test="fields.userAnswer">, s.user_answer</if>
+                    <if test="fields.completed">, s.question_id IS NOT NULL AS is_completed</if>
+                    <if test="fields.correct">, s.is_correct</if>
+                </when>
+                <otherwise>
+                    <if test="fields.userAnswer">, q.user_answer</if>
+                    <if test="fields.completed">, q.is_completed</if>
+                    <if test="fields.correct">, q.is_correct</if>
+                </otherwise>
+            </choose>
+            <if test="fields.options">, o.sort_order AS option_label, o.option_content AS option_text</if>
+            FROM questions q
+            JOIN question_banks b ON b.id = q.bank_id AND b.deleted = 0
+            <if test="fields.content or fields.correctAnswer or fields.analysis">JOIN question_contents c ON c.id = q.content_id</if>
+            <if test="userId != null">LEFT JOIN user_answer_states s ON s.user_id = #{userId} AND s.question_id = q.id</if>
+            <if test="fields.options">LEFT JOIN question_content_options o ON o.content_id = q.content_id</if>
+            WHERE q.bank_id = #{bankId}
+            <if test="questionType != null">AND q.type = #{questionType}</if>
+            <if test="wrongOnly">
+                <choose>
+                    <when test="userId != null">AND s.is_correct = 0</when>
+                    <otherwise>AND q.is_completed = 1 AND q.is_correct = 0</otherwise>
+                </choose>
+            </if>
+            ORDER BY q.id<if test="fields.options">, o.sort_order</if>
+            </script>
+            """)
+    @ResultType(QuestionJoinRow.class)
+    void streamWithOptions(@Param("bankId") Long bankId,
+                           @Param("questionType") String questionType,
+                           @Param("wrongOnly") boolean wrongOnly,
+                           @Param("fields") QuestionFields fields,
+                           @Param("userId") Long userId,
+                           ResultHandler<QuestionJoinRow> handler);
+
+    /**
+     * 按主键一次查询指定题目及其选项，按 (题目ID, 选项标识) 有序返回，跳过已软删除题库的题目
+     *
+     * @param ids     题目ID列表
+     * @param fields  字段投影
+     * @param userId  用户ID，为空表示共享状态
+     * @param handler 逐行回调
+     */
+    @Select("""
+            <script>
+            SELECT q.id, q.type
+            <if test="fields.content">, c.content</if>
+            <if test="fields.correctAnswer">, c.correct_answer</if>
+            <if test="fields.analysis">, c.analysis</if>
+            <choose>
+                <when test="userId != null">
+                    <if test="fields.userAnswer">, s.user_answer</if>
+                    <if test="fields.completed">, s.question_id IS NOT NULL AS is_completed</if>
+                    <if test="fields.correct">, s.is_correct</if>
+                </when>
+                <otherwise>
+                    <if test="fields.userAnswer">, q.user_answer</if>
+                    <if test="fields.completed">, q.is_completed</if>
+                    <if test="fields.correct">, q.is_correct</if>
+                </otherwise>
+            </choose>
+            <if test="fields.options">, o.sort_order AS option_label, o.option_content AS option_text</if>
+            FROM questions q
+            JOIN question_banks b ON b.id = q.bank_id AND b.deleted = 0
+            <if test="fields.content or fields.correctAnswer or fields.analysis">JOIN question_contents c ON c.id = q.content_id</if>
+            <if test="userId != null">LEFT JOIN user_answer_states s ON s.user_id = #{userId} AND s.question_id = q.id</if>
+            <if test="fields.options">LEFT JOIN question_content_options o ON o.content_id = q.content_id</if>
+            WHERE q.id IN <foreach collection="ids" item="id" open="(" separator="," close=")">#{id}</foreach>
+            ORDER BY q.id<if test="fields.options">, o.sort_order</if>
+            </script>
+            """)
+    @ResultType(QuestionJoinRow.class)
+    void streamByIdsWithOptions(@Param("ids") long[] ids, @Param("fields") QuestionFields fields,
+                                @Param("userId") Long userId, ResultHandler<QuestionJoinRow> handler);
+
+    /**
+     * 按主键顺序分页读取未删除题库中的题干，用于构建检索索引
+     *
+     * @param afterId 起始题目ID（不含）
+     * @param limit   读取条数
+     * @return 仅含 id、bank_id、content_id、content 的题目列表
+     */
+    @Select("""
+            SELECT q.id, q.bank_id, q.content_id, c.content
+            FROM questions q
+            JOIN question_banks b ON b.id = q.bank_id AND b.deleted = 0
+            JOIN question_contents c ON c.id = q.content_id
+            WHERE q.id > #{afterId}
+            ORDER BY q.id
+            LIMIT #{limit}
+            """)
+    List<Question> selectContentAfter(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * 按主键查询未删除题库中的题目及其内容（题干、答案、解析），不含选项
+     *
+     * @param ids 题目ID列表
+     * @return 仅含 id、bank_id、content_id、type、content、correct_answer、analysis 的题目列表
+     */
+    @Select("""
+            <script>
+            SELECT q.id, q.bank_id, q.content_id, q.type, c.content, c.correct_answer, c.analysis
+            FROM questions q
+            JOIN question_banks b ON b.id = q.bank_id AND b.deleted = 0
+            JOIN question_contents c ON c.id = q.content_id
+            WHERE q.id IN <foreach collection="ids" item="id" open="(" separator="," close=")">#{id}</foreach>
+            </script>
+            """)
+    List<Question> selectWithContent(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 按主键查询未删除题库中题目的解析，只读取解析列
+     *
+     * @param ids 题目ID列表
+     * @return 仅含 id、analysis 的题目列表
+     */
+    @Select("""
+            <script>
+            SELECT q.id, c.analysis
+            FROM questions q
+            JOIN question_banks b ON b.id = q.bank_id AND b.deleted = 0
+            JOIN question_contents c ON c.id = q.content_id
+            WHERE q.id IN <foreach collection="ids" item="id" open="(" separator="," close=")">#{id}</foreach>
+            </script>
+            """)
+    List<Question> selectAnalyses(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 按主键顺序读取题库的答案键与共享作答状态，题库已软删除时返回空列表
+     *
+     * @param bankId 题库ID
+     * @return 仅含 id、type、correct_answer、is_completed、is_correct 的题目列表
+     */
+    @Select("""
+            SELECT q.id, q.type, c.correct_answer, q.is_completed, q.is_correct
+            FROM questions q
+            JOIN question_banks b ON b.id = q.bank_id AND b.deleted = 0
+            JOIN question_contents c ON c.id = q.content_id
+            WHERE q.bank_id = #{bankId}
+            ORDER BY q.id
+            """)
+    List<Question> selectAnswerKeys(@Param("bankId") long bankId);
+
+    /**
+     * 以共享锁读取仍存在且所属题库未删除的题目ID，保证写入用户答题状态前题目不会被并发删除
+     * 题库条件放在子查询中，只锁题目行，不锁题库行
+     *
+     * @param ids 题目ID列表
+     * @return 存在的题目ID
+     */
+    @Select("""
+            <script>
+            SELECT id FROM questions
+            WHERE id IN <foreach collection="ids" item="id" open="(" separator="," close=")">#{id}</foreach>
+              AND bank_id IN (SELECT id FROM question_banks WHERE deleted = 0)
+            LOCK IN SHARE MODE
+            </script>
+            """)
+    List<Long> lockExistingIds(@Param("ids") List<Long> ids);
+
+    /**
+     * 锁定并读取未删除题库中题目当前的答题状态，用于计算题库计数增量
+     * 题库条件放在子查询中，只锁题目行，不锁题库行
+     *
+     * @param ids 题目ID列表
+     * @return 仅含 id、bank_id、type、is_completed、is_correct 的题目列表
+     */
+    @Select("""
+            <script>
+            SELECT id, bank_id, type, is_completed, is_correct FROM questions
+            WHERE id IN <foreach collection="ids" item="id" open="(" separator="," close=")">#{id}</foreach>
+              AND bank_id IN (SELECT id FROM question_banks WHERE deleted = 0)
+            FOR UPDATE
+            </script>
+            """)
+    List<Question> lockAnswerStates(@Param("ids") List<Long> ids);
+
+    /**
+     * 单条多行 UPDATE 批量写入答题状态
+     *
+     * @param answers 待写入的答题状态
+     * @return 受影响行数
+     */
+    @Update("""
+            <script>
+            UPDATE questions
+            SET user_answer = CASE id
+                <foreach collection="answers" item="a">WHEN #{a.questionId} THEN #{a.userAnswer} </foreach>
+                END,
+                is_correct = CASE id
+                <foreach collection="answers" item="a">WHEN #{a.questionId} THEN #{a.isCorrect} </foreach>
+                END,
+                is_completed = 1,
+                updated_at = NOW()
+            WHERE id IN <foreach collection="answers" item="a" open="(" separator="," close=")">#{a.questionId}</foreach>
+            </script>
+            """)
+    int batchUpdateAnswers(@Param("answers") List<PendingAnswer> answers);
+
+    /**
+     * 查询题库一批题目的最大ID，用于推进键集范围（走 idx_bank_id）
+     *
+     * @param bankId  题库ID
+     * @param afterId 起始题目ID（不含）
+     * @param limit   本批题目数
+     * @return 本批最大题目ID，没有更多题目时为 NULL
+     */
+    @Select("""
+            SELECT MAX(id) FROM (
+                SELECT id FROM questions WHERE bank_id = #{bankId} AND id > #{afterId} ORDER BY id LIMIT #{limit}
+            ) t
+            """)
+    Long selectMaxIdAfter(@Param("bankId") Long bankId, @Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * 清空题库中一段主键范围内题目的共享作答状态，已是初始状态的行不改写
+     *
+     * @param bankId  题库ID
+     * @param afterId 范围起点（不含）
+     * @param upToId  范围终点（含）
+     * @return 受影响行数
+     */
+    @Update("""
+            UPDATE questions
+            SET user_answer = NULL, is_completed = 0, is_correct = NULL
+            WHERE bank_id = #{bankId} AND id > #{afterId} AND id <= #{upToId}
+              AND (is_completed = 1 OR is_correct IS NOT NULL OR user_answer IS NOT NULL)
+            """)
+    int resetAnswerRange(@Param("bankId") Long bankId, @Param("afterId") long afterId, @Param("upToId") long upToId);
+}
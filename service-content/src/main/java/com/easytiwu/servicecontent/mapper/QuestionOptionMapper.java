@@ -1,12 +0,0 @@
-package com.easytiwu.servicecontent.mapper;
-
-import com.baomidou.mybatisplus.core.mapper.BaseMapper;
-import com.easytiwu.servicecontent.entity.QuestionOption;
-import org.apache.ibatis.annotations.Mapper;
-
-/**
- * @author sheny
- */
-@Mapper
-public interface QuestionOptionMapper extends BaseMapper<QuestionOption> {
-}
\ No newline at end of file
@@ -0,0 +1,106 @@
+package com.easytiwu.servicecontent.mapper;
+
+import com.easytiwu.servicecontent.entity.Question;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * 增量同步查询，按 updated_at 索引与删除记录表读取某时间点之后的变更
+ * 同步版本号为数据库时钟的毫秒时间戳，updated_at 精度为秒，比较时向下取整到秒并包含边界
+ *
+ * @author sheny
+ */
+@Mapper
+public interface QuestionSyncMapper {
+
+    /**
+     * 读取数据库当前时间，避免应用与数据库时钟不一致
+     *
+     * @return 毫秒时间戳
+     */
+    @Select("SELECT UNIX_TIMESTAMP(NOW()) * 1000")
+    long selectNowMillis();
+
+    /**
+     * 查询题库中自指定时间起新增或修改的题目ID：题目行走 idx_bank_updated，
+     * 内容只读、编辑时改写 content_id，因此内容与选项的变化都体现在题目行上；
+     * 指定用户时还包括该用户作答状态有变化的题目
+     *
+     * @param since  起始时间（毫秒时间戳，含）
+     * @param bankId 题库ID
+     * @param userId 用户ID，为空表示共享状态
+     * @return 题目ID，升序
+     */
+    @Select("""
+            <script>
+            SELECT id FROM questions
+            WHERE bank_id = #{bankId} AND updated_at >= FROM_UNIXTIME(#{since} DIV 1000)
+            <if test="userId != null">
+            UNION
+            SELECT question_id FROM user_answer_states
+            WHERE user_id = #{userId} AND bank_id = #{bankId} AND updated_at >= FROM_UNIXTIME(#{since} DIV 1000)
+            </if>
+            ORDER BY 1
+            </script>
+            """)
+    List<Long> selectChangedIds(@Param("since") long since, @Param("bankId") Long bankId,
+                                @Param("userId") Long userId);
+
+    /**
+     * 查询题库中自指定时间起被删除或移出的题目ID
+     *
+     * @param since  起始时间（毫秒时间戳，含）
+     * @param bankId 题库ID
+     * @return 题目ID，升序
+     */
+    @Select("""
+            SELECT DISTINCT question_id FROM question_tombstones
+            WHERE bank_id = #{bankId} AND deleted_at >= FROM_UNIXTIME(#{since} DIV 1000)
+            ORDER BY question_id
+            """)
+    List<Long> selectDeletedIds(@Param("since") long since, @Param("bankId") Long bankId);
+
+    /**
+     * 分页查询全部题库中自指定时间起新增或修改的题目，走 idx_updated_at，只读取判断是否需要重新索引的列
+     *
+     * @param since   起始时间（毫秒时间戳，含）
+     * @param afterId 起始题目ID（不含）
+     * @param limit   读取条数
+     * @return 仅含 id、bank_id、content_id 的题目列表，按ID升序
+     */
+    @Select("""
+            SELECT id, bank_id, content_id FROM questions
+            WHERE updated_at >= FROM_UNIXTIME(#{since} DIV 1000) AND id > #{afterId}
+            ORDER BY id
+            LIMIT #{limit}
+            """)
+    List<Question> selectChangedSince(@Param("since") long since, @Param("afterId") long afterId,
+                                      @Param("limit") int limit);
+
+    /**
+     * 查询全部题库中自指定时间起被删除或移出的题目
+     *
+     * @param since 起始时间（毫秒时间戳，含）
+     * @return 仅含 id（题目ID）与 bank_id（原题库ID）的列表
+     */
+    @Select("""
+            SELECT question_id AS id, bank_id FROM question_tombstones
+            WHERE deleted_at >= FROM_UNIXTIME(#{since} DIV 1000)
+            ORDER BY deleted_at
+            """)
+    List<Question> selectDeletedSince(@Param("since") long since);
+
+    /**
+     * 分批删除超过保留期的删除记录
+     *
+     * @param retentionDays 保留天数
+     * @param limit         单次删除的最大行数
+     * @return 删除行数
+     */
+    @Delete("DELETE FROM question_tombstones WHERE deleted_at < NOW() - INTERVAL #{retentionDays} DAY LIMIT #{limit}")
+    int purgeTombstones(@Param("retentionDays") int retentionDays, @Param("limit") int limit);
+}
@@ -0,0 +1,91 @@
+package com.easytiwu.servicecontent.mapper;
+
+import com.easytiwu.servicecontent.entity.ReviewSchedule;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 间隔复习计划读写
+ *
+ * @author sheny
+ */
+@Mapper
+public interface ReviewScheduleMapper {
+
+    /**
+     * 按主键批量读取复习计划
+     *
+     * @param userId      用户ID，0 表示共享状态
+     * @param questionIds 题目ID列表
+     * @return 已存在的复习计划
+     */
+    @Select("""
+            <script>
+            SELECT user_id, question_id, bank_id, ease_factor, interval_days, repetitions, due_at
+            FROM review_schedules
+            WHERE user_id = #{userId}
+              AND question_id IN <foreach collection="questionIds" item="id" open="(" separator="," close=")">#{id}</foreach>
+            </script>
+            """)
+    List<ReviewSchedule> selectByQuestions(@Param("userId") long userId,
+                                           @Param("questionIds") List<Long> questionIds);
+
+    /**
+     * 单条多行 upsert 写入复习计划
+     *
+     * @param schedules 复习计划
+     * @return 受影响行数
+     */
+    @Insert("""
+            <script>
+            INSERT INTO review_schedules (user_id, question_id, bank_id, ease_factor, interval_days, repetitions, due_at)
+            VALUES
+            <foreach collection="schedules" item="s" separator=",">
+                (#{s.userId}, #{s.questionId}, #{s.bankId}, #{s.easeFactor}, #{s.intervalDays}, #{s.repetitions}, #{s.dueAt})
+            </foreach>
+            ON DUPLICATE KEY UPDATE bank_id = VALUES(bank_id), ease_factor = VALUES(ease_factor),
+                                    interval_days = VALUES(interval_days), repetitions = VALUES(repetitions),
+                                    due_at = VALUES(due_at)
+            </script>
+            """)
+    int upsert(@Param("schedules") List<ReviewSchedule> schedules);
+
+    /**
+     * 按到期时间取最早到期的题目，沿 idx_user_bank_due 范围扫描，读到 limit 条即停止
+     *
+     * @param userId 用户ID，0 表示共享状态
+     * @param bankId 题库ID
+     * @param now    当前时间
+     * @param limit  最多返回条数
+     * @return 到期题目ID，按到期时间升序
+     */
+    @Select("""
+            SELECT question_id FROM review_schedules
+            WHERE user_id = #{userId} AND bank_id = #{bankId} AND due_at <= #{now}
+            ORDER BY due_at
+            LIMIT #{limit}
+            """)
+    List<Long> selectDueIds(@Param("userId") long userId, @Param("bankId") Long bankId,
+                            @Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * 删除用户在题库下的一批复习计划，沿 idx_user_bank_due 前缀定位，用于重置练习进度
+     *
+     * @param userId 用户ID，0 表示共享状态
+     * @param bankId 题库ID
+     * @param limit  本批最多删除条数
+     * @return 删除条数，小于 limit 表示已删完
+     */
+    @Delete("""
+            DELETE FROM review_schedules
+            WHERE user_id = #{userId} AND bank_id = #{bankId}
+            LIMIT #{limit}
+            """)
+    int deleteByBank(@Param("userId") long userId, @Param("bankId") Long bankId, @Param("limit") int limit);
+}
@@ -0,0 +1,120 @@
+package com.easytiwu.servicecontent.mapper;
+
+import com.easytiwu.servicecontent.entity.UserAnswerState;
+import com.easytiwu.servicecontent.writebehind.PendingAnswer;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * 用户答题状态读写，按 (user_id, question_id) 主键或 idx_user_bank_correct 访问；
+ * 用户作答与重置只递增 user_bank_versions 中该用户在题库下的版本号，不影响题库共享版本号
+ *
+ * @author sheny
+ */
+@Mapper
+public interface UserAnswerStateMapper {
+
+    /**
+     * 读取用户在某题库下已作答题目的对错状态，仅扫描 idx_user_bank_correct，不回表
+     *
+     * @param userId 用户ID
+     * @param bankId 题库ID
+     * @return 仅含 question_id、is_correct 的状态列表
+     */
+    @Select("SELECT question_id, is_correct FROM user_answer_states WHERE user_id = #{userId} AND bank_id = #{bankId}")
+    List<UserAnswerState> selectBankStates(@Param("userId") Long userId, @Param("bankId") Long bankId);
+
+    /**
+     * 单条多行 INSERT ... ON DUPLICATE KEY UPDATE 批量写入用户答题状态
+     *
+     * @param answers 待写入的答题状态，userId 均非空
+     * @return 受影响行数
+     */
+    @Insert("""
+            <script>
+            INSERT INTO user_answer_states (user_id, question_id, bank_id, user_answer, is_correct) VALUES
+            <foreach collection="answers" item="a" separator=",">
+                (#{a.userId}, #{a.questionId}, #{a.bankId}, #{a.userAnswer}, #{a.isCorrect})
+            </foreach>
+            ON DUPLICATE KEY UPDATE user_answer = VALUES(user_answer), is_correct = VALUES(is_correct),
+                                    bank_id = VALUES(bank_id)
+            </script>
+            """)
+    int upsert(@Param("answers") List<PendingAnswer> answers);
+
+    /**
+     * 按题目ID顺序读取用户在某题库下的一批作答记录
+     *
+     * @param userId  用户ID
+     * @param bankId  题库ID
+     * @param afterId 起始题目ID（不含）
+     * @param limit   读取条数
+     * @return 题目ID，升序
+     */
+    @Select("""
+            SELECT question_id FROM user_answer_states
+            WHERE user_id = #{userId} AND bank_id = #{bankId} AND question_id > #{afterId}
+            ORDER BY question_id LIMIT #{limit}
+            """)
+    List<Long> selectQuestionIdsAfter(@Param("userId") Long userId, @Param("bankId") Long bankId,
+                                      @Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * 删除用户指定题目的作答记录（走主键）
+     *
+     * @param userId      用户ID
+     * @param questionIds 题目ID
+     * @return 删除行数
+     */
+    @Delete("""
+            <script>
+            DELETE FROM user_answer_states
+            WHERE user_id = #{userId}
+              AND question_id IN <foreach collection="questionIds" item="id" open="(" separator="," close=")">#{id}</foreach>
+            </script>
+            """)
+    int deleteByQuestionIds(@Param("userId") Long userId, @Param("questionIds") List<Long> questionIds);
+
+    /**
+     * 读取用户在题库下的作答状态版本号（走主键）
+     *
+     * @param userId 用户ID
+     * @param bankId 题库ID
+     * @return 版本号，尚未作答过时为 null
+     */
+    @Select("SELECT version FROM user_bank_versions WHERE user_id = #{userId} AND bank_id = #{bankId}")
+    Long selectVersion(@Param("userId") Long userId, @Param("bankId") Long bankId);
+
+    /**
+     * 递增用户在题库下的作答状态版本号，用于用户进度重置
+     *
+     * @param userId 用户ID
+     * @param bankId 题库ID
+     * @return 受影响行数
+     */
+    @Insert("""
+            INSERT INTO user_bank_versions (user_id, bank_id, version) VALUES (#{userId}, #{bankId}, 1)
+            ON DUPLICATE KEY UPDATE version = version + 1
+            """)
+    int bumpVersion(@Param("userId") Long userId, @Param("bankId") Long bankId);
+
+    /**
+     * 单条多行 upsert 递增用户在题库下的作答状态版本号
+     *
+     * @param keys 每个 (用户, 题库) 一条作答，按 (userId, bankId) 升序以固定加锁顺序
+     * @return 受影响行数
+     */
+    @Insert("""
+            <script>
+            INSERT INTO user_bank_versions (user_id, bank_id, version) VALUES
+            <foreach collection="keys" item="k" separator=",">(#{k.userId}, #{k.bankId}, 1)</foreach>
+            ON DUPLICATE KEY UPDATE version = version + 1
+            </script>
+            """)
+    int bumpVersions(@Param("keys") List<PendingAnswer> keys);
+}
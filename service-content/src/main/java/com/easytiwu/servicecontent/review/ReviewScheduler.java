@@ -0,0 +1,132 @@
+package com.easytiwu.servicecontent.review;
+
+import com.easytiwu.servicecontent.entity.ReviewSchedule;
+import com.easytiwu.servicecontent.mapper.ReviewScheduleMapper;
+import com.easytiwu.servicecontent.writebehind.PendingAnswer;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 间隔复习调度（SM-2）
+ * 每次判题后更新题目的难度系数、复习间隔与下次复习时间；答错的题目立即到期，在本轮复习中重做
+ *
+ * @author sheny
+ */
+@Service
+public class ReviewScheduler {
+
+    /**
+     * 共享状态（未携带用户）在复习计划表中的用户ID
+     */
+    private static final long SHARED_USER = 0L;
+
+    private static final double INITIAL_EASE = 2.5;
+    private static final double MIN_EASE = 1.3;
+
+    /**
+     * 答对、答错映射到 SM-2 的评分（0-5）
+     */
+    private static final int QUALITY_CORRECT = 4;
+    private static final int QUALITY_WRONG = 1;
+
+    private final ReviewScheduleMapper reviewScheduleMapper;
+
+    public ReviewScheduler(ReviewScheduleMapper reviewScheduleMapper) {
+        this.reviewScheduleMapper = reviewScheduleMapper;
+    }
+
+    /**
+     * 根据一批判题结果更新复习计划，需在写入答题状态的事务内调用
+     *
+     * @param answers 已写入的答题状态，同一用户的同一题目只出现一次
+     */
+    public void record(List<PendingAnswer> answers) {
+        if (answers.isEmpty()) {
+            return;
+        }
+        Map<Long, List<PendingAnswer>> byUser = new HashMap<>();
+        for (PendingAnswer a : answers) {
+            byUser.computeIfAbsent(userKey(a.getUserId()), k -> new ArrayList<>()).add(a);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ReviewSchedule> updated = new ArrayList<>(answers.size());
+        for (Map.Entry<Long, List<PendingAnswer>> e : byUser.entrySet()) {
+            long userId = e.getKey();
+            List<Long> ids = new ArrayList<>(e.getValue().size());
+            for (PendingAnswer a : e.getValue()) {
+                ids.add(a.getQuestionId());
+            }
+            Map<Long, ReviewSchedule> previous = new HashMap<>(ids.size() * 2);
+            for (ReviewSchedule s : reviewScheduleMapper.selectByQuestions(userId, ids)) {
+                previous.put(s.getQuestionId(), s);
+            }
+            for (PendingAnswer a : e.getValue()) {
+                boolean correct = Integer.valueOf(1).equals(a.getIsCorrect());
+                updated.add(next(previous.get(a.getQuestionId()), userId, a, correct, now));
+            }
+        }
+        reviewScheduleMapper.upsert(updated);
+    }
+
+    /**
+     * 取题库中最早到期的题目
+     *
+     * @param bankId 题库ID
+     * @param userId 用户ID，为空表示共享状态
+     * @param limit  最多返回条数
+     * @return 到期题目ID，按到期时间升序
+     */
+    public long[] nextDue(Long bankId, Long userId, int limit) {
+        List<Long> ids = reviewScheduleMapper.selectDueIds(userKey(userId), bankId, LocalDateTime.now(), limit);
+        long[] result = new long[ids.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ids.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * SM-2：评分低于 3 时重置连续次数并立即到期；否则间隔依次为 1 天、6 天、上次间隔 × 难度系数
+     */
+    private static ReviewSchedule next(ReviewSchedule prev, long userId, PendingAnswer answer, boolean correct,
+                                       LocalDateTime now) {
+        int quality = correct ? QUALITY_CORRECT : QUALITY_WRONG;
+        double ease = prev != null ? prev.getEaseFactor() : INITIAL_EASE;
+        int repetitions = prev != null ? prev.getRepetitions() : 0;
+        int interval = prev != null ? prev.getIntervalDays() : 0;
+
+        if (quality < 3) {
+            repetitions = 0;
+            interval = 0;
+        } else {
+            interval = switch (repetitions) {
+                case 0 -> 1;
+                case 1 -> 6;
+                default -> (int) Math.round(interval * ease);
+            };
+            repetitions++;
+        }
+        int miss = 5 - quality;
+        ease = Math.max(MIN_EASE, ease + 0.1 - miss * (0.08 + miss * 0.02));
+
+        ReviewSchedule s = new ReviewSchedule();
+        s.setUserId(userId);
+        s.setQuestionId(answer.getQuestionId());
+        s.setBankId(answer.getBankId());
+        s.setEaseFactor(Math.round(ease * 100) / 100.0);
+        s.setIntervalDays(interval);
+        s.setRepetitions(repetitions);
+        s.setDueAt(now.plusDays(interval));
+        return s;
+    }
+
+    private static long userKey(Long userId) {
+        return userId == null ? SHARED_USER : userId;
+    }
+}
@@ -0,0 +1,451 @@
+package com.easytiwu.servicecontent.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 字符二元组（bigram）倒排索引，适用于中文等无分词文本
+ * 倒排表为 varint 编码的 (文档号差值, 词频) 字节数组；文档号按追加顺序递增，倒排表天然有序。
+ * 题目内容或归属变化时旧文档标记删除、新文档追加到末尾，删除占比过高时由调用方重建。
+ * 非线程安全，由调用方保证单写多读的互斥。
+ *
+ * @author sheny
+ */
+public class NgramIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    /**
+     * 词项字典：开放寻址，key 为 (c1 << 16 | c2)，0 表示空槽
+     */
+    private int[] termKeys = new int[1 << 16];
+    private PostingList[] termLists = new PostingList[1 << 16];
+    private int termCount;
+
+    private long[] questionIds = new long[1024];
+    private long[] bankIds = new long[1024];
+    private long[] contentIds = new long[1024];
+    /**
+     * 题目ID到最新文档号
+     */
+    private final Map<Long, Integer> docByQuestion = new HashMap<>();
+    private int[] docLengths = new int[1024];
+    private final BitSet deleted = new BitSet();
+    private int docCount;
+    private int deletedCount;
+    private long totalLength;
+
+    /**
+     * 检索命中
+     */
+    public record Hit(long questionId, long bankId, float score) {
+    }
+
+    /**
+     * 追加一道题目；题目已在索引中时先将旧文档标记删除
+     *
+     * @param questionId 题目ID
+     * @param bankId     题库ID
+     * @param contentId  题目内容ID，用于判断题目是否被编辑
+     * @param text       题干
+     */
+    public void add(long questionId, long bankId, long contentId, String text) {
+        Integer previous = docByQuestion.get(questionId);
+        if (previous != null) {
+            markDeleted(previous);
+        }
+        int doc = docCount;
+        ensureDocCapacity(doc + 1);
+        int[] grams = bigrams(text);
+        Arrays.sort(grams);
+
+        int i = 0;
+        while (i < grams.length) {
+            int term = grams[i];
+            int tf = 1;
+            while (i + tf < grams.length && grams[i + tf] == term) {
+                tf++;
+            }
+            postingFor(term).append(doc, tf);
+            i += tf;
+        }
+
+        questionIds[doc] = questionId;
+        bankIds[doc] = bankId;
+        contentIds[doc] = contentId;
+        docByQuestion.put(questionId, doc);
+        docLengths[doc] = grams.length;
+        totalLength += grams.length;
+        docCount++;
+    }
+
+    /**
+     * 标记指定题库下的全部文档为已删除
+     *
+     * @param removedBankIds 升序排列的题库ID
+     */
+    public void deleteBanks(long[] removedBankIds) {
+        for (int doc = 0; doc < docCount; doc++) {
+            if (Arrays.binarySearch(removedBankIds, bankIds[doc]) >= 0) {
+                markDeleted(doc);
+            }
+        }
+    }
+
+    /**
+     * 删除题目在指定题库下的文档；题目已移入其他题库并重新索引时保留
+     *
+     * @param questionId 题目ID
+     * @param bankId     删除记录中的原题库ID
+     */
+    public void delete(long questionId, long bankId) {
+        Integer doc = docByQuestion.get(questionId);
+        if (doc != null && bankIds[doc] == bankId) {
+            markDeleted(doc);
+        }
+    }
+
+    /**
+     * 题目是否已按当前的题库与内容建立索引
+     *
+     * @param questionId 题目ID
+     * @param bankId     题库ID
+     * @param contentId  题目内容ID
+     * @return 是否无需重新索引
+     */
+    public boolean isCurrent(long questionId, long bankId, long contentId) {
+        Integer doc = docByQuestion.get(questionId);
+        return doc != null && !deleted.get(doc) && bankIds[doc] == bankId && contentIds[doc] == contentId;
+    }
+
+    private void markDeleted(int doc) {
+        if (!deleted.get(doc)) {
+            deleted.set(doc);
+            deletedCount++;
+            totalLength -= docLengths[doc];
+        }
+    }
+
+    /**
+     * 检索同时包含查询中全部 bigram 的题目，按 BM25 排序
+     *
+     * @param query  查询文本
+     * @param bankId 题库过滤，为空表示全部题库
+     * @param limit  返回条数
+     * @return 按得分降序的命中列表
+     */
+    public List<Hit> search(String query, Long bankId, int limit) {
+        int[] grams = bigrams(query);
+        if (grams.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        grams = Arrays.stream(grams).distinct().toArray();
+
+        PostingList[] lists = new PostingList[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            lists[i] = lookup(grams[i]);
+            if (lists[i] == null) {
+                return List.of();
+            }
+        }
+        // 从最短的倒排表开始求交，候选集只会缩小
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.docFreq, b.docFreq));
+
+        int liveDocs = Math.max(1, docCount - deletedCount);
+        float avgLength = Math.max(1f, (float) totalLength / liveDocs);
+
+        int[] candidates = new int[lists[0].docFreq];
+        float[] scores = new float[lists[0].docFreq];
+        int size = lists[0].decodeInto(candidates, scores, idf(lists[0], liveDocs), avgLength, docLengths);
+        for (int i = 1; i < lists.length && size > 0; i++) {
+            size = lists[i].intersect(candidates, scores, size, idf(lists[i], liveDocs), avgLength, docLengths);
+        }
+
+        return topK(candidates, scores, size, bankId, limit);
+    }
+
+    public int docCount() {
+        return docCount;
+    }
+
+    public int liveDocCount() {
+        return docCount - deletedCount;
+    }
+
+    public int termCount() {
+        return termCount;
+    }
+
+    /**
+     * 已删除文档占比，过高时应重建
+     */
+    public double deletedRatio() {
+        return docCount == 0 ? 0 : (double) deletedCount / docCount;
+    }
+
+    private List<Hit> topK(int[] candidates, float[] scores, int size, Long bankId, int limit) {
+        // 最小堆保留得分最高的 limit 个
+        int[] heap = new int[Math.min(limit, size)];
+        int heapSize = 0;
+        for (int i = 0; i < size; i++) {
+            int doc = candidates[i];
+            if (deleted.get(doc) || (bankId != null && bankIds[doc] != bankId)) {
+                continue;
+            }
+            if (heapSize < heap.length) {
+                heap[heapSize] = i;
+                siftUp(heap, heapSize++, scores);
+            } else if (heap.length > 0 && scores[i] > scores[heap[0]]) {
+                heap[0] = i;
+                siftDown(heap, heapSize, scores);
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(heapSize);
+        while (heapSize > 0) {
+            int i = heap[0];
+            hits.add(new Hit(questionIds[candidates[i]], bankIds[candidates[i]], scores[i]));
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize, scores);
+        }
+        Collections.reverse(hits);
+        return hits;
+    }
+
+    private static void siftUp(int[] heap, int i, float[] scores) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (scores[heap[parent]] <= scores[heap[i]]) {
+                return;
+            }
+            int tmp = heap[parent];
+            heap[parent] = heap[i];
+            heap[i] = tmp;
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, float[] scores) {
+        int i = 0;
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && scores[heap[left]] < scores[heap[smallest]]) {
+                smallest = left;
+            }
+            if (right < size && scores[heap[right]] < scores[heap[smallest]]) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            int tmp = heap[smallest];
+            heap[smallest] = heap[i];
+            heap[i] = tmp;
+            i = smallest;
+        }
+    }
+
+    private static float idf(PostingList list, int liveDocs) {
+        return (float) Math.log(1 + (liveDocs - list.docFreq + 0.5) / (list.docFreq + 0.5));
+    }
+
+    /**
+     * 文本归一化后切分为 bigram：空白与标点作为分隔不跨越，ASCII 字母转小写
+     */
+    static int[] bigrams(String text) {
+        if (text == null || text.isEmpty()) {
+            return new int[0];
+        }
+        int[] grams = new int[text.length()];
+        int n = 0;
+        char prev = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                prev = 0;
+                continue;
+            }
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            }
+            if (prev != 0) {
+                grams[n++] = (prev << 16) | c;
+            }
+            prev = c;
+        }
+        return Arrays.copyOf(grams, n);
+    }
+
+    private PostingList lookup(int term) {
+        int mask = termKeys.length - 1;
+        for (int slot = mix(term) & mask; termKeys[slot] != 0; slot = (slot + 1) & mask) {
+            if (termKeys[slot] == term) {
+                return termLists[slot];
+            }
+        }
+        return null;
+    }
+
+    private PostingList postingFor(int term) {
+        int mask = termKeys.length - 1;
+        int slot = mix(term) & mask;
+        while (termKeys[slot] != 0) {
+            if (termKeys[slot] == term) {
+                return termLists[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        PostingList list = new PostingList();
+        termKeys[slot] = term;
+        termLists[slot] = list;
+        if (++termCount * 2 > termKeys.length) {
+            rehash();
+        }
+        return list;
+    }
+
+    private void rehash() {
+        int[] oldKeys = termKeys;
+        PostingList[] oldLists = termLists;
+        termKeys = new int[oldKeys.length * 2];
+        termLists = new PostingList[oldKeys.length * 2];
+        int mask = termKeys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (termKeys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                termKeys[slot] = oldKeys[i];
+                termLists[slot] = oldLists[i];
+            }
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void ensureDocCapacity(int capacity) {
+        if (capacity > questionIds.length) {
+            int newLength = Math.max(capacity, questionIds.length * 2);
+            questionIds = Arrays.copyOf(questionIds, newLength);
+            bankIds = Arrays.copyOf(bankIds, newLength);
+            contentIds = Arrays.copyOf(contentIds, newLength);
+            docLengths = Arrays.copyOf(docLengths, newLength);
+        }
+    }
+
+    /**
+     * 单个词项的倒排表
+     */
+    private static final class PostingList {
+        private byte[] data = new byte[8];
+        private int length;
+        private int docFreq;
+        private int lastDoc;
+
+        void append(int doc, int tf) {
+            if (length + 10 > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            writeVarint(doc - lastDoc);
+            writeVarint(tf);
+            lastDoc = doc;
+            docFreq++;
+        }
+
+        /**
+         * 解码全部文档作为初始候选集
+         */
+        int decodeInto(int[] docs, float[] scores, float idf, float avgLength, int[] docLengths) {
+            int pos = 0;
+            int doc = 0;
+            int n = 0;
+            while (pos < length) {
+                int delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[pos++];
+                    delta |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                int tf = 0;
+                shift = 0;
+                do {
+                    b = data[pos++];
+                    tf |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                doc += delta;
+                docs[n] = doc;
+                scores[n] = bm25(idf, tf, docLengths[doc], avgLength);
+                n++;
+            }
+            return n;
+        }
+
+        /**
+         * 与有序候选集求交并累加得分，结果原地压缩
+         *
+         * @return 交集大小
+         */
+        int intersect(int[] docs, float[] scores, int size, float idf, float avgLength, int[] docLengths) {
+            int pos = 0;
+            int doc = 0;
+            int i = 0;
+            int out = 0;
+            while (pos < length && i < size) {
+                int delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[pos++];
+                    delta |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                int tf = 0;
+                shift = 0;
+                do {
+                    b = data[pos++];
+                    tf |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                doc += delta;
+
+                while (i < size && docs[i] < doc) {
+                    i++;
+                }
+                if (i < size && docs[i] == doc) {
+                    docs[out] = doc;
+                    scores[out] = scores[i] + bm25(idf, tf, docLengths[doc], avgLength);
+                    out++;
+                    i++;
+                }
+            }
+            return out;
+        }
+
+        private void writeVarint(int value) {
+            while ((value & ~0x7F) != 0) {
+                data[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[length++] = (byte) value;
+        }
+
+        private static float bm25(float idf, int tf, int docLength, float avgLength) {
+            return idf * (tf * (K1 + 1)) / (tf + K1 * (1 - B + B * docLength / avgLength));
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.easytiwu.servicecontent.service;
 
+import com.easytiwu.servicecontent.cache.PrefetchedAnswerKeys;
 import com.easytiwu.servicecontent.controller.ContentController;
 
+import java.util.List;
+
 /**
  * 答案验证服务接口
  *
@@ -14,7 +17,32 @@ public interface AnswerVerificationServiceInterface {
      *
      * @param questionId 题目ID
      * @param userAnswer 用户答案
+     * @param latencyMs  作答耗时（毫秒），可为空
+     * @param userId     用户ID，非空时写入该用户的作答状态，否则写入共享状态
      * @return 验证结果
      */
-    ContentController.AnswerVerificationResponse verifyAnswer(Long questionId, String userAnswer);
-}
\ No newline at end of file
+    ContentController.AnswerVerificationResponse verifyAnswer(Long questionId, String userAnswer, Integer latencyMs,
+                                                              Long userId);
+
+    /**
+     * 批量验证一整份答卷
+     * 答案键一次加载、内存判题、结果一次批量写入，每题追加一条作答流水
+     *
+     * @param answers 答案列表，同一题目出现多次时以最后一次为准
+     * @param userId  用户ID，非空时写入该用户的作答状态，否则写入共享状态
+     * @return 逐题结果与得分汇总
+     */
+    ContentController.BatchAnswerVerificationResponse verifyAnswers(
+            List<ContentController.AnswerVerificationRequest> answers, Long userId);
+
+    /**
+     * 按预取的答案键批量验证一整份答卷，用于考试会话交卷；预取答案键无法判定的题目按数据库路径判题
+     *
+     * @param answers 答案列表，同一题目出现多次时以最后一次为准
+     * @param keys    预取的答案键
+     * @param userId  用户ID，非空时写入该用户的作答状态，否则写入共享状态
+     * @return 逐题结果与得分汇总
+     */
+    ContentController.BatchAnswerVerificationResponse verifyAnswers(
+            List<ContentController.AnswerVerificationRequest> answers, PrefetchedAnswerKeys keys, Long userId);
+}
@@ -0,0 +1,45 @@
+package com.easytiwu.servicecontent.service;
+
+import com.easytiwu.servicecontent.mapper.QuestionBankMapper;
+import com.easytiwu.servicecontent.mapper.UserAnswerStateMapper;
+import org.springframework.stereotype.Service;
+
+/**
+ * 题库版本服务
+ * 题库版本号在题目增删、编辑及共享作答状态变化时递增，用于生成题目列表的 ETag；
+ * 用户作答只递增该用户在题库下的版本号，用户视图的 ETag 额外带上它，不影响其他用户与共享视图的缓存
+ *
+ * @author sheny
+ */
+@Service
+public class BankVersionService {
+
+    private final QuestionBankMapper questionBankMapper;
+    private final UserAnswerStateMapper userAnswerStateMapper;
+
+    public BankVersionService(QuestionBankMapper questionBankMapper, UserAnswerStateMapper userAnswerStateMapper) {
+        this.questionBankMapper = questionBankMapper;
+        this.userAnswerStateMapper = userAnswerStateMapper;
+    }
+
+    /**
+     * 生成题目列表的 ETag，仅读取题库主键行与用户版本号主键行，不查询题目与选项
+     *
+     * @param bankId  题库ID
+     * @param variant 同一题库下的不同列表视图（如 all、wrong、题型）
+     * @param userId  用户ID，为空表示共享状态
+     * @return ETag，题库不存在时返回 null
+     */
+    public String questionListEtag(Long bankId, String variant, Long userId) {
+        Long version = questionBankMapper.selectVersion(bankId);
+        if (version == null) {
+            return null;
+        }
+        if (userId == null) {
+            return "\"" + bankId + "-" + version + "-" + variant + "\"";
+        }
+        Long userVersion = userAnswerStateMapper.selectVersion(userId, bankId);
+        return "\"" + bankId + "-" + version + "-u" + userId + "." + (userVersion == null ? 0 : userVersion)
+                + "-" + variant + "\"";
+    }
+}
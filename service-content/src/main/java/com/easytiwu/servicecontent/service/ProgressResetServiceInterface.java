@@ -0,0 +1,21 @@
+package com.easytiwu.servicecontent.service;
+
+import com.easytiwu.servicecontent.dto.ProgressResetDTO;
+
+/**
+ * 题库练习进度重置服务接口
+ *
+ * @author sheny
+ */
+public interface ProgressResetServiceInterface {
+
+    /**
+     * 重置题库的练习进度，清空作答内容、完成与对错状态，整体在一个事务内完成
+     *
+     * @param bankId 题库ID
+     * @param userId 用户ID，非空时只清空该用户的作答状态，否则清空共享状态
+     * @return 重置结果
+     * @throws com.easytiwu.commonexception.exception.BusinessException 题库不存在时抛出
+     */
+    ProgressResetDTO resetBank(Long bankId, Long userId);
+}
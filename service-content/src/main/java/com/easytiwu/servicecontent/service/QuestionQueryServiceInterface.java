@@ -1,6 +1,8 @@
 package com.easytiwu.servicecontent.service;
 
 import com.easytiwu.servicecontent.dto.QuestionDTO;
+import com.easytiwu.servicecontent.dto.QuestionFields;
+import com.easytiwu.servicecontent.dto.SyncDeltaDTO;
 
 import java.util.List;
 
@@ -16,16 +18,56 @@ public interface QuestionQueryServiceInterface {
      *
      * @param bankId 题库ID
      * @param type 题目类型 (all:所有题目, wrong:错题)
+     * @param fields 字段投影
+     * @param userId 用户ID，非空时返回该用户的作答状态，否则返回共享状态
      * @return 题目列表
      */
-    List<QuestionDTO> queryQuestions(Long bankId, String type);
+    List<QuestionDTO> queryQuestions(Long bankId, String type, QuestionFields fields, Long userId);
 
     /**
      * 根据题库ID和题目类型查询题目
      *
      * @param bankId 题库ID
      * @param questionType 题目类型
+     * @param fields 字段投影
+     * @param userId 用户ID，非空时返回该用户的作答状态，否则返回共享状态
      * @return 题目列表
      */
-    List<QuestionDTO> queryQuestionsByType(Long bankId, String questionType);
-}
\ No newline at end of file
+    List<QuestionDTO> queryQuestionsByType(Long bankId, String questionType, QuestionFields fields, Long userId);
+
+    /**
+     * 从题库中随机抽取题目
+     *
+     * @param bankId       题库ID
+     * @param count        抽取数量
+     * @param questionType 题型过滤，为空表示不过滤
+     * @param wrongOnly    是否仅抽取错题
+     * @param weighted     是否按作答状态加权抽取
+     * @param fields       字段投影
+     * @param userId       用户ID，非空时按该用户的作答状态抽题，否则使用共享状态
+     * @return 题目列表，顺序即出题顺序
+     */
+    List<QuestionDTO> sampleQuestions(Long bankId, int count, String questionType, boolean wrongOnly, boolean weighted,
+                                      QuestionFields fields, Long userId);
+
+    /**
+     * 获取题库中已到期需要复习的题目
+     *
+     * @param bankId 题库ID
+     * @param limit  最多返回条数
+     * @param fields 字段投影
+     * @param userId 用户ID，为空表示共享状态
+     * @return 题目列表，按到期时间升序（最紧急的在前）
+     */
+    List<QuestionDTO> dueQuestions(Long bankId, int limit, QuestionFields fields, Long userId);
+
+    /**
+     * 增量同步题库：返回自指定版本以来新增、修改与删除的题目
+     *
+     * @param bankId       题库ID
+     * @param sinceVersion 上次同步返回的版本号，为空或过旧时返回全量
+     * @param userId       用户ID，非空时返回该用户的作答状态，否则返回共享状态
+     * @return 同步结果
+     */
+    SyncDeltaDTO syncDelta(Long bankId, Long sinceVersion, Long userId);
+}
@@ -0,0 +1,23 @@
+package com.easytiwu.servicecontent.service;
+
+import com.easytiwu.servicecontent.dto.QuestionSearchHitDTO;
+
+import java.util.List;
+
+/**
+ * 题目全文检索服务接口
+ *
+ * @author sheny
+ */
+public interface QuestionSearchServiceInterface {
+
+    /**
+     * 按关键词检索题目
+     *
+     * @param keyword 关键词
+     * @param bankId  题库过滤，为空表示跨题库检索
+     * @param limit   返回条数
+     * @return 按相关度降序的检索结果
+     */
+    List<QuestionSearchHitDTO> search(String keyword, Long bankId, int limit);
+}
@@ -0,0 +1,56 @@
+package com.easytiwu.servicecontent.service;
+
+import com.easytiwu.servicecontent.controller.ContentController;
+import com.easytiwu.servicecontent.dto.QuizSessionDTO;
+import com.easytiwu.servicecontent.dto.QuizSessionStatusDTO;
+
+import java.util.List;
+
+/**
+ * 限时考试会话服务接口
+ *
+ * @author sheny
+ */
+public interface QuizSessionServiceInterface {
+
+    /**
+     * 开考：随机抽题并预取答案键，到期自动交卷
+     *
+     * @param bankId          题库ID
+     * @param count           题目数量
+     * @param questionType    题型过滤，为空表示不过滤
+     * @param durationSeconds 考试时长（秒）
+     * @param userId          用户ID，为空表示共享状态
+     * @return 会话与题目（不含答案与解析）
+     */
+    QuizSessionDTO start(Long bankId, int count, String questionType, int durationSeconds, Long userId);
+
+    /**
+     * 提交部分作答
+     *
+     * @param sessionId 会话ID
+     * @param answers   作答
+     * @param userId    用户ID，须与开考时一致
+     * @return 会话状态
+     */
+    QuizSessionStatusDTO answer(String sessionId, List<ContentController.AnswerVerificationRequest> answers,
+                                Long userId);
+
+    /**
+     * 交卷
+     *
+     * @param sessionId 会话ID
+     * @param userId    用户ID，须与开考时一致
+     * @return 会话状态与判题结果
+     */
+    QuizSessionStatusDTO submit(String sessionId, Long userId);
+
+    /**
+     * 查询会话状态，到期自动交卷后可由此取回结果
+     *
+     * @param sessionId 会话ID
+     * @param userId    用户ID，须与开考时一致
+     * @return 会话状态
+     */
+    QuizSessionStatusDTO status(String sessionId, Long userId);
+}
@@ -1,18 +1,31 @@
 package com.easytiwu.servicecontent.service.impl;
 
-import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.easytiwu.servicecontent.cache.AnswerGrade;
+import com.easytiwu.servicecontent.cache.AnswerKeyIndex;
+import com.easytiwu.servicecontent.cache.HotBankStore;
+import com.easytiwu.servicecontent.cache.PrefetchedAnswerKeys;
 import com.easytiwu.servicecontent.controller.ContentController;
 import com.easytiwu.servicecontent.entity.Question;
 import com.easytiwu.servicecontent.mapper.QuestionMapper;
 import com.easytiwu.servicecontent.service.AnswerVerificationServiceInterface;
+import com.easytiwu.servicecontent.writebehind.AnswerStateWriter;
+import com.easytiwu.servicecontent.writebehind.AnswerWriteBuffer;
+import com.easytiwu.servicecontent.writebehind.AttemptLogBuffer;
+import com.easytiwu.servicecontent.writebehind.AttemptRecord;
+import com.easytiwu.servicecontent.writebehind.PendingAnswer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
 
 /**
  * 答案验证服务实现
@@ -22,11 +35,30 @@ import java.util.List;
 @Service
 public class AnswerVerificationServiceImpl implements AnswerVerificationServiceInterface {
 
+    /**
+     * 上报耗时的上限，超过视为无效（一天）
+     */
+    private static final int MAX_LATENCY_MS = 24 * 60 * 60 * 1000;
+
     private final QuestionMapper questionMapper;
+    private final AnswerKeyIndex answerKeyIndex;
+    private final AnswerWriteBuffer answerWriteBuffer;
+    private final AnswerStateWriter answerStateWriter;
+    private final AttemptLogBuffer attemptLogBuffer;
+    private final HotBankStore hotBankStore;
     private final ObjectMapper objectMapper;
 
-    public AnswerVerificationServiceImpl(QuestionMapper questionMapper) {
+    public AnswerVerificationServiceImpl(QuestionMapper questionMapper, AnswerKeyIndex answerKeyIndex,
+                                         AnswerWriteBuffer answerWriteBuffer,
+                                         AnswerStateWriter answerStateWriter,
+                                         AttemptLogBuffer attemptLogBuffer,
+                                         HotBankStore hotBankStore) {
         this.questionMapper = questionMapper;
+        this.answerKeyIndex = answerKeyIndex;
+        this.answerWriteBuffer = answerWriteBuffer;
+        this.answerStateWriter = answerStateWriter;
+        this.attemptLogBuffer = attemptLogBuffer;
+        this.hotBankStore = hotBankStore;
         this.objectMapper = new ObjectMapper();
     }
 
@@ -35,13 +67,26 @@ public class AnswerVerificationServiceImpl implements AnswerVerificationServiceI
      *
      * @param questionId 题目ID
      * @param userAnswer 用户答案
+     * @param latencyMs  作答耗时（毫秒），可为空
+     * @param userId     用户ID，为空表示共享状态
      * @return 验证结果
      */
     @Override
     @Transactional
-    public ContentController.AnswerVerificationResponse verifyAnswer(Long questionId, String userAnswer) {
+    public ContentController.AnswerVerificationResponse verifyAnswer(Long questionId, String userAnswer,
+                                                                     Integer latencyMs, Long userId) {
+        // 优先使用内存答案键判题
+        AnswerGrade grade = answerKeyIndex.grade(questionId, userAnswer);
+        if (grade != null) {
+            ContentController.AnswerVerificationResponse response =
+                    verifyWithAnswerKey(questionId, userAnswer, grade, userId);
+            recordAttempt(userId, questionId, grade.getBankId(), grade.getType(), grade.isCorrect(), latencyMs);
+            return response;
+        }
+
         // 查询题目信息
-        Question question = questionMapper.selectById(questionId);
+        List<Question> found = questionMapper.selectWithContent(List.of(questionId));
+        Question question = found.isEmpty() ? null : found.get(0);
         if (question == null) {
             throw new IllegalArgumentException("题目不存在，ID: " + questionId);
         }
@@ -53,8 +98,10 @@ public class AnswerVerificationServiceImpl implements AnswerVerificationServiceI
         // 验证答案是否正确
         boolean isCorrect = verifyAnswerCorrectness(normalizedUserAnswer, correctAnswer, question.getType());
 
-        // 更新题目的用户答案和完成状态
-        updateQuestionAnswer(questionId, normalizedUserAnswer, isCorrect);
+        // 更新用户答案和完成状态
+        writeAnswerState(new PendingAnswer(userId, questionId, question.getBankId(),
+                normalizedUserAnswer, isCorrect ? 1 : 0));
+        recordAttempt(userId, questionId, question.getBankId(), question.getType(), isCorrect, latencyMs);
 
         // 构建响应结果
         ContentController.AnswerVerificationResponse response = new ContentController.AnswerVerificationResponse();
@@ -68,6 +115,207 @@ public class AnswerVerificationServiceImpl implements AnswerVerificationServiceI
         return response;
     }
 
+    /**
+     * 批量验证一整份答卷
+     *
+     * @param answers 答案列表
+     * @param userId  用户ID，为空表示共享状态
+     * @return 逐题结果与得分汇总
+     */
+    @Override
+    @Transactional
+    public ContentController.BatchAnswerVerificationResponse verifyAnswers(
+            List<ContentController.AnswerVerificationRequest> answers, Long userId) {
+        return verifySheet(answers, userId,
+                answerKeyIndex::grade);
+    }
+
+    @Override
+    @Transactional
+    public ContentController.BatchAnswerVerificationResponse verifyAnswers(
+            List<ContentController.AnswerVerificationRequest> answers, PrefetchedAnswerKeys keys, Long userId) {
+        return verifySheet(answers, userId, keys::grade);
+    }
+
+    /**
+     * 批量判题并一次写入
+     *
+     * @param grader 内存判题器，返回 null 的题目按数据库路径判题
+     */
+    private ContentController.BatchAnswerVerificationResponse verifySheet(
+            List<ContentController.AnswerVerificationRequest> answers, Long userId,
+            BiFunction<Long, String, AnswerGrade> grader) {
+        // 同一题目以最后一次作答为准，保持提交顺序
+        Map<Long, String> sheet = new LinkedHashMap<>();
+        Map<Long, Integer> latencies = new HashMap<>();
+        for (ContentController.AnswerVerificationRequest item : answers) {
+            sheet.remove(item.getQuestionId());
+            sheet.put(item.getQuestionId(), item.getUserAnswer());
+            latencies.put(item.getQuestionId(), item.getLatencyMs());
+        }
+
+        Map<Long, ContentController.AnswerVerificationResponse> results = new LinkedHashMap<>();
+        List<PendingAnswer> writes = new ArrayList<>(sheet.size());
+        List<Long> fallbackIds = new ArrayList<>();
+        for (Map.Entry<Long, String> entry : sheet.entrySet()) {
+            Long questionId = entry.getKey();
+            AnswerGrade grade = grader.apply(questionId, entry.getValue());
+            if (grade == null) {
+                fallbackIds.add(questionId);
+                results.put(questionId, null);
+                continue;
+            }
+            String normalized = grade.getNormalizedAnswer() != null
+                    ? grade.getNormalizedAnswer()
+                    : normalizeAnswer(entry.getValue(), grade.getType());
+            results.put(questionId, buildResponse(questionId, normalized, grade.getDisplayAnswer(), grade.isCorrect()));
+            writes.add(new PendingAnswer(userId, questionId, grade.getBankId(), normalized,
+                    grade.isCorrect() ? 1 : 0));
+            recordAttempt(userId, questionId, grade.getBankId(), grade.getType(), grade.isCorrect(),
+                    latencies.get(questionId));
+        }
+
+        // 答案键未覆盖的题目一次性按原逻辑判题
+        if (!fallbackIds.isEmpty()) {
+            Map<Long, Question> rows = new HashMap<>();
+            for (Question q : questionMapper.selectWithContent(fallbackIds)) {
+                rows.put(q.getId(), q);
+            }
+            for (Long questionId : fallbackIds) {
+                Question q = rows.get(questionId);
+                if (q == null) {
+                    results.remove(questionId);
+                    continue;
+                }
+                String normalized = normalizeAnswer(sheet.get(questionId), q.getType());
+                boolean isCorrect = verifyAnswerCorrectness(normalized, q.getCorrectAnswer(), q.getType());
+                results.put(questionId, buildResponse(questionId, normalized,
+                        formatCorrectAnswer(q.getCorrectAnswer(), q.getType()), isCorrect));
+                writes.add(new PendingAnswer(userId, questionId, q.getBankId(), normalized, isCorrect ? 1 : 0));
+                recordAttempt(userId, questionId, q.getBankId(), q.getType(), isCorrect, latencies.get(questionId));
+            }
+        }
+
+        // 一次批量写入；写后缓冲启用时交由缓冲合并
+        List<PendingAnswer> direct = new ArrayList<>(writes.size());
+        for (PendingAnswer w : writes) {
+            if (!answerWriteBuffer.offer(w)) {
+                direct.add(w);
+            }
+        }
+        if (!direct.isEmpty() && answerStateWriter.write(direct).size() < direct.size()) {
+            // 有题目在判题后被删除，答案键随之失效
+            direct.forEach(w -> answerKeyIndex.invalidate(w.getBankId()));
+        }
+
+        Map<Long, String> analyses = loadAnalyses(writes);
+        int correctCount = 0;
+        for (ContentController.AnswerVerificationResponse r : results.values()) {
+            r.setAnalysis(analyses.get(r.getQuestionId()));
+            if (Boolean.TRUE.equals(r.getIsCorrect())) {
+                correctCount++;
+            }
+        }
+
+        int total = results.size();
+        ContentController.BatchAnswerVerificationResponse response = new ContentController.BatchAnswerVerificationResponse();
+        response.setResults(new ArrayList<>(results.values()));
+        response.setTotal(total);
+        response.setCorrectCount(correctCount);
+        response.setWrongCount(total - correctCount);
+        response.setAccuracy(total == 0 ? 0.0 : Math.round(correctCount * 10000.0 / total) / 100.0);
+        return response;
+    }
+
+    /**
+     * 基于答案键索引的判题结果更新状态并构建响应，不再读取题目整行
+     */
+    private ContentController.AnswerVerificationResponse verifyWithAnswerKey(Long questionId, String userAnswer,
+                                                                           AnswerGrade grade, Long userId) {
+        String normalizedUserAnswer = grade.getNormalizedAnswer() != null
+                ? grade.getNormalizedAnswer()
+                : normalizeAnswer(userAnswer, grade.getType());
+
+        // 写后缓冲模式下状态异步合并写回，否则同步更新
+        PendingAnswer pendingAnswer = new PendingAnswer(userId, questionId, grade.getBankId(),
+                normalizedUserAnswer, grade.isCorrect() ? 1 : 0);
+        if (!answerWriteBuffer.offer(pendingAnswer) && !writeAnswerState(pendingAnswer)) {
+            // 题目已被删除而索引尚未失效
+            answerKeyIndex.invalidate(grade.getBankId());
+            throw new IllegalArgumentException("题目不存在，ID: " + questionId);
+        }
+
+        ContentController.AnswerVerificationResponse response = buildResponse(questionId, normalizedUserAnswer,
+                grade.getDisplayAnswer(), grade.isCorrect());
+        response.setAnalysis(loadAnalysis(grade.getBankId(), questionId));
+        return response;
+    }
+
+    /**
+     * 追加一条作答流水，异步批量落库；非法耗时按未上报处理
+     */
+    private void recordAttempt(Long userId, Long questionId, Long bankId, String type, boolean isCorrect,
+                               Integer latencyMs) {
+        Integer latency = latencyMs != null && latencyMs >= 0 && latencyMs <= MAX_LATENCY_MS ? latencyMs : null;
+        attemptLogBuffer.record(new AttemptRecord(userId, questionId, bankId, type, isCorrect ? 1 : 0,
+                latency, LocalDateTime.now()));
+    }
+
+    /**
+     * 构建单题验证响应（不含解析）
+     */
+    private ContentController.AnswerVerificationResponse buildResponse(Long questionId, String userAnswer,
+                                                                      String correctAnswer, boolean isCorrect) {
+        ContentController.AnswerVerificationResponse response = new ContentController.AnswerVerificationResponse();
+        response.setQuestionId(questionId);
+        response.setUserAnswer(userAnswer);
+        response.setCorrectAnswer(correctAnswer);
+        response.setIsCorrect(isCorrect);
+        response.setMessage(isCorrect ? "回答正确！🎉" : "回答错误，继续加油！");
+        return response;
+    }
+
+    /**
+     * 读取题目解析：热点题库直接取内存，否则仅读取解析列
+     */
+    private String loadAnalysis(Long bankId, Long questionId) {
+        Map<Long, String> cached = new HashMap<>(2);
+        hotBankStore.collectAnalyses(bankId, List.of(questionId), cached);
+        if (cached.containsKey(questionId)) {
+            return cached.get(questionId);
+        }
+        List<Question> found = questionMapper.selectAnalyses(List.of(questionId));
+        return found.isEmpty() ? null : found.get(0).getAnalysis();
+    }
+
+    /**
+     * 批量读取题目解析：热点题库取内存，其余一次查询只读取解析列
+     */
+    private Map<Long, String> loadAnalyses(List<PendingAnswer> answers) {
+        if (answers.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, List<Long>> byBank = new HashMap<>();
+        for (PendingAnswer a : answers) {
+            byBank.computeIfAbsent(a.getBankId(), k -> new ArrayList<>()).add(a.getQuestionId());
+        }
+        Map<Long, String> analyses = new HashMap<>(answers.size() * 2);
+        byBank.forEach((bankId, ids) -> hotBankStore.collectAnalyses(bankId, ids, analyses));
+        List<Long> missing = new ArrayList<>();
+        for (PendingAnswer a : answers) {
+            if (!analyses.containsKey(a.getQuestionId())) {
+                missing.add(a.getQuestionId());
+            }
+        }
+        if (missing.isEmpty()) {
+            return analyses;
+        }
+        for (Question q : questionMapper.selectAnalyses(missing)) {
+            analyses.put(q.getId(), q.getAnalysis());
+        }
+        return analyses;
+    }
+
     /**
      * 标准化用户答案格式
      */
@@ -84,7 +332,7 @@ public class AnswerVerificationServiceImpl implements AnswerVerificationServiceI
                 // 如果已经是JSON格式，解析后重新排序
                 if (trimmed.startsWith("[") && trimmed.endsWith("]")) {
                     List<String> options = Arrays.stream(trimmed.substring(1, trimmed.length() - 1)
-                                    .replaceAll("\"|", "")
+                                    .replace("\"", "")
                                     .split(","))
                             .map(String::trim)
                             .filter(s -> !s.isEmpty())
@@ -159,7 +407,7 @@ public class AnswerVerificationServiceImpl implements AnswerVerificationServiceI
         if (trimmed.startsWith("[") && trimmed.endsWith("]")) {
             try {
                 return Arrays.stream(trimmed.substring(1, trimmed.length() - 1)
-                                .replaceAll("\"|", "")
+                                .replace("\"", "")
                                 .split(","))
                         .map(String::trim)
                         .filter(s -> !s.isEmpty())
@@ -177,17 +425,12 @@ public class AnswerVerificationServiceImpl implements AnswerVerificationServiceI
     }
 
     /**
-     * 更新题目答案和状态
+     * 同步写入单题作答状态，与批量写入共用同一路径：题目或所属题库已删除时不写入
+     *
+     * @return 题目是否仍存在
      */
-    private void updateQuestionAnswer(Long questionId, String userAnswer, boolean isCorrect) {
-        LambdaUpdateWrapper<Question> updateWrapper = new LambdaUpdateWrapper<>();
-        updateWrapper.eq(Question::getId, questionId)
-                .set(Question::getUserAnswer, userAnswer)
-                .set(Question::getIsCompleted, 1)
-                .set(Question::getIsCorrect, isCorrect ? 1 : 0)
-                .set(Question::getUpdatedAt, LocalDateTime.now());
-
-        questionMapper.update(null, updateWrapper);
+    private boolean writeAnswerState(PendingAnswer answer) {
+        return !answerStateWriter.write(List.of(answer)).isEmpty();
     }
 
     /**
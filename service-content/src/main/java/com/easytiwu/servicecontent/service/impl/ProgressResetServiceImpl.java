@@ -0,0 +1,146 @@
+package com.easytiwu.servicecontent.service.impl;
+
+import com.easytiwu.commonexception.enums.ErrorCode;
+import com.easytiwu.commonexception.exception.BusinessException;
+import com.easytiwu.servicecontent.cache.AnswerKeyIndex;
+import com.easytiwu.servicecontent.cache.HotBankStore;
+import com.easytiwu.servicecontent.dto.ProgressResetDTO;
+import com.easytiwu.servicecontent.mapper.BankCounterMapper;
+import com.easytiwu.servicecontent.mapper.QuestionBankMapper;
+import com.easytiwu.servicecontent.mapper.QuestionMapper;
+import com.easytiwu.servicecontent.mapper.ReviewScheduleMapper;
+import com.easytiwu.servicecontent.mapper.UserAnswerStateMapper;
+import com.easytiwu.servicecontent.service.ProgressResetServiceInterface;
+import com.easytiwu.servicecontent.writebehind.AnswerWriteBuffer;
+import com.easytiwu.servicecontent.writebehind.PendingAnswer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * 题库练习进度重置服务实现
+ * 共享状态按主键范围分批清空，批量期间让 trg_questions_au 跳过逐行计数，最后按题目表重算一次题库计数；
+ * 全部批次、重算与复习计划的删除在同一事务内，中途失败整体回滚，计数不会与题目状态不一致
+ *
+ * @author sheny
+ */
+@Slf4j
+@Service
+public class ProgressResetServiceImpl implements ProgressResetServiceInterface {
+
+    private final QuestionMapper questionMapper;
+    private final QuestionBankMapper questionBankMapper;
+    private final BankCounterMapper bankCounterMapper;
+    private final UserAnswerStateMapper userAnswerStateMapper;
+    private final ReviewScheduleMapper reviewScheduleMapper;
+    private final AnswerWriteBuffer answerWriteBuffer;
+    private final AnswerKeyIndex answerKeyIndex;
+    private final HotBankStore hotBankStore;
+
+    @Value("${content.reset.batch-size:1000}")
+    private int batchSize;
+
+    public ProgressResetServiceImpl(QuestionMapper questionMapper, QuestionBankMapper questionBankMapper,
+                                    BankCounterMapper bankCounterMapper, UserAnswerStateMapper userAnswerStateMapper,
+                                    ReviewScheduleMapper reviewScheduleMapper, AnswerWriteBuffer answerWriteBuffer, AnswerKeyIndex answerKeyIndex,
+                                    HotBankStore hotBankStore) {
+        this.questionMapper = questionMapper;
+        this.questionBankMapper = questionBankMapper;
+        this.bankCounterMapper = bankCounterMapper;
+        this.userAnswerStateMapper = userAnswerStateMapper;
+        this.reviewScheduleMapper = reviewScheduleMapper;
+        this.answerWriteBuffer = answerWriteBuffer;
+        this.answerKeyIndex = answerKeyIndex;
+        this.hotBankStore = hotBankStore;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public ProgressResetDTO resetBank(Long bankId, Long userId) {
+        if (questionBankMapper.selectVersion(bankId) == null) {
+            throw new BusinessException(ErrorCode.NOT_FOUND, "题库不存在，ID: " + bankId);
+        }
+        // 缓冲中尚未写回的作答属于重置前，不再写回；先行取出，避免重置期间被刷新线程写回，回滚时放回
+        List<PendingAnswer> discarded = answerWriteBuffer.discard(bankId, userId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (userId == null) {
+                    answerKeyIndex.invalidate(bankId);
+                    hotBankStore.invalidate(bankId);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED && !discarded.isEmpty()) {
+                    answerWriteBuffer.requeue(discarded);
+                }
+            }
+        });
+
+        int reset = userId == null ? resetShared(bankId) : resetUser(bankId, userId);
+        resetSchedules(bankId, userId == null ? 0L : userId);
+
+        log.info("题库进度已重置，题库ID: {}，用户ID: {}，重置题目 {} 道", bankId, userId, reset);
+
+        ProgressResetDTO result = new ProgressResetDTO();
+        result.setBankId(bankId);
+        result.setResetQuestions(reset);
+        return result;
+    }
+
+    /**
+     * 分批清空题目表上的共享作答状态，最后重算一次题库计数
+     */
+    private int resetShared(Long bankId) {
+        int reset = 0;
+        // 会话变量不随事务回滚，无论成败都必须在归还连接前清除
+        bankCounterMapper.setSkipBankCounters(1);
+        try {
+            long afterId = 0;
+            Long upToId;
+            while ((upToId = questionMapper.selectMaxIdAfter(bankId, afterId, batchSize)) != null) {
+                reset += questionMapper.resetAnswerRange(bankId, afterId, upToId);
+                afterId = upToId;
+            }
+        } finally {
+            bankCounterMapper.setSkipBankCounters(null);
+        }
+        bankCounterMapper.clearStripeCounters(bankId);
+        bankCounterMapper.recomputeCounters(bankId);
+        bankCounterMapper.subtractResetTypeStats(bankId);
+        bankCounterMapper.clearResetTypeStats(bankId);
+        return reset;
+    }
+
+    /**
+     * 分批删除用户在该题库下的作答记录；用户状态不计入题库计数，只递增该用户在题库下的版本号
+     */
+    private int resetUser(Long bankId, Long userId) {
+        int reset = 0;
+        long afterId = 0;
+        List<Long> ids;
+        while (!(ids = userAnswerStateMapper.selectQuestionIdsAfter(userId, bankId, afterId, batchSize)).isEmpty()) {
+            reset += userAnswerStateMapper.deleteByQuestionIds(userId, ids);
+            afterId = ids.get(ids.size() - 1);
+        }
+        userAnswerStateMapper.bumpVersion(userId, bankId);
+        return reset;
+    }
+
+    /**
+     * 分批删除该题库下的复习计划，重置后错题不再按旧间隔出现在待复习队列中
+     */
+    private void resetSchedules(Long bankId, long userId) {
+        int deleted;
+        do {
+            deleted = reviewScheduleMapper.deleteByBank(userId, bankId, batchSize);
+        } while (deleted == batchSize);
+    }
+}
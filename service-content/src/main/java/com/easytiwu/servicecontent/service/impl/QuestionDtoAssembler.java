@@ -0,0 +1,71 @@
+package com.easytiwu.servicecontent.service.impl;
+
+import com.easytiwu.servicecontent.dto.QuestionDTO;
+import com.easytiwu.servicecontent.dto.QuestionFields;
+import com.easytiwu.servicecontent.dto.QuestionOptionDTO;
+import com.easytiwu.servicecontent.entity.QuestionJoinRow;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 题目DTO流式组装器
+ * 依赖联表结果已按 (题目ID, 选项标识) 排序，相邻同ID的行归属同一题目，单趟完成组装
+ * 未投影的字段保持为 null，序列化时省略
+ *
+ * @author sheny
+ */
+class QuestionDtoAssembler implements ResultHandler<QuestionJoinRow> {
+
+    private final List<QuestionDTO> result = new ArrayList<>();
+    private final boolean withOptions;
+    private QuestionDTO current;
+
+    QuestionDtoAssembler(QuestionFields fields) {
+        this.withOptions = fields.isOptions();
+    }
+
+    @Override
+    public void handleResult(ResultContext<? extends QuestionJoinRow> context) {
+        QuestionJoinRow row = context.getResultObject();
+        if (current == null || !current.getId().equals(row.getId())) {
+            current = toQuestionDTO(row);
+            result.add(current);
+        }
+        if (row.getOptionLabel() != null) {
+            if (current.getOptions().isEmpty()) {
+                current.setOptions(new ArrayList<>(4));
+            }
+            QuestionOptionDTO od = new QuestionOptionDTO();
+            od.setLabel(row.getOptionLabel());
+            od.setText(row.getOptionText());
+            current.getOptions().add(od);
+        }
+    }
+
+    /**
+     * 获取组装完成的题目列表
+     *
+     * @return 题目DTO列表
+     */
+    List<QuestionDTO> getResult() {
+        return result;
+    }
+
+    private QuestionDTO toQuestionDTO(QuestionJoinRow row) {
+        QuestionDTO dto = new QuestionDTO();
+        dto.setId(row.getId());
+        dto.setContent(row.getContent());
+        dto.setType(row.getType());
+        dto.setUserAnswer(row.getUserAnswer());
+        dto.setCorrectAnswer(row.getCorrectAnswer());
+        dto.setAnalysis(row.getAnalysis());
+        dto.setIsCompleted(row.getIsCompleted());
+        dto.setIsCorrect(row.getIsCorrect());
+        dto.setOptions(withOptions ? Collections.emptyList() : null);
+        return dto;
+    }
+}
@@ -1,16 +1,26 @@
 package com.easytiwu.servicecontent.service.impl;
 
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.easytiwu.commonexception.enums.ErrorCode;
+import com.easytiwu.commonexception.exception.BusinessException;
+import com.easytiwu.servicecontent.cache.HotBankStore;
+import com.easytiwu.servicecontent.cache.QuestionSampler;
 import com.easytiwu.servicecontent.dto.QuestionDTO;
-import com.easytiwu.servicecontent.entity.Question;
+import com.easytiwu.servicecontent.dto.QuestionFields;
+import com.easytiwu.servicecontent.dto.SyncDeltaDTO;
+import com.easytiwu.servicecontent.mapper.QuestionBankMapper;
 import com.easytiwu.servicecontent.mapper.QuestionMapper;
-import com.easytiwu.servicecontent.service.QuestionOptionServiceInterface;
+import com.easytiwu.servicecontent.mapper.QuestionSyncMapper;
+import com.easytiwu.servicecontent.review.ReviewScheduler;
 import com.easytiwu.servicecontent.service.QuestionQueryServiceInterface;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -21,85 +31,173 @@ import java.util.Set;
 @Service
 public class QuestionQueryServiceImpl implements QuestionQueryServiceInterface {
 
+    private static final Set<String> VALID_TYPES = Set.of("single", "multiple", "true_false", "fill_blank", "short_answer");
+    private static final int SYNC_LOAD_CHUNK = 1000;
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
     private final QuestionMapper questionMapper;
-    private final QuestionOptionServiceInterface questionOptionService;
+    private final QuestionBankMapper questionBankMapper;
+    private final QuestionSyncMapper questionSyncMapper;
+    private final QuestionSampler questionSampler;
+    private final ReviewScheduler reviewScheduler;
+    private final HotBankStore hotBankStore;
+
+    /**
+     * 下发的版本号相对数据库当前时间的回退量，覆盖查询时尚未提交的事务；重叠部分会重复下发，客户端按题目ID覆盖即可
+     */
+    @Value("${content.sync.overlap-seconds:60}")
+    private int overlapSeconds;
+
+    @Value("${content.sync.tombstone-retention-days:30}")
+    private int tombstoneRetentionDays;
 
-    public QuestionQueryServiceImpl(QuestionMapper questionMapper, 
-                                  QuestionOptionServiceInterface questionOptionService) {
+    public QuestionQueryServiceImpl(QuestionMapper questionMapper, QuestionBankMapper questionBankMapper,
+                                    QuestionSyncMapper questionSyncMapper, QuestionSampler questionSampler,
+                                    ReviewScheduler reviewScheduler, HotBankStore hotBankStore) {
         this.questionMapper = questionMapper;
-        this.questionOptionService = questionOptionService;
+        this.questionBankMapper = questionBankMapper;
+        this.questionSyncMapper = questionSyncMapper;
+        this.questionSampler = questionSampler;
+        this.reviewScheduler = reviewScheduler;
+        this.hotBankStore = hotBankStore;
     }
 
     @Override
-    public List<QuestionDTO> queryQuestions(Long bankId, String type) {
-        LambdaQueryWrapper<Question> qw = new LambdaQueryWrapper<>();
-        qw.eq(Question::getBankId, bankId);
-        if ("wrong".equalsIgnoreCase(type)) {
-            qw.eq(Question::getIsCompleted, 1).eq(Question::getIsCorrect, 0);
-        }
-
-        List<Question> questions = questionMapper.selectList(qw);
-        if (questions.isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        return buildQuestionDTOs(questions);
+    public List<QuestionDTO> queryQuestions(Long bankId, String type, QuestionFields fields, Long userId) {
+        boolean wrongOnly = "wrong".equalsIgnoreCase(type);
+        return buildQuestionDTOs(bankId, null, wrongOnly, fields, userId);
     }
 
     @Override
-    public List<QuestionDTO> queryQuestionsByType(Long bankId, String questionType) {
+    public List<QuestionDTO> queryQuestionsByType(Long bankId, String questionType, QuestionFields fields,
+                                                  Long userId) {
         if (bankId == null || questionType == null || questionType.trim().isEmpty()) {
             return Collections.emptyList();
         }
         questionType = questionType.trim().toLowerCase();
 
         // 可选：进一步限制合法类型（假设支持的题型如下）
-        Set<String> validTypes = Set.of("single", "multiple", "true_false", "fill_blank", "short_answer");
-        if (!validTypes.contains(questionType)) {
+        if (!VALID_TYPES.contains(questionType)) {
             return Collections.emptyList();
         }
 
-        LambdaQueryWrapper<Question> qw = new LambdaQueryWrapper<>();
-        qw.eq(Question::getBankId, bankId);
-        qw.eq(Question::getType, questionType);
+        return buildQuestionDTOs(bankId, questionType, false, fields, userId);
+    }
 
-        List<Question> questions = questionMapper.selectList(qw);
-        if (questions.isEmpty()) {
-            return Collections.emptyList();
+    @Override
+    public List<QuestionDTO> sampleQuestions(Long bankId, int count, String questionType,
+                                             boolean wrongOnly, boolean weighted, QuestionFields fields,
+                                             Long userId) {
+        if (questionType != null) {
+            questionType = questionType.trim().toLowerCase();
+            if (!VALID_TYPES.contains(questionType)) {
+                return Collections.emptyList();
+            }
+        }
+
+        long[] ids = questionSampler.sample(bankId, count, questionType, wrongOnly, weighted, userId);
+        return loadInOrder(bankId, ids, fields, userId);
+    }
+
+    @Override
+    public List<QuestionDTO> dueQuestions(Long bankId, int limit, QuestionFields fields, Long userId) {
+        long[] ids = reviewScheduler.nextDue(bankId, userId, limit);
+        return loadInOrder(bankId, ids, fields, userId);
+    }
+
+    @Override
+    public SyncDeltaDTO syncDelta(Long bankId, Long sinceVersion, Long userId) {
+        if (questionBankMapper.selectVersion(bankId) == null) {
+            throw new BusinessException(ErrorCode.NOT_FOUND, "题库不存在，ID: " + bankId);
+        }
+        // 先取时钟再查询，查询期间提交的变更落在下次同步的范围内
+        long now = questionSyncMapper.selectNowMillis();
+        SyncDeltaDTO delta = new SyncDeltaDTO();
+        delta.setBankId(bankId);
+        delta.setVersion(now - overlapSeconds * 1000L);
+
+        // 早于删除记录保留期的版本无法还原删除，按全量处理
+        long horizon = now - tombstoneRetentionDays * MILLIS_PER_DAY;
+        if (sinceVersion == null || sinceVersion <= 0 || sinceVersion < horizon) {
+            delta.setFullResync(true);
+            delta.setChanged(buildQuestionDTOs(bankId, null, false, QuestionFields.ALL, userId));
+            delta.setDeleted(Collections.emptyList());
+            return delta;
         }
 
-        return buildQuestionDTOs(questions);
+        List<Long> changedIds = questionSyncMapper.selectChangedIds(sinceVersion, bankId, userId);
+        List<QuestionDTO> changed = new ArrayList<>(changedIds.size());
+        for (int from = 0; from < changedIds.size(); from += SYNC_LOAD_CHUNK) {
+            List<Long> chunk = changedIds.subList(from, Math.min(changedIds.size(), from + SYNC_LOAD_CHUNK));
+            changed.addAll(loadInOrder(bankId, chunk.stream().mapToLong(Long::longValue).toArray(),
+                    QuestionFields.ALL, userId));
+        }
+        // 移出后又移回本题库的题目以当前内容为准
+        Set<Long> present = new HashSet<>(changedIds);
+        List<Long> deleted = new ArrayList<>();
+        for (Long id : questionSyncMapper.selectDeletedIds(sinceVersion, bankId)) {
+            if (!present.contains(id)) {
+                deleted.add(id);
+            }
+        }
+        delta.setFullResync(false);
+        delta.setChanged(changed);
+        delta.setDeleted(deleted);
+        return delta;
+    }
+
+    /**
+     * 按主键取回题目并保持给定顺序，热点题库直接从内存组装
+     *
+     * @param bankId 题库ID
+     * @param ids    题目ID，顺序即返回顺序
+     * @param fields 字段投影
+     * @param userId 用户ID，为空表示共享状态
+     * @return 题目DTO列表，已删除的题目被跳过
+     */
+    private List<QuestionDTO> loadInOrder(Long bankId, long[] ids, QuestionFields fields, Long userId) {
+        if (ids.length == 0) {
+            return Collections.emptyList();
+        }
+        List<QuestionDTO> cached = hotBankStore.byIds(bankId, ids, fields, userId);
+        if (cached != null) {
+            return cached;
+        }
+        QuestionDtoAssembler assembler = new QuestionDtoAssembler(fields);
+        questionMapper.streamByIdsWithOptions(ids, fields, userId, assembler);
+        Map<Long, QuestionDTO> byId = new HashMap<>(ids.length * 2);
+        for (QuestionDTO dto : assembler.getResult()) {
+            byId.put(dto.getId(), dto);
+        }
+        List<QuestionDTO> ordered = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            QuestionDTO dto = byId.get(id);
+            if (dto != null) {
+                ordered.add(dto);
+            }
+        }
+        return ordered;
     }
 
     /**
      * 构建题目DTO列表
+     * 热点题库直接从内存组装；否则题目与选项一次联表查出，按序流式组装
      *
-     * @param questions 题目实体列表
+     * @param bankId       题库ID
+     * @param questionType 题型过滤，为空表示不过滤
+     * @param wrongOnly    是否仅查询错题
+     * @param fields       字段投影
+     * @param userId       用户ID，为空表示共享状态
      * @return 题目DTO列表
      */
-    private List<QuestionDTO> buildQuestionDTOs(List<Question> questions) {
-        List<Long> qids = questions.stream().map(Question::getId).toList();
-        // 获取选项映射
-        var optionMap = questionOptionService.getOptionsMap(qids);
-
-        // 转换为DTO
-        List<QuestionDTO> dtos = new ArrayList<>(questions.size());
-        for (Question q : questions) {
-            QuestionDTO dto = new QuestionDTO();
-            dto.setId(q.getId());
-            dto.setContent(q.getContent());
-            dto.setType(q.getType());
-            dto.setUserAnswer(q.getUserAnswer());
-            dto.setCorrectAnswer(q.getCorrectAnswer());
-            dto.setAnalysis(q.getAnalysis());
-            dto.setIsCompleted(q.getIsCompleted());
-            dto.setIsCorrect(q.getIsCorrect());
-
-            // 选项转换
-            var options = optionMap.getOrDefault(q.getId(), Collections.emptyList());
-            dto.setOptions(questionOptionService.convertToDTO(options));
-            dtos.add(dto);
+    private List<QuestionDTO> buildQuestionDTOs(Long bankId, String questionType, boolean wrongOnly,
+                                                QuestionFields fields, Long userId) {
+        List<QuestionDTO> cached = hotBankStore.list(bankId, questionType, wrongOnly, fields, userId);
+        if (cached != null) {
+            return cached;
         }
-        return dtos;
+        QuestionDtoAssembler assembler = new QuestionDtoAssembler(fields);
+        questionMapper.streamWithOptions(bankId, questionType, wrongOnly, fields, userId, assembler);
+        return assembler.getResult();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,281 @@
+package com.easytiwu.servicecontent.service.impl;
+
+import com.easytiwu.commonexception.enums.ErrorCode;
+import com.easytiwu.commonexception.exception.BusinessException;
+import com.easytiwu.servicecontent.dto.QuestionSearchHitDTO;
+import com.easytiwu.servicecontent.entity.Question;
+import com.easytiwu.servicecontent.mapper.QuestionBankMapper;
+import com.easytiwu.servicecontent.mapper.QuestionMapper;
+import com.easytiwu.servicecontent.mapper.QuestionSyncMapper;
+import com.easytiwu.servicecontent.search.NgramIndex;
+import com.easytiwu.servicecontent.service.QuestionSearchServiceInterface;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 题目全文检索服务实现
+ * 索引常驻内存，由后台线程按 updated_at 与删除记录增量应用新增、编辑、移动和删除的题目，
+ * 并根据题库存在性剔除已删除题库的题目；每次增量回看一段重叠窗口以覆盖晚提交的事务，另定期完整重建兜底
+ *
+ * @author sheny
+ */
+@Slf4j
+@Service
+public class QuestionSearchServiceImpl implements QuestionSearchServiceInterface {
+
+    private final QuestionMapper questionMapper;
+    private final QuestionBankMapper questionBankMapper;
+    private final QuestionSyncMapper questionSyncMapper;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile NgramIndex index = new NgramIndex();
+    private long[] liveBankIds = new long[0];
+    /**
+     * 上次增量或重建开始时的数据库时钟（毫秒），0 表示尚未构建
+     */
+    private long syncedAtMillis;
+    private long lastRebuildMillis;
+    private ScheduledExecutorService refresher;
+
+    @Value("${content.search.enabled:true}")
+    private boolean enabled;
+
+    @Value("${content.search.refresh-interval-ms:5000}")
+    private long refreshIntervalMs;
+
+    @Value("${content.search.batch-size:2000}")
+    private int batchSize;
+
+    @Value("${content.search.rebuild-deleted-ratio:0.3}")
+    private double rebuildDeletedRatio;
+
+    @Value("${content.search.overlap-ms:60000}")
+    private long overlapMs;
+
+    @Value("${content.search.full-rebuild-interval-ms:3600000}")
+    private long fullRebuildIntervalMs;
+
+    public QuestionSearchServiceImpl(QuestionMapper questionMapper, QuestionBankMapper questionBankMapper,
+                                     QuestionSyncMapper questionSyncMapper) {
+        this.questionMapper = questionMapper;
+        this.questionBankMapper = questionBankMapper;
+        this.questionSyncMapper = questionSyncMapper;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "question-search-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+        refresher.scheduleWithFixedDelay(this::refresh, 0, refreshIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    @Override
+    public List<QuestionSearchHitDTO> search(String keyword, Long bankId, int limit) {
+        if (!enabled) {
+            throw new BusinessException(ErrorCode.BUSINESS_ERROR, "题目检索未启用");
+        }
+
+        List<NgramIndex.Hit> hits;
+        lock.readLock().lock();
+        try {
+            hits = index.search(keyword, bankId, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (hits.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Long> ids = new ArrayList<>(hits.size());
+        for (NgramIndex.Hit hit : hits) {
+            ids.add(hit.questionId());
+        }
+        Map<Long, Question> rows = new HashMap<>(ids.size() * 2);
+        for (Question q : questionMapper.selectWithContent(ids)) {
+            rows.put(q.getId(), q);
+        }
+
+        // 索引尚未感知到删除的题目在回表时自然被过滤
+        List<QuestionSearchHitDTO> result = new ArrayList<>(hits.size());
+        for (NgramIndex.Hit hit : hits) {
+            Question q = rows.get(hit.questionId());
+            if (q == null) {
+                continue;
+            }
+            QuestionSearchHitDTO dto = new QuestionSearchHitDTO();
+            dto.setId(q.getId());
+            dto.setBankId(q.getBankId());
+            dto.setType(q.getType());
+            dto.setContent(q.getContent());
+            dto.setScore(hit.score());
+            result.add(dto);
+        }
+        return result;
+    }
+
+    /**
+     * 刷新：首次或到期时完整重建，否则应用增量变更；剔除已删除题库，删除占比过高时重建
+     */
+    private void refresh() {
+        try {
+            if (syncedAtMillis == 0 || System.currentTimeMillis() - lastRebuildMillis >= fullRebuildIntervalMs) {
+                rebuild();
+                applyDeletedBanks();
+                return;
+            }
+            int applied = applyChanges();
+            applyDeletedBanks();
+            if (index.deletedRatio() > rebuildDeletedRatio) {
+                rebuild();
+            } else if (applied > 0) {
+                log.info("检索索引应用 {} 道题目的变更，当前文档 {}，词项 {}",
+                        applied, index.liveDocCount(), index.termCount());
+            }
+        } catch (Exception e) {
+            log.error("刷新题目检索索引失败", e);
+        }
+    }
+
+    /**
+     * 应用上次刷新以来（含重叠窗口）的删除与新增、编辑、移动；已按当前内容索引的题目跳过，重复应用无副作用
+     *
+     * @return 删除与重新索引的题目数
+     */
+    private int applyChanges() {
+        long now = questionSyncMapper.selectNowMillis();
+        long since = syncedAtMillis - overlapMs;
+        int applied = 0;
+
+        List<Question> tombstones = questionSyncMapper.selectDeletedSince(since);
+        if (!tombstones.isEmpty()) {
+            lock.writeLock().lock();
+            try {
+                for (Question t : tombstones) {
+                    index.delete(t.getId(), t.getBankId());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            applied += tombstones.size();
+        }
+
+        long afterId = 0;
+        while (true) {
+            List<Question> page = questionSyncMapper.selectChangedSince(since, afterId, batchSize);
+            if (page.isEmpty()) {
+                break;
+            }
+            // 只有刷新线程写索引，这里读取无需加锁；作答只改 updated_at，内容与归属未变的题目跳过
+            List<Long> stale = new ArrayList<>();
+            for (Question q : page) {
+                if (!index.isCurrent(q.getId(), q.getBankId(), q.getContentId())) {
+                    stale.add(q.getId());
+                }
+            }
+            if (!stale.isEmpty()) {
+                List<Question> rows = questionMapper.selectWithContent(stale);
+                lock.writeLock().lock();
+                try {
+                    for (Question q : rows) {
+                        index.add(q.getId(), q.getBankId(), q.getContentId(), q.getContent());
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                applied += rows.size();
+            }
+            afterId = page.get(page.size() - 1).getId();
+            if (page.size() < batchSize) {
+                break;
+            }
+        }
+        syncedAtMillis = now;
+        return applied;
+    }
+
+    /**
+     * 按主键分页把未删除题库的全部题目追加到新索引
+     *
+     * @param target 目标索引，尚未发布
+     */
+    private void fill(NgramIndex target) {
+        long afterId = 0;
+        while (true) {
+            List<Question> page = questionMapper.selectContentAfter(afterId, batchSize);
+            for (Question q : page) {
+                target.add(q.getId(), q.getBankId(), q.getContentId(), q.getContent());
+            }
+            if (page.size() < batchSize) {
+                return;
+            }
+            afterId = page.get(page.size() - 1).getId();
+        }
+    }
+
+    /**
+     * 对比题库ID集合，将消失题库下的文档标记删除
+     */
+    private void applyDeletedBanks() {
+        long[] current = questionBankMapper.selectAllIds().stream().mapToLong(Long::longValue).toArray();
+        long[] removed = Arrays.stream(liveBankIds)
+                .filter(id -> Arrays.binarySearch(current, id) < 0)
+                .toArray();
+        liveBankIds = current;
+        if (removed.length == 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            index.deleteBanks(removed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("检索索引剔除已删除题库 {} 个", removed.length);
+    }
+
+    /**
+     * 在后台完整重建索引后替换，重建期间旧索引继续服务
+     * 先取数据库时钟，重建期间提交的变更由下一次增量补上
+     */
+    private void rebuild() {
+        long now = questionSyncMapper.selectNowMillis();
+        NgramIndex fresh = new NgramIndex();
+        fill(fresh);
+        lock.writeLock().lock();
+        try {
+            index = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        syncedAtMillis = now;
+        lastRebuildMillis = System.currentTimeMillis();
+        log.info("检索索引重建完成，文档 {}，词项 {}", fresh.docCount(), fresh.termCount());
+    }
+}
@@ -0,0 +1,326 @@
+package com.easytiwu.servicecontent.service.impl;
+
+import com.easytiwu.commonexception.enums.ErrorCode;
+import com.easytiwu.commonexception.exception.BusinessException;
+import com.easytiwu.servicecontent.cache.AnswerKeyIndex;
+import com.easytiwu.servicecontent.controller.ContentController;
+import com.easytiwu.servicecontent.dto.QuestionDTO;
+import com.easytiwu.servicecontent.dto.QuestionFields;
+import com.easytiwu.servicecontent.dto.QuizSessionDTO;
+import com.easytiwu.servicecontent.dto.QuizSessionStatusDTO;
+import com.easytiwu.servicecontent.service.AnswerVerificationServiceInterface;
+import com.easytiwu.servicecontent.service.QuestionQueryServiceInterface;
+import com.easytiwu.servicecontent.service.QuizSessionServiceInterface;
+import com.easytiwu.servicecontent.session.HashedTimingWheel;
+import com.easytiwu.servicecontent.session.QuizSession;
+import com.easytiwu.servicecontent.session.QuizSessionSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 限时考试会话服务实现
+ * 会话保存在内存中，到期自动交卷由哈希时间轮驱动，时间轮线程只负责把到期会话分发给交卷线程；
+ * 会话总内存按估算值限制在上限内，超出时拒绝开考；服务停止时作答中的会话写入磁盘快照，启动时恢复
+ *
+ * @author sheny
+ */
+@Slf4j
+@Service
+public class QuizSessionServiceImpl implements QuizSessionServiceInterface {
+
+    /**
+     * 交卷写入失败后自动重试的间隔
+     */
+    private static final long RETRY_DELAY_MS = 5000;
+
+    private static final QuestionFields SESSION_FIELDS = QuestionFields.parse("content,options", true);
+
+    private final QuestionQueryServiceInterface questionQueryService;
+    private final AnswerVerificationServiceInterface answerVerificationService;
+    private final AnswerKeyIndex answerKeyIndex;
+    private final ObjectMapper objectMapper;
+    private final Map<String, QuizSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong usedBytes = new AtomicLong();
+    private HashedTimingWheel wheel;
+    private ExecutorService submitExecutor;
+
+    @Value("${content.quiz-session.memory-ceiling-mb:64}")
+    private long memoryCeilingMb;
+
+    @Value("${content.quiz-session.tick-ms:100}")
+    private long tickMs;
+
+    @Value("${content.quiz-session.wheel-size:512}")
+    private int wheelSize;
+
+    @Value("${content.quiz-session.submit-threads:2}")
+    private int submitThreads;
+
+    @Value("${content.quiz-session.result-retention-seconds:600}")
+    private long resultRetentionSeconds;
+
+    @Value("${content.quiz-session.snapshot-path:data/quiz-sessions.json}")
+    private String snapshotPath;
+
+    public QuizSessionServiceImpl(QuestionQueryServiceInterface questionQueryService,
+                                  AnswerVerificationServiceInterface answerVerificationService,
+                                  AnswerKeyIndex answerKeyIndex, ObjectMapper objectMapper) {
+        this.questionQueryService = questionQueryService;
+        this.answerVerificationService = answerVerificationService;
+        this.answerKeyIndex = answerKeyIndex;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void init() {
+        wheel = new HashedTimingWheel("quiz-session-wheel", tickMs, wheelSize);
+        AtomicInteger seq = new AtomicInteger();
+        submitExecutor = Executors.newFixedThreadPool(submitThreads, r -> {
+            Thread t = new Thread(r, "quiz-session-submit-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        restore();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.stop();
+        submitExecutor.shutdown();
+        try {
+            if (!submitExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("交卷线程未能在停止前完成，未完成的会话按作答中保存");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        saveSnapshot();
+    }
+
+    @Override
+    public QuizSessionDTO start(Long bankId, int count, String questionType, int durationSeconds, Long userId) {
+        List<QuestionDTO> questions = questionQueryService.sampleQuestions(bankId, count, questionType, false, false,
+                SESSION_FIELDS, userId);
+        if (questions.isEmpty()) {
+            throw new BusinessException(ErrorCode.BUSINESS_ERROR, "题库中没有可用于考试的题目");
+        }
+        long[] ids = questions.stream().mapToLong(QuestionDTO::getId).toArray();
+        long now = System.currentTimeMillis();
+        QuizSession session = new QuizSession(UUID.randomUUID().toString(), userId, bankId, ids,
+                answerKeyIndex.prefetch(bankId, ids), now, now + durationSeconds * 1000L);
+        register(session);
+
+        QuizSessionDTO dto = new QuizSessionDTO();
+        dto.setSessionId(session.getId());
+        dto.setBankId(bankId);
+        dto.setStartedAt(session.getStartedAt());
+        dto.setDeadline(session.getDeadline());
+        dto.setQuestions(questions);
+        return dto;
+    }
+
+    @Override
+    public QuizSessionStatusDTO answer(String sessionId, List<ContentController.AnswerVerificationRequest> answers,
+                                       Long userId) {
+        QuizSession session = find(sessionId, userId);
+        long now = System.currentTimeMillis();
+        for (ContentController.AnswerVerificationRequest item : answers) {
+            session.answer(item.getQuestionId(), item.getUserAnswer(), now);
+        }
+        return session.status(now);
+    }
+
+    @Override
+    public QuizSessionStatusDTO submit(String sessionId, Long userId) {
+        QuizSession session = find(sessionId, userId);
+        try {
+            finish(session, QuizSession.Status.SUBMITTED);
+        } catch (RuntimeException e) {
+            // 交卷期间到期的自动交卷已被跳过，需重新安排
+            if (System.currentTimeMillis() >= session.getDeadline()) {
+                scheduleExpiry(session, RETRY_DELAY_MS);
+            }
+            throw e;
+        }
+        HashedTimingWheel.Timeout timeout = session.getTimeout();
+        if (timeout != null) {
+            timeout.cancel();
+        }
+        return session.status(System.currentTimeMillis());
+    }
+
+    @Override
+    public QuizSessionStatusDTO status(String sessionId, Long userId) {
+        return find(sessionId, userId).status(System.currentTimeMillis());
+    }
+
+    /**
+     * 登记会话并安排到期自动交卷，超出内存上限时拒绝
+     */
+    private void register(QuizSession session) {
+        long ceiling = memoryCeilingMb * 1024 * 1024;
+        if (usedBytes.addAndGet(session.getEstimatedBytes()) > ceiling) {
+            usedBytes.addAndGet(-session.getEstimatedBytes());
+            throw new BusinessException(ErrorCode.BUSINESS_ERROR, "当前进行中的考试过多，请稍后再试");
+        }
+        sessions.put(session.getId(), session);
+        scheduleExpiry(session, session.getDeadline() - System.currentTimeMillis());
+    }
+
+    private void scheduleExpiry(QuizSession session, long delayMs) {
+        session.setTimeout(wheel.schedule(() -> dispatchExpiry(session), delayMs));
+    }
+
+    /**
+     * 时间轮线程上只做分发，判题写库在交卷线程执行
+     */
+    private void dispatchExpiry(QuizSession session) {
+        try {
+            submitExecutor.execute(() -> {
+                try {
+                    finish(session, QuizSession.Status.EXPIRED);
+                } catch (Exception e) {
+                    log.error("考试到期自动交卷失败，稍后重试，sessionId: {}", session.getId(), e);
+                    scheduleExpiry(session, RETRY_DELAY_MS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 服务正在停止，会话保持作答中并写入快照
+            log.debug("服务停止中，跳过自动交卷，sessionId: {}", session.getId());
+        }
+    }
+
+    /**
+     * 交卷：按开考时预取的答案键判题并一次写入，结果保留一段时间供查询后移除
+     */
+    private void finish(QuizSession session, QuizSession.Status target) {
+        List<ContentController.AnswerVerificationRequest> sheet = session.beginSubmit(target);
+        if (sheet == null) {
+            return;
+        }
+        ContentController.BatchAnswerVerificationResponse result;
+        try {
+            result = sheet.isEmpty()
+                    ? emptyResult()
+                    : answerVerificationService.verifyAnswers(sheet, session.getKeys(), session.getUserId());
+        } catch (RuntimeException e) {
+            session.abortSubmit();
+            throw e;
+        }
+        session.completeSubmit(result);
+        wheel.schedule(() -> remove(session), resultRetentionSeconds * 1000);
+        log.info("考试交卷完成，sessionId: {}, 状态: {}, 作答题数: {}", session.getId(), target, sheet.size());
+    }
+
+    private void remove(QuizSession session) {
+        if (sessions.remove(session.getId(), session)) {
+            usedBytes.addAndGet(-session.getEstimatedBytes());
+        }
+    }
+
+    private QuizSession find(String sessionId, Long userId) {
+        QuizSession session = sessionId == null ? null : sessions.get(sessionId);
+        if (session == null || !Objects.equals(session.getUserId(), userId)) {
+            throw new BusinessException(ErrorCode.NOT_FOUND, "考试会话不存在或已过期");
+        }
+        return session;
+    }
+
+    private static ContentController.BatchAnswerVerificationResponse emptyResult() {
+        ContentController.BatchAnswerVerificationResponse response =
+                new ContentController.BatchAnswerVerificationResponse();
+        response.setResults(Collections.emptyList());
+        response.setTotal(0);
+        response.setCorrectCount(0);
+        response.setWrongCount(0);
+        response.setAccuracy(0.0);
+        return response;
+    }
+
+    /**
+     * 将作答中的会话写入磁盘快照
+     */
+    private void saveSnapshot() {
+        List<QuizSessionSnapshot> snapshots = new ArrayList<>();
+        for (QuizSession session : sessions.values()) {
+            QuizSessionSnapshot snapshot = session.snapshot();
+            if (snapshot != null) {
+                snapshots.add(snapshot);
+            }
+        }
+        if (snapshots.isEmpty()) {
+            return;
+        }
+        Path path = Paths.get(snapshotPath);
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            objectMapper.writeValue(tmp.toFile(), snapshots);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+            log.info("已保存 {} 个进行中的考试会话快照: {}", snapshots.size(), path.toAbsolutePath());
+        } catch (IOException e) {
+            log.error("保存考试会话快照失败，进行中的考试将丢失", e);
+        }
+    }
+
+    /**
+     * 从磁盘快照恢复会话；已过截止时间的会话立即自动交卷
+     */
+    private void restore() {
+        Path path = Paths.get(snapshotPath);
+        if (!Files.exists(path)) {
+            return;
+        }
+        try {
+            QuizSessionSnapshot[] snapshots = objectMapper.readValue(path.toFile(), QuizSessionSnapshot[].class);
+            int restored = 0;
+            for (QuizSessionSnapshot snapshot : snapshots) {
+                try {
+                    QuizSession session = QuizSession.restore(snapshot,
+                            answerKeyIndex.prefetch(snapshot.bankId(), snapshot.questionIds()));
+                    usedBytes.addAndGet(session.getEstimatedBytes());
+                    sessions.put(session.getId(), session);
+                    scheduleExpiry(session, session.getDeadline() - System.currentTimeMillis());
+                    restored++;
+                } catch (Exception e) {
+                    log.warn("恢复考试会话失败，sessionId: {}, 题目: {}", snapshot.id(),
+                            Arrays.toString(snapshot.questionIds()), e);
+                }
+            }
+            log.info("已从快照恢复 {} 个考试会话", restored);
+        } catch (IOException e) {
+            log.error("读取考试会话快照失败: {}", path.toAbsolutePath(), e);
+        }
+        try {
+            Files.delete(path);
+        } catch (IOException e) {
+            log.warn("删除考试会话快照失败: {}", path.toAbsolutePath(), e);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.easytiwu.servicecontent.session;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 哈希时间轮
+ * 到期时间按 tick 取模落入环形槽位，超过一圈的记录剩余圈数；每个 tick 只处理当前槽位，
+ * 与定时任务总数无关。新增与取消先进入无锁队列，由工作线程在下个 tick 统一处理，调用方不加锁
+ * 到期回调在工作线程上执行，应只做轻量的分发
+ *
+ * @author sheny
+ */
+@Slf4j
+public final class HashedTimingWheel {
+
+    private static final int STATE_PENDING = 0;
+    private static final int STATE_CANCELLED = 1;
+    private static final int STATE_EXPIRED = 2;
+
+    /**
+     * 每个 tick 最多转入的新定时任务数，避免突发大量新增拖慢 tick
+     */
+    private static final int MAX_TRANSFER_PER_TICK = 100_000;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final Thread worker;
+    private final long startNanos;
+    private long tick;
+
+    /**
+     * @param name       工作线程名
+     * @param tickMs     tick 间隔（毫秒），即到期精度
+     * @param wheelSize  槽位数，向上取整为 2 的幂
+     */
+    public HashedTimingWheel(String name, long tickMs, int wheelSize) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMs));
+        int size = Integer.highestOneBit(Math.max(2, wheelSize) - 1) << 1;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * 添加定时任务
+     *
+     * @param task    到期回调
+     * @param delayMs 延迟（毫秒）
+     * @return 可取消的句柄
+     */
+    public Timeout schedule(Runnable task, long delayMs) {
+        Timeout timeout = new Timeout(this, task,
+                System.nanoTime() - startNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMs)));
+        pending.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * 停止工作线程，未到期的任务不再执行
+     */
+    public void stop() {
+        worker.interrupt();
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            long sleepNanos = (tick + 1) * tickNanos - (System.nanoTime() - startNanos);
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            removeCancelled();
+            transferPending();
+            wheel[(int) (tick & mask)].expire();
+            tick++;
+        }
+    }
+
+    private void transferPending() {
+        for (int i = 0; i < MAX_TRANSFER_PER_TICK; i++) {
+            Timeout timeout = pending.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state.get() != STATE_PENDING) {
+                continue;
+            }
+            long calculated = timeout.deadlineNanos / tickNanos;
+            timeout.remainingRounds = (calculated - tick) / wheel.length;
+            // 已经过期的任务放入当前槽位，本 tick 立即执行
+            long ticks = Math.max(calculated, tick);
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    /**
+     * 定时任务句柄
+     */
+    public static final class Timeout {
+
+        private final HashedTimingWheel owner;
+        private final Runnable task;
+        private final long deadlineNanos;
+        private final AtomicInteger state = new AtomicInteger(STATE_PENDING);
+        private long remainingRounds;
+        private Timeout prev;
+        private Timeout next;
+        private Bucket bucket;
+
+        private Timeout(HashedTimingWheel owner, Runnable task, long deadlineNanos) {
+            this.owner = owner;
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * 取消任务
+         *
+         * @return 是否成功取消；已执行或已取消时返回 false
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(STATE_PENDING, STATE_CANCELLED)) {
+                return false;
+            }
+            owner.cancelled.add(this);
+            return true;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(STATE_PENDING, STATE_EXPIRED)) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Exception e) {
+                log.error("时间轮任务执行失败", e);
+            }
+        }
+    }
+
+    /**
+     * 槽位：双向链表，仅由工作线程访问
+     */
+    private static final class Bucket {
+
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        /**
+         * 执行本圈到期的任务，其余任务圈数减一；槽位在 tick 结束时刻处理，此时本圈任务均已到期
+         */
+        void expire() {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    timeout.expire();
+                } else if (timeout.state.get() == STATE_CANCELLED) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            Timeout next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (next != null) {
+                next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.easytiwu.servicecontent.session;
+
+import com.easytiwu.commonexception.enums.ErrorCode;
+import com.easytiwu.commonexception.exception.BusinessException;
+import com.easytiwu.servicecontent.cache.PrefetchedAnswerKeys;
+import com.easytiwu.servicecontent.controller.ContentController;
+import com.easytiwu.servicecontent.dto.QuizSessionStatusDTO;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 考试会话
+ * 持有打乱后的出题顺序与开考时预取的答案键，逐题接收作答，交卷或到期时一次判题写入
+ * 状态变更均在会话对象上同步，作答、交卷与到期自动交卷互斥
+ *
+ * @author sheny
+ */
+public class QuizSession {
+
+    public enum Status {
+        ACTIVE, SUBMITTING, SUBMITTED, EXPIRED
+    }
+
+    @Getter
+    private final String id;
+    @Getter
+    private final Long userId;
+    @Getter
+    private final long bankId;
+    @Getter
+    private final long startedAt;
+    @Getter
+    private final long deadline;
+    @Getter
+    private final long estimatedBytes;
+
+    private final long[] questionIds;
+    private final long[] sortedIds;
+    private final int[] sortedPositions;
+    private final String[] answers;
+    private final int[] latencies;
+    private PrefetchedAnswerKeys keys;
+    private long lastAnswerAt;
+    private int answered;
+    private Status status = Status.ACTIVE;
+    private Status finalStatus;
+    private ContentController.BatchAnswerVerificationResponse result;
+    private volatile HashedTimingWheel.Timeout timeout;
+
+    public QuizSession(String id, Long userId, long bankId, long[] questionIds, PrefetchedAnswerKeys keys,
+                       long startedAt, long deadline) {
+        this(id, userId, bankId, questionIds, keys, startedAt, deadline, new String[questionIds.length],
+                new int[questionIds.length], startedAt);
+    }
+
+    private QuizSession(String id, Long userId, long bankId, long[] questionIds, PrefetchedAnswerKeys keys,
+                        long startedAt, long deadline, String[] answers, int[] latencies, long lastAnswerAt) {
+        this.id = id;
+        this.userId = userId;
+        this.bankId = bankId;
+        this.questionIds = questionIds;
+        this.keys = keys;
+        this.startedAt = startedAt;
+        this.deadline = deadline;
+        this.answers = answers;
+        this.latencies = latencies;
+        this.lastAnswerAt = lastAnswerAt;
+        for (String answer : answers) {
+            if (answer != null) {
+                answered++;
+            }
+        }
+
+        // 按题目ID排序的下标，作答时二分定位出题位置
+        int n = questionIds.length;
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(questionIds[a], questionIds[b]));
+        this.sortedIds = new long[n];
+        this.sortedPositions = new int[n];
+        for (int i = 0; i < n; i++) {
+            sortedIds[i] = questionIds[order[i]];
+            sortedPositions[i] = order[i];
+        }
+        // 作答文本按每题 64 字符预留
+        this.estimatedBytes = 256L + n * (8L * 3 + 4 + 64 * 2) + keys.estimatedBytes();
+    }
+
+    /**
+     * 由快照恢复
+     *
+     * @param snapshot 快照
+     * @param keys     重新预取的答案键
+     * @return 会话
+     */
+    public static QuizSession restore(QuizSessionSnapshot snapshot, PrefetchedAnswerKeys keys) {
+        return new QuizSession(snapshot.id(), snapshot.userId(), snapshot.bankId(), snapshot.questionIds(), keys,
+                snapshot.startedAt(), snapshot.deadline(), snapshot.answers(), snapshot.latencies(),
+                snapshot.lastAnswerAt());
+    }
+
+    /**
+     * 记录作答，同一题目重复作答以最后一次为准
+     *
+     * @param questionId 题目ID
+     * @param userAnswer 用户答案
+     * @param now        当前时间（毫秒时间戳）
+     */
+    public synchronized void answer(long questionId, String userAnswer, long now) {
+        if (status != Status.ACTIVE || now >= deadline) {
+            throw new BusinessException(ErrorCode.BUSINESS_ERROR, "考试已结束，无法继续作答");
+        }
+        int k = Arrays.binarySearch(sortedIds, questionId);
+        if (k < 0) {
+            throw new BusinessException(ErrorCode.PARAM_INVALID, "题目不属于本场考试，ID: " + questionId);
+        }
+        int position = sortedPositions[k];
+        if (answers[position] == null) {
+            answered++;
+        }
+        answers[position] = userAnswer;
+        // 作答耗时取与上一次作答的间隔
+        latencies[position] = (int) Math.min(Integer.MAX_VALUE, now - lastAnswerAt);
+        lastAnswerAt = now;
+    }
+
+    /**
+     * 进入交卷流程
+     *
+     * @param target 交卷后的状态（SUBMITTED 或 EXPIRED）
+     * @return 按出题顺序的答卷；会话已在交卷或已结束时返回 null
+     */
+    public synchronized List<ContentController.AnswerVerificationRequest> beginSubmit(Status target) {
+        if (status != Status.ACTIVE) {
+            return null;
+        }
+        status = Status.SUBMITTING;
+        finalStatus = target;
+        List<ContentController.AnswerVerificationRequest> sheet = new ArrayList<>(answered);
+        for (int i = 0; i < questionIds.length; i++) {
+            if (answers[i] != null) {
+                ContentController.AnswerVerificationRequest item = new ContentController.AnswerVerificationRequest();
+                item.setQuestionId(questionIds[i]);
+                item.setUserAnswer(answers[i]);
+                item.setLatencyMs(latencies[i]);
+                sheet.add(item);
+            }
+        }
+        return sheet;
+    }
+
+    /**
+     * 交卷完成，释放答案键
+     *
+     * @param result 判题结果
+     */
+    public synchronized void completeSubmit(ContentController.BatchAnswerVerificationResponse result) {
+        this.result = result;
+        this.status = finalStatus;
+        this.keys = null;
+    }
+
+    /**
+     * 交卷写入失败，恢复为作答中，答卷保留以便重试
+     */
+    public synchronized void abortSubmit() {
+        if (status == Status.SUBMITTING) {
+            status = Status.ACTIVE;
+        }
+    }
+
+    public synchronized PrefetchedAnswerKeys getKeys() {
+        return keys;
+    }
+
+    public synchronized boolean isActive() {
+        return status == Status.ACTIVE;
+    }
+
+    public HashedTimingWheel.Timeout getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(HashedTimingWheel.Timeout timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * 当前进度与结果
+     *
+     * @param now 当前时间（毫秒时间戳）
+     * @return 会话状态
+     */
+    public synchronized QuizSessionStatusDTO status(long now) {
+        QuizSessionStatusDTO dto = new QuizSessionStatusDTO();
+        dto.setSessionId(id);
+        dto.setBankId(bankId);
+        dto.setStatus(status.name());
+        dto.setTotal(questionIds.length);
+        dto.setAnswered(answered);
+        dto.setDeadline(deadline);
+        dto.setRemainingMs(status == Status.ACTIVE ? Math.max(0, deadline - now) : 0L);
+        dto.setResult(result);
+        return dto;
+    }
+
+    /**
+     * 生成快照，仅作答中的会话需要保存
+     *
+     * @return 快照，会话已结束时返回 null
+     */
+    public synchronized QuizSessionSnapshot snapshot() {
+        if (status != Status.ACTIVE) {
+            return null;
+        }
+        return new QuizSessionSnapshot(id, userId, bankId, questionIds.clone(), answers.clone(), latencies.clone(),
+                startedAt, deadline, lastAnswerAt);
+    }
+}
@@ -0,0 +1,19 @@
+package com.easytiwu.servicecontent.session;
+
+/**
+ * 考试会话快照，服务停止时写入磁盘，启动时恢复；答案键不落盘，恢复时重新预取
+ *
+ * @param id          会话ID
+ * @param userId      用户ID，可为空
+ * @param bankId      题库ID
+ * @param questionIds 出题顺序
+ * @param answers     按出题顺序的作答，未作答为 null
+ * @param latencies   按出题顺序的作答耗时（毫秒）
+ * @param startedAt   开始时间（毫秒时间戳）
+ * @param deadline    截止时间（毫秒时间戳）
+ * @param lastAnswerAt 最近一次作答时间（毫秒时间戳）
+ * @author sheny
+ */
+public record QuizSessionSnapshot(String id, Long userId, long bankId, long[] questionIds, String[] answers,
+                                  int[] latencies, long startedAt, long deadline, long lastAnswerAt) {
+}
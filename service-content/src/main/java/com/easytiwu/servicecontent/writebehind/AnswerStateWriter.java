@@ -0,0 +1,202 @@
+package com.easytiwu.servicecontent.writebehind;
+
+import com.easytiwu.servicecontent.cache.AnswerKeyIndex;
+import com.easytiwu.servicecontent.cache.HotBankStore;
+import com.easytiwu.servicecontent.entity.Question;
+import com.easytiwu.servicecontent.mapper.BankCounterMapper;
+import com.easytiwu.servicecontent.mapper.QuestionMapper;
+import com.easytiwu.servicecontent.mapper.UserAnswerStateMapper;
+import com.easytiwu.servicecontent.review.ReviewScheduler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 答题状态批量写入
+ * 共享状态用一条多行 UPDATE 写入，触发器的逐行题库计数被跳过，改为与触发器一样按题目ID取模选分片，每个分片只累加一次；
+ * 用户状态用一条多行 upsert 写入 user_answer_states，不影响题库计数与题库版本号，只递增该用户在题库下的版本号
+ *
+ * @author sheny
+ */
+@Slf4j
+@Service
+public class AnswerStateWriter {
+
+    private static final Comparator<PendingAnswer> USER_BANK_ORDER =
+            Comparator.comparing(PendingAnswer::getUserId).thenComparing(PendingAnswer::getBankId);
+
+    private final QuestionMapper questionMapper;
+    private final BankCounterMapper bankCounterMapper;
+    private final UserAnswerStateMapper userAnswerStateMapper;
+    private final ReviewScheduler reviewScheduler;
+    private final HotBankStore hotBankStore;
+    private final AnswerKeyIndex answerKeyIndex;
+
+    public AnswerStateWriter(QuestionMapper questionMapper, BankCounterMapper bankCounterMapper,
+                             UserAnswerStateMapper userAnswerStateMapper, ReviewScheduler reviewScheduler,
+                             HotBankStore hotBankStore, AnswerKeyIndex answerKeyIndex) {
+        this.questionMapper = questionMapper;
+        this.bankCounterMapper = bankCounterMapper;
+        this.userAnswerStateMapper = userAnswerStateMapper;
+        this.reviewScheduler = reviewScheduler;
+        this.hotBankStore = hotBankStore;
+        this.answerKeyIndex = answerKeyIndex;
+    }
+
+    /**
+     * 在一个事务中写入一批答题状态并更新复习计划（调用方保证同一用户的同一题目只出现一次）
+     *
+     * @param answers 答题状态
+     * @return 实际存在并被写入的题目ID
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public List<Long> write(List<PendingAnswer> answers) {
+        List<PendingAnswer> shared = new ArrayList<>();
+        List<PendingAnswer> perUser = new ArrayList<>();
+        for (PendingAnswer a : answers) {
+            (a.getUserId() == null ? shared : perUser).add(a);
+        }
+        List<Long> written = writeShared(shared);
+        if (!perUser.isEmpty()) {
+            List<Long> userWritten = writePerUser(perUser);
+            if (written.isEmpty()) {
+                return userWritten;
+            }
+            written = new ArrayList<>(written);
+            written.addAll(userWritten);
+        }
+        return written;
+    }
+
+    /**
+     * 写入用户答题状态，跳过已删除的题目
+     */
+    private List<Long> writePerUser(List<PendingAnswer> answers) {
+        Set<Long> ids = new HashSet<>(answers.size() * 2);
+        for (PendingAnswer a : answers) {
+            ids.add(a.getQuestionId());
+        }
+        Set<Long> existingIds = new HashSet<>(questionMapper.lockExistingIds(new ArrayList<>(ids)));
+        if (existingIds.isEmpty()) {
+            return List.of();
+        }
+
+        List<PendingAnswer> existing = new ArrayList<>(answers.size());
+        List<Long> writtenIds = new ArrayList<>(answers.size());
+        // 每个 (用户, 题库) 保留一条作答，有序以固定版本号行的加锁顺序
+        TreeSet<PendingAnswer> versionKeys = new TreeSet<>(USER_BANK_ORDER);
+        for (PendingAnswer a : answers) {
+            if (existingIds.contains(a.getQuestionId())) {
+                existing.add(a);
+                writtenIds.add(a.getQuestionId());
+                versionKeys.add(a);
+            }
+        }
+        userAnswerStateMapper.upsert(existing);
+        reviewScheduler.record(existing);
+        userAnswerStateMapper.bumpVersions(new ArrayList<>(versionKeys));
+
+        log.debug("批量写入用户答题状态 {} 条，涉及用户题库 {} 个", existing.size(), versionKeys.size());
+        return writtenIds;
+    }
+
+    /**
+     * 写入题目表上的共享答题状态并补偿题库计数
+     */
+    private List<Long> writeShared(List<PendingAnswer> answers) {
+        if (answers.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> ids = new ArrayList<>(answers.size());
+        for (PendingAnswer a : answers) {
+            ids.add(a.getQuestionId());
+        }
+        List<Question> before = questionMapper.lockAnswerStates(ids);
+        if (before.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, PendingAnswer> byId = new HashMap<>(answers.size() * 2);
+        for (PendingAnswer a : answers) {
+            byId.put(a.getQuestionId(), a);
+        }
+        // (bankId, type, stripe) -> {completedDelta, wrongDelta, correctDelta}，按分片主键排序
+        TreeMap<StripeKey, int[]> deltas = new TreeMap<>();
+        Set<Long> banks = new HashSet<>();
+        List<PendingAnswer> existing = new ArrayList<>(before.size());
+        List<Long> updatedIds = new ArrayList<>(before.size());
+        for (Question old : before) {
+            PendingAnswer a = byId.get(old.getId());
+            existing.add(a);
+            updatedIds.add(old.getId());
+
+            boolean oldCompleted = Integer.valueOf(1).equals(old.getIsCompleted());
+            boolean oldWrong = oldCompleted && Integer.valueOf(0).equals(old.getIsCorrect());
+            boolean oldCorrect = Integer.valueOf(1).equals(old.getIsCorrect());
+            boolean newWrong = Integer.valueOf(0).equals(a.getIsCorrect());
+            boolean newCorrect = Integer.valueOf(1).equals(a.getIsCorrect());
+            int[] d = deltas.computeIfAbsent(
+                    new StripeKey(old.getBankId(), old.getType(), BankCounterMapper.stripeOf(old.getId())),
+                    k -> new int[3]);
+            banks.add(old.getBankId());
+            d[0] += oldCompleted ? 0 : 1;
+            d[1] += (newWrong ? 1 : 0) - (oldWrong ? 1 : 0);
+            d[2] += (newCorrect ? 1 : 0) - (oldCorrect ? 1 : 0);
+        }
+
+        bankCounterMapper.setSkipBankCounters(1);
+        try {
+            questionMapper.batchUpdateAnswers(existing);
+        } finally {
+            bankCounterMapper.setSkipBankCounters(null);
+        }
+        reviewScheduler.record(existing);
+        // 内存中的共享状态只在提交后更新，回滚（死锁、缓冲重试）时不会留下未落库的状态
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (PendingAnswer a : existing) {
+                    boolean correct = Integer.valueOf(1).equals(a.getIsCorrect());
+                    hotBankStore.applyAnswer(a.getBankId(), a.getQuestionId(), a.getUserAnswer(), correct);
+                    answerKeyIndex.applyAnswer(a.getBankId(), a.getQuestionId(), correct);
+                }
+            }
+        });
+        // 增量为零时作答内容仍有变化，同样需要递增版本号
+        for (Map.Entry<StripeKey, int[]> e : deltas.entrySet()) {
+            StripeKey k = e.getKey();
+            int[] d = e.getValue();
+            bankCounterMapper.addStripeCounters(k.bankId(), k.type(), k.stripe(), d[0], d[1], d[2]);
+        }
+
+        log.debug("批量写入答题状态 {} 条，涉及题库 {} 个", existing.size(), banks.size());
+        return updatedIds;
+    }
+
+    /**
+     * 计数分片主键，按 (bankId, type, stripe) 排序
+     */
+    private record StripeKey(long bankId, String type, int stripe) implements Comparable<StripeKey> {
+        @Override
+        public int compareTo(StripeKey o) {
+            int c = Long.compare(bankId, o.bankId);
+            if (c == 0) {
+                c = type.compareTo(o.type);
+            }
+            return c != 0 ? c : Integer.compare(stripe, o.stripe);
+        }
+    }
+}
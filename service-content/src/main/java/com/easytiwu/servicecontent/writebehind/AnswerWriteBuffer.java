@@ -0,0 +1,205 @@
+package com.easytiwu.servicecontent.writebehind;
+
+import com.easytiwu.servicecontent.cache.AnswerKeyIndex;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 答题状态写后缓冲（可选）
+ * 判题结果立即返回，状态按 (用户, 题目) 合并后由单线程定时或达到阈值时批量写回
+ *
+ * @author sheny
+ */
+@Slf4j
+@Component
+public class AnswerWriteBuffer {
+
+    private final AnswerStateWriter answerStateWriter;
+    private final AnswerKeyIndex answerKeyIndex;
+    private final Map<PendingKey, PendingAnswer> pending = new ConcurrentHashMap<>();
+    /**
+     * 是否已有一次达到阈值触发的刷新在排队，避免积压超过阈值后每次提交都追加刷新任务
+     */
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private ScheduledExecutorService flusher;
+
+    @Value("${content.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${content.write-behind.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${content.write-behind.flush-threshold:500}")
+    private int flushThreshold;
+
+    @Value("${content.write-behind.max-pending:20000}")
+    private int maxPending;
+
+    public AnswerWriteBuffer(AnswerStateWriter answerStateWriter, AnswerKeyIndex answerKeyIndex) {
+        this.answerStateWriter = answerStateWriter;
+        this.answerKeyIndex = answerKeyIndex;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "answer-write-behind");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("答题状态写后缓冲已启用，刷新间隔 {}ms，批量阈值 {}", flushIntervalMs, flushThreshold);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * 是否启用写后缓冲
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 提交答题状态
+     *
+     * @param answer 答题状态
+     * @return 是否已进入缓冲；未启用或积压超过上限时返回 false，调用方应同步写入
+     */
+    public boolean offer(PendingAnswer answer) {
+        if (!enabled) {
+            return false;
+        }
+        // 已在缓冲中的题目直接合并，不增加积压
+        PendingKey key = PendingKey.of(answer);
+        if (pending.size() >= maxPending && !pending.containsKey(key)) {
+            return false;
+        }
+        pending.put(key, answer);
+        if (pending.size() >= flushThreshold && !flusher.isShutdown() && flushScheduled.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                // 先清除标记，刷新期间新到的积压可以再排一次
+                flushScheduled.set(false);
+                flush();
+            });
+        }
+        return true;
+    }
+
+    /**
+     * 丢弃某题库尚未写回的答题状态，用于重置进度前，避免重置后旧作答再被写回
+     *
+     * @param bankId 题库ID
+     * @param userId 用户ID，为空表示共享状态
+     * @return 被丢弃的答题状态，重置回滚时交给 {@link #requeue(List)} 放回
+     */
+    public List<PendingAnswer> discard(Long bankId, Long userId) {
+        List<PendingAnswer> dropped = new ArrayList<>();
+        pending.entrySet().removeIf(e -> {
+            PendingAnswer a = e.getValue();
+            if (bankId.equals(a.getBankId()) && Objects.equals(userId, a.getUserId())) {
+                dropped.add(a);
+                return true;
+            }
+            return false;
+        });
+        return dropped;
+    }
+
+    /**
+     * 放回此前丢弃的答题状态；期间同一题目已有更新的作答时保留新的
+     *
+     * @param answers 答题状态
+     */
+    public void requeue(List<PendingAnswer> answers) {
+        answers.forEach(a -> pending.putIfAbsent(PendingKey.of(a), a));
+    }
+
+    /**
+     * 写回当前积压的全部答题状态，仅在单个刷新线程（或停机时）执行，保证同一题目的写入顺序
+     */
+    private synchronized void flush() {
+        while (!pending.isEmpty()) {
+            List<PendingAnswer> batch = drain();
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                List<Long> written = answerStateWriter.write(batch);
+                if (written.size() < batch.size()) {
+                    invalidateMissing(batch, written);
+                }
+            } catch (Exception e) {
+                log.error("批量写回答题状态失败，{} 条将重试", batch.size(), e);
+                // 已有更新的作答优先，不覆盖
+                batch.forEach(a -> pending.putIfAbsent(PendingKey.of(a), a));
+                return;
+            }
+        }
+    }
+
+    private List<PendingAnswer> drain() {
+        List<PendingAnswer> batch = new ArrayList<>(Math.min(pending.size(), flushThreshold));
+        for (PendingKey key : pending.keySet()) {
+            PendingAnswer a = pending.remove(key);
+            if (a != null) {
+                batch.add(a);
+            }
+            if (batch.size() >= flushThreshold) {
+                break;
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * 部分题目已不存在，说明其题库已删除，使对应答案键失效
+     */
+    private void invalidateMissing(List<PendingAnswer> batch, List<Long> written) {
+        Set<Long> writtenIds = new HashSet<>(written);
+        for (PendingAnswer a : batch) {
+            if (!writtenIds.contains(a.getQuestionId())) {
+                answerKeyIndex.invalidate(a.getBankId());
+            }
+        }
+    }
+
+    /**
+     * 合并键：共享状态的 userId 为空
+     */
+    private record PendingKey(Long userId, Long questionId) {
+        static PendingKey of(PendingAnswer answer) {
+            return new PendingKey(answer.getUserId(), answer.getQuestionId());
+        }
+    }
+}
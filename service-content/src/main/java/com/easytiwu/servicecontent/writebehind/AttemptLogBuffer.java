@@ -0,0 +1,108 @@
+package com.easytiwu.servicecontent.writebehind;
+
+import com.easytiwu.servicecontent.mapper.AnswerAttemptMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 作答流水异步批量追加
+ * 判题线程只入队，由单线程定时以多行 INSERT 落库；队列满时丢弃并计数，不阻塞判题
+ *
+ * @author sheny
+ */
+@Slf4j
+@Component
+public class AttemptLogBuffer {
+
+    private final AnswerAttemptMapper answerAttemptMapper;
+    private final AtomicLong dropped = new AtomicLong();
+    private BlockingQueue<AttemptRecord> queue;
+    private ScheduledExecutorService flusher;
+
+    @Value("${content.attempt-log.enabled:true}")
+    private boolean enabled;
+
+    @Value("${content.attempt-log.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${content.attempt-log.batch-size:500}")
+    private int batchSize;
+
+    @Value("${content.attempt-log.capacity:50000}")
+    private int capacity;
+
+    public AttemptLogBuffer(AnswerAttemptMapper answerAttemptMapper) {
+        this.answerAttemptMapper = answerAttemptMapper;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(capacity);
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "attempt-log-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * 记录一次作答
+     *
+     * @param attempt 作答流水
+     */
+    public void record(AttemptRecord attempt) {
+        if (enabled && !queue.offer(attempt)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * 写出当前积压的全部流水，仅在单个刷新线程（或停机时）执行
+     */
+    private synchronized void flush() {
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) {
+            log.warn("作答流水队列已满，丢弃 {} 条", lost);
+        }
+        List<AttemptRecord> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            try {
+                answerAttemptMapper.insertBatch(batch);
+            } catch (Exception e) {
+                // 流水仅用于统计，失败时不重试，避免部分提交后重复计数
+                log.error("写入作答流水失败，丢弃 {} 条", batch.size(), e);
+            }
+            batch.clear();
+        }
+    }
+}
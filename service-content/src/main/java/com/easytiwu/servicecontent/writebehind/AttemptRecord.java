@@ -0,0 +1,23 @@
+package com.easytiwu.servicecontent.writebehind;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 一次作答流水
+ *
+ * @author sheny
+ */
+@Getter
+@RequiredArgsConstructor
+public class AttemptRecord {
+    private final Long userId;
+    private final Long questionId;
+    private final Long bankId;
+    private final String questionType;
+    private final Integer isCorrect;
+    private final Integer latencyMs;
+    private final LocalDateTime createdAt;
+}
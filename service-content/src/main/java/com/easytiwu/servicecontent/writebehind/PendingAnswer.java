@@ -0,0 +1,20 @@
+package com.easytiwu.servicecontent.writebehind;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 待写回的答题状态，同一用户对同一题目的多次作答只保留最后一次
+ * userId 为空时写入题目表上的共享状态，否则写入 user_answer_states
+ *
+ * @author sheny
+ */
+@Getter
+@RequiredArgsConstructor
+public class PendingAnswer {
+    private final Long userId;
+    private final Long questionId;
+    private final Long bankId;
+    private final String userAnswer;
+    private final Integer isCorrect;
+}
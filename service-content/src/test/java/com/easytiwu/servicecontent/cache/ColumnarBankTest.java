@@ -0,0 +1,114 @@
+package com.easytiwu.servicecontent.cache;
+
+import com.easytiwu.servicecontent.dto.QuestionDTO;
+import com.easytiwu.servicecontent.dto.QuestionFields;
+import com.easytiwu.servicecontent.entity.QuestionJoinRow;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author sheny
+ */
+class ColumnarBankTest {
+
+    private static QuestionJoinRow row(long id, String type, String content, String answer, String analysis,
+                                       String label, String text) {
+        QuestionJoinRow row = new QuestionJoinRow();
+        row.setId(id);
+        row.setType(type);
+        row.setContent(content);
+        row.setCorrectAnswer(answer);
+        row.setAnalysis(analysis);
+        row.setIsCompleted(0);
+        row.setOptionLabel(label);
+        row.setOptionText(text);
+        return row;
+    }
+
+    private static ColumnarBank build(QuestionJoinRow... rows) {
+        ColumnarBank.Builder builder = new ColumnarBank.Builder(7L);
+        DefaultResultContext<QuestionJoinRow> context = new DefaultResultContext<>();
+        for (QuestionJoinRow row : rows) {
+            context.nextResultObject(row);
+            builder.handleResult(context);
+        }
+        return builder.build();
+    }
+
+    @Test
+    void stringsAndOptionsRoundTripThroughArena() {
+        ColumnarBank bank = build(
+                row(10, "single", "题干一 ✓", "B", "解析一", "A", "选项甲"),
+                row(10, "single", "题干一 ✓", "B", "解析一", "B", "选项乙"),
+                row(20, "fill_blank", "第二题", "答案", null, null, null),
+                row(30, "true_false", "", "1", "", null, null));
+
+        assertEquals(3, bank.size());
+        assertEquals(1, bank.indexOf(20));
+        assertTrue(bank.indexOf(15) < 0);
+
+        QuestionDTO first = bank.toDTO(0, QuestionFields.ALL, false, null, null);
+        assertEquals(10L, first.getId());
+        assertEquals("single", first.getType());
+        assertEquals("题干一 ✓", first.getContent());
+        assertEquals("B", first.getCorrectAnswer());
+        assertEquals("解析一", first.getAnalysis());
+        assertEquals(2, first.getOptions().size());
+        assertEquals("A", first.getOptions().get(0).getLabel());
+        assertEquals("选项甲", first.getOptions().get(0).getText());
+        assertEquals("B", first.getOptions().get(1).getLabel());
+        assertEquals("选项乙", first.getOptions().get(1).getText());
+
+        QuestionDTO second = bank.toDTO(1, QuestionFields.ALL, false, null, null);
+        assertEquals("第二题", second.getContent());
+        assertNull(second.getAnalysis());
+        assertTrue(second.getOptions().isEmpty());
+
+        // 空串与 NULL 可区分
+        QuestionDTO third = bank.toDTO(2, QuestionFields.ALL, false, null, null);
+        assertEquals("", third.getContent());
+        assertEquals("", third.getAnalysis());
+        assertEquals("", bank.analysis(2));
+    }
+
+    @Test
+    void sharedStateReflectsWritesAfterSnapshot() {
+        ColumnarBank bank = build(
+                row(1, "single", "q1", "A", null, null, null),
+                row(2, "single", "q2", "B", null, null, null));
+
+        ColumnarBank.SharedState before = bank.sharedState();
+        bank.applyAnswer(1, "B", true);
+        ColumnarBank.SharedState after = bank.sharedState();
+
+        assertFalse(before.completed().get(1));
+        assertNull(before.userAnswers()[1]);
+        assertTrue(after.completed().get(1));
+        assertTrue(after.correct().get(1));
+        assertEquals("B", after.userAnswers()[1]);
+        assertFalse(after.completed().get(0));
+    }
+
+    @Test
+    void growsBeyondInitialBuffers() {
+        int n = 1000;
+        QuestionJoinRow[] rows = new QuestionJoinRow[n];
+        String longText = "长".repeat(100);
+        for (int i = 0; i < n; i++) {
+            rows[i] = row(i + 1, "short_answer", longText + i, "答" + i, null, null, null);
+        }
+        ColumnarBank bank = build(rows);
+
+        assertEquals(n, bank.size());
+        for (int i = 0; i < n; i += 97) {
+            QuestionDTO dto = bank.toDTO(i, QuestionFields.ALL, false, null, null);
+            assertEquals(longText + i, dto.getContent());
+            assertEquals("答" + i, dto.getCorrectAnswer());
+        }
+    }
+}
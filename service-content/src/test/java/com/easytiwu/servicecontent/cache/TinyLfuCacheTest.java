@@ -0,0 +1,74 @@
+package com.easytiwu.servicecontent.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author sheny
+ */
+class TinyLfuCacheTest {
+
+    private static TinyLfuCache<Integer, String> cache(long maxBytes) {
+        return new TinyLfuCache<>(maxBytes, 1024, String::length);
+    }
+
+    @Test
+    void weightedSizeNeverExceedsCapacity() {
+        TinyLfuCache<Integer, String> cache = cache(100);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, "x".repeat(1 + i % 5));
+            assertTrue(cache.weightedSize() <= 100, "容量超限: " + cache.weightedSize());
+        }
+    }
+
+    @Test
+    void rejectsEntryLargerThanMainSpace() {
+        TinyLfuCache<Integer, String> cache = cache(100);
+        cache.put(1, "x".repeat(100));
+        assertNull(cache.get(1));
+        assertEquals(0, cache.weightedSize());
+    }
+
+    @Test
+    void frequentlyReadEntriesSurviveOneHitScan() {
+        TinyLfuCache<Integer, String> cache = cache(100);
+        for (int i = 0; i < 50; i++) {
+            cache.put(i, "v");
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                cache.get(i);
+            }
+        }
+        // 只访问一次的大量新条目频率低于热点条目，不能挤出它们
+        for (int i = 1000; i < 3000; i++) {
+            cache.put(i, "v");
+        }
+        int survived = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.get(i) != null) {
+                survived++;
+            }
+        }
+        assertTrue(survived >= 48, "热点条目仅保留 " + survived + " 个");
+    }
+
+    @Test
+    void admitsCandidateMoreFrequentThanVictim() {
+        TinyLfuCache<Integer, String> cache = cache(100);
+        for (int i = 0; i < 200; i++) {
+            cache.put(i, "v");
+        }
+        // 未命中的读取同样计入频率，候选条目被挤出窗口时频率高于主区的淘汰候选
+        for (int round = 0; round < 5; round++) {
+            cache.get(-1);
+        }
+        cache.put(-1, "hot");
+        cache.put(-2, "v");
+        assertNotNull(cache.get(-1));
+    }
+}
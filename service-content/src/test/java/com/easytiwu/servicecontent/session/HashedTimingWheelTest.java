@@ -0,0 +1,78 @@
+package com.easytiwu.servicecontent.session;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author sheny
+ */
+class HashedTimingWheelTest {
+
+    private final HashedTimingWheel wheel = new HashedTimingWheel("timing-wheel-test", 10, 8);
+
+    @AfterEach
+    void stop() {
+        wheel.stop();
+    }
+
+    @Test
+    void expiresInDeadlineOrderAcrossRounds() throws InterruptedException {
+        List<Integer> fired = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(3);
+        // 8 个槽位、10ms 一格，一圈 80ms：250ms 需要转三圈，与 30ms 落在相邻槽位
+        wheel.schedule(() -> {
+            fired.add(250);
+            done.countDown();
+        }, 250);
+        wheel.schedule(() -> {
+            fired.add(30);
+            done.countDown();
+        }, 30);
+        wheel.schedule(() -> {
+            fired.add(120);
+            done.countDown();
+        }, 120);
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of(30, 120, 250), fired);
+    }
+
+    @Test
+    void doesNotFireBeforeDeadline() throws InterruptedException {
+        long start = System.nanoTime();
+        CountDownLatch done = new CountDownLatch(1);
+        long[] firedAfterMs = new long[1];
+        wheel.schedule(() -> {
+            firedAfterMs[0] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            done.countDown();
+        }, 100);
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertTrue(firedAfterMs[0] >= 100, "提前到期: " + firedAfterMs[0] + "ms");
+    }
+
+    @Test
+    void cancelledTimeoutNeverFires() throws InterruptedException {
+        List<String> fired = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        HashedTimingWheel.Timeout cancelled = wheel.schedule(() -> fired.add("cancelled"), 50);
+        wheel.schedule(() -> {
+            fired.add("kept");
+            done.countDown();
+        }, 100);
+
+        assertTrue(cancelled.cancel());
+        assertFalse(cancelled.cancel());
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of("kept"), fired);
+    }
+}
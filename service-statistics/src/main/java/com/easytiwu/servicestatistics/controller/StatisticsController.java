@@ -1,15 +1,22 @@
 package com.easytiwu.servicestatistics.controller;
 
 import com.easytiwu.commonexception.result.Result;
+import com.easytiwu.servicestatistics.dto.AccuracyBucketDTO;
+import com.easytiwu.servicestatistics.dto.MissedQuestionDTO;
 import com.easytiwu.servicestatistics.dto.StatisticsDTO;
 import com.easytiwu.servicestatistics.service.StatisticsService;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 /**
  * 统计控制器
  * @author sheny
@@ -44,4 +51,37 @@ public class StatisticsController {
         log.info("成功获取统计数据概览");
         return Result.success(statistics);
     }
-}
\ No newline at end of file
+
+    /**
+     * 获取正确率趋势
+     * @param granularity 粒度：hour 或 day
+     * @param days 统计最近的天数
+     * @param bankId 题库ID，可选
+     * @return 按时间升序的正确率桶
+     */
+    @GetMapping("/accuracy-trend")
+    public Result<List<AccuracyBucketDTO>> getAccuracyTrend(
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(defaultValue = "7") @Min(value = 1, message = "天数必须大于0")
+            @Max(value = 366, message = "天数不能超过366") Integer days,
+            @RequestParam(required = false) Long bankId) {
+        return Result.success(statisticsService.getAccuracyTrend(granularity, days, bankId));
+    }
+
+    /**
+     * 获取最近答错次数最多的题目
+     * @param days 统计最近的天数
+     * @param limit 返回条数
+     * @param bankId 题库ID，可选
+     * @return 题目列表
+     */
+    @GetMapping("/most-missed")
+    public Result<List<MissedQuestionDTO>> getMostMissedQuestions(
+            @RequestParam(defaultValue = "7") @Min(value = 1, message = "天数必须大于0")
+            @Max(value = 366, message = "天数不能超过366") Integer days,
+            @RequestParam(defaultValue = "10") @Min(value = 1, message = "条数必须大于0")
+            @Max(value = 100, message = "条数不能超过100") Integer limit,
+            @RequestParam(required = false) Long bankId) {
+        return Result.success(statisticsService.getMostMissedQuestions(days, limit, bankId));
+    }
+}
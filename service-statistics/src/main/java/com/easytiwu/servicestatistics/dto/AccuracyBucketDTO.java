@@ -0,0 +1,38 @@
+package com.easytiwu.servicestatistics.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 时间桶内的作答正确率
+ * @author sheny
+ */
+@Data
+public class AccuracyBucketDTO {
+
+    /**
+     * 桶起始时间（按天汇总时为当日零点）
+     */
+    private LocalDateTime bucketStart;
+
+    /**
+     * 作答次数
+     */
+    private Long attempts;
+
+    /**
+     * 答对次数
+     */
+    private Long correctCount;
+
+    /**
+     * 正确率（百分比，保留两位小数）
+     */
+    private Double accuracy;
+
+    /**
+     * 平均作答耗时（毫秒），无上报时为 null
+     */
+    private Long avgLatencyMs;
+}
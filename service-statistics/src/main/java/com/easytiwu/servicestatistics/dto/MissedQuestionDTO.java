@@ -0,0 +1,41 @@
+package com.easytiwu.servicestatistics.dto;
+
+import lombok.Data;
+
+/**
+ * 错误次数最多的题目
+ * @author sheny
+ */
+@Data
+public class MissedQuestionDTO {
+
+    /**
+     * 题目ID
+     */
+    private Long questionId;
+
+    /**
+     * 题库ID
+     */
+    private Long bankId;
+
+    /**
+     * 题型
+     */
+    private String questionType;
+
+    /**
+     * 作答次数
+     */
+    private Long attempts;
+
+    /**
+     * 答错次数
+     */
+    private Long wrongCount;
+
+    /**
+     * 错误率（百分比，保留两位小数）
+     */
+    private Double wrongRate;
+}
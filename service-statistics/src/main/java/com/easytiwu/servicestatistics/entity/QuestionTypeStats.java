@@ -0,0 +1,33 @@
+package com.easytiwu.servicestatistics.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+/**
+ * 题型统计，对应 question_type_stats 表
+ * @author sheny
+ */
+@Data
+@TableName("question_type_stats")
+public class QuestionTypeStats {
+
+    /**
+     * 题型
+     */
+    private String type;
+
+    /**
+     * 题目数
+     */
+    private Long questionCount;
+
+    /**
+     * 已完成题数
+     */
+    private Long completedCount;
+
+    /**
+     * 最近一次答对的题数
+     */
+    private Long correctCount;
+}
@@ -0,0 +1,66 @@
+package com.easytiwu.servicestatistics.job;
+
+import com.easytiwu.servicestatistics.service.AttemptRollupService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 作答流水定时汇总任务
+ * 每个周期循环汇总直至追平，积压较多时分多批、多个事务完成
+ *
+ * @author sheny
+ */
+@Slf4j
+@Component
+public class AttemptRollupJob {
+
+    private final AttemptRollupService attemptRollupService;
+    private ScheduledExecutorService scheduler;
+
+    @Value("${statistics.rollup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${statistics.rollup.interval-ms:60000}")
+    private long intervalMs;
+
+    public AttemptRollupJob(AttemptRollupService attemptRollupService) {
+        this.attemptRollupService = attemptRollupService;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "attempt-rollup");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::run, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted() && attemptRollupService.rollupNext() > 0) {
+                // 继续下一批
+            }
+        } catch (Exception e) {
+            log.error("作答流水汇总失败，下个周期重试", e);
+        }
+    }
+}
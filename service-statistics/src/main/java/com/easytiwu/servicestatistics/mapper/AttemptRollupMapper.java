@@ -0,0 +1,103 @@
+package com.easytiwu.servicestatistics.mapper;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+/**
+ * 作答流水汇总
+ * 以 attempt_rollup_state 中的流水ID为水位，每次把 (fromId, toId] 区间的流水累加进小时桶与日桶
+ * toId 不越过仍未提交的流水ID，否则该流水提交后落在水位之下，永远不会被汇总
+ *
+ * @author sheny
+ */
+@Mapper
+public interface AttemptRollupMapper {
+
+    /**
+     * 读取并锁定汇总水位，多实例同时汇总时串行执行
+     *
+     * @return 已汇总的最大流水ID
+     */
+    @Select("SELECT last_attempt_id FROM attempt_rollup_state WHERE name = 'answer_attempts' FOR UPDATE")
+    Long lockWatermark();
+
+    /**
+     * 水位之后第一条仍处于宽限期内的流水ID，宽限期按数据库时钟计算
+     *
+     * @param fromId       当前水位
+     * @param graceSeconds 宽限期（秒）
+     * @return 流水ID，不存在时为 null
+     */
+    @Select("SELECT MIN(id) FROM answer_attempts "
+            + "WHERE id > #{fromId} AND created_at >= NOW(3) - INTERVAL #{graceSeconds} SECOND")
+    Long selectFirstUnsettledId(@Param("fromId") long fromId, @Param("graceSeconds") long graceSeconds);
+
+    /**
+     * 按主键顺序读取水位之后已提交可见的流水ID，用于发现尚未提交的事务留下的ID缺口
+     *
+     * @param fromId 当前水位（不含）
+     * @param maxId  最大流水ID（含）
+     * @param limit  读取条数
+     * @return 流水ID，升序
+     */
+    @Select("SELECT id FROM answer_attempts WHERE id > #{fromId} AND id <= #{maxId} ORDER BY id LIMIT #{limit}")
+    List<Long> selectIdsAfter(@Param("fromId") long fromId, @Param("maxId") long maxId, @Param("limit") int limit);
+
+    /**
+     * 将区间内的流水累加到小时桶
+     *
+     * @param fromId 起始流水ID（不含）
+     * @param toId   结束流水ID（含）
+     * @return 受影响行数
+     */
+    @Insert("""
+            INSERT INTO attempt_rollup_hourly
+                (bucket_start, bank_id, question_type, attempts, correct_count, latency_sum_ms, latency_count)
+            SELECT DATE_FORMAT(created_at, '%Y-%m-%d %H:00:00'), bank_id, question_type,
+                   COUNT(*), SUM(is_correct), COALESCE(SUM(latency_ms), 0), COUNT(latency_ms)
+            FROM answer_attempts
+            WHERE id > #{fromId} AND id <= #{toId}
+            GROUP BY DATE_FORMAT(created_at, '%Y-%m-%d %H:00:00'), bank_id, question_type
+            ON DUPLICATE KEY UPDATE attempts = attempts + VALUES(attempts),
+                                    correct_count = correct_count + VALUES(correct_count),
+                                    latency_sum_ms = latency_sum_ms + VALUES(latency_sum_ms),
+                                    latency_count = latency_count + VALUES(latency_count)
+            """)
+    int rollupHourly(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * 将区间内的流水累加到日桶（按题目）
+     *
+     * @param fromId 起始流水ID（不含）
+     * @param toId   结束流水ID（含）
+     * @return 受影响行数
+     */
+    @Insert("""
+            INSERT INTO attempt_rollup_daily
+                (bucket_date, question_id, bank_id, question_type, attempts, correct_count, latency_sum_ms, latency_count)
+            SELECT DATE(created_at), question_id, bank_id, question_type,
+                   COUNT(*), SUM(is_correct), COALESCE(SUM(latency_ms), 0), COUNT(latency_ms)
+            FROM answer_attempts
+            WHERE id > #{fromId} AND id <= #{toId}
+            GROUP BY DATE(created_at), question_id, bank_id, question_type
+            ON DUPLICATE KEY UPDATE attempts = attempts + VALUES(attempts),
+                                    correct_count = correct_count + VALUES(correct_count),
+                                    latency_sum_ms = latency_sum_ms + VALUES(latency_sum_ms),
+                                    latency_count = latency_count + VALUES(latency_count)
+            """)
+    int rollupDaily(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * 推进汇总水位
+     *
+     * @param toId 新水位
+     * @return 受影响行数
+     */
+    @Update("UPDATE attempt_rollup_state SET last_attempt_id = #{toId} WHERE name = 'answer_attempts'")
+    int advanceWatermark(@Param("toId") long toId);
+}
@@ -0,0 +1,87 @@
+package com.easytiwu.servicestatistics.mapper;
+
+import com.easytiwu.servicestatistics.dto.AccuracyBucketDTO;
+import com.easytiwu.servicestatistics.dto.MissedQuestionDTO;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 作答汇总数据查询，只读取预聚合的小时桶与日桶
+ * @author sheny
+ */
+@Mapper
+public interface AttemptStatisticsMapper {
+
+    /**
+     * 按小时统计正确率
+     *
+     * @param since  起始时间（含）
+     * @param bankId 题库ID，为空表示全部题库
+     * @return 按时间升序的小时桶
+     */
+    @Select("""
+            <script>
+            SELECT bucket_start, SUM(attempts) AS attempts, SUM(correct_count) AS correct_count,
+                   ROUND(SUM(correct_count) * 100 / SUM(attempts), 2) AS accuracy,
+                   ROUND(SUM(latency_sum_ms) / NULLIF(SUM(latency_count), 0)) AS avg_latency_ms
+            FROM attempt_rollup_hourly
+            WHERE bucket_start &gt;= #{since}
+            <if test="bankId != null">AND bank_id = #{bankId}</if>
+            GROUP BY bucket_start
+            ORDER BY bucket_start
+            </script>
+            """)
+    List<AccuracyBucketDTO> selectHourlyAccuracy(@Param("since") LocalDateTime since, @Param("bankId") Long bankId);
+
+    /**
+     * 按天统计正确率
+     *
+     * @param since  起始日期（含）
+     * @param bankId 题库ID，为空表示全部题库
+     * @return 按日期升序的日桶
+     */
+    @Select("""
+            <script>
+            SELECT CAST(bucket_date AS DATETIME) AS bucket_start, SUM(attempts) AS attempts,
+                   SUM(correct_count) AS correct_count,
+                   ROUND(SUM(correct_count) * 100 / SUM(attempts), 2) AS accuracy,
+                   ROUND(SUM(latency_sum_ms) / NULLIF(SUM(latency_count), 0)) AS avg_latency_ms
+            FROM attempt_rollup_daily
+            WHERE bucket_date &gt;= #{since}
+            <if test="bankId != null">AND bank_id = #{bankId}</if>
+            GROUP BY bucket_date
+            ORDER BY bucket_date
+            </script>
+            """)
+    List<AccuracyBucketDTO> selectDailyAccuracy(@Param("since") LocalDate since, @Param("bankId") Long bankId);
+
+    /**
+     * 统计区间内答错次数最多的题目
+     *
+     * @param since  起始日期（含）
+     * @param bankId 题库ID，为空表示全部题库
+     * @param limit  返回条数
+     * @return 按答错次数降序的题目
+     */
+    @Select("""
+            <script>
+            SELECT question_id, bank_id, question_type, SUM(attempts) AS attempts,
+                   SUM(attempts) - SUM(correct_count) AS wrong_count,
+                   ROUND((SUM(attempts) - SUM(correct_count)) * 100 / SUM(attempts), 2) AS wrong_rate
+            FROM attempt_rollup_daily
+            WHERE bucket_date &gt;= #{since}
+            <if test="bankId != null">AND bank_id = #{bankId}</if>
+            GROUP BY question_id, bank_id, question_type
+            HAVING wrong_count &gt; 0
+            ORDER BY wrong_count DESC, wrong_rate DESC
+            LIMIT #{limit}
+            </script>
+            """)
+    List<MissedQuestionDTO> selectMostMissed(@Param("since") LocalDate since, @Param("bankId") Long bankId,
+                                             @Param("limit") int limit);
+}
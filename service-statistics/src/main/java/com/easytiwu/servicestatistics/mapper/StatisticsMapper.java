@@ -1,20 +1,31 @@
 package com.easytiwu.servicestatistics.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.easytiwu.servicestatistics.entity.QuestionTypeStats;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Select;
 
+import java.util.List;
+
 /**
  * 统计数据访问层接口
  * @author sheny
  */
 @Mapper
 public interface StatisticsMapper extends BaseMapper<Object> {
-    
+
+    /**
+     * 读取未删除的题库数，由 question_banks 触发器维护，按主键读取单行
+     * @return 题库总数
+     */
+    @Select("SELECT COALESCE((SELECT live_count FROM question_bank_totals WHERE id = 1), 0)")
+    long selectBankTotal();
+
     /**
-     * 调用数据库存储过程获取统计数据
-     * @return JSON格式的统计数据字符串
+     * 读取按题型汇总的题目统计，由 service-bank 折叠题目增量时维护，行数即题型数
+     * @return 存在题目的各题型统计
      */
-    @Select("SELECT get_question_stats() as stats")
-    String getQuestionStatistics();
-}
\ No newline at end of file
+    @Select("SELECT type, question_count, completed_count, correct_count FROM question_type_stats "
+            + "WHERE question_count > 0")
+    List<QuestionTypeStats> selectTypeStats();
+}
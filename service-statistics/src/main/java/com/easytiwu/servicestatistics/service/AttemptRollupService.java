@@ -0,0 +1,102 @@
+package com.easytiwu.servicestatistics.service;
+
+import com.easytiwu.servicestatistics.mapper.AttemptRollupMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 作答流水汇总服务
+ * 流水按ID增量汇总，桶累加与水位推进在同一事务内完成，任一步失败整体回滚，不会重复计数
+ * 自增ID在插入时分配、提交后才可见，水位只推进到第一个ID缺口之前；缺口持续超过超时时间才视为已回滚并跳过
+ *
+ * @author sheny
+ */
+@Slf4j
+@Service
+public class AttemptRollupService {
+
+    private final AttemptRollupMapper attemptRollupMapper;
+
+    @Value("${statistics.rollup.grace-seconds:10}")
+    private long graceSeconds;
+
+    @Value("${statistics.rollup.batch-size:50000}")
+    private int batchSize;
+
+    @Value("${statistics.rollup.gap-timeout-seconds:300}")
+    private long gapTimeoutSeconds;
+
+    /**
+     * 缺口起始ID -> 首次发现的时间（毫秒）
+     */
+    private final Map<Long, Long> gaps = new ConcurrentHashMap<>();
+
+    public AttemptRollupService(AttemptRollupMapper attemptRollupMapper) {
+        this.attemptRollupMapper = attemptRollupMapper;
+    }
+
+    /**
+     * 汇总水位之后的一批流水
+     * 内容服务异步写流水，宽限期内的流水可能尚有更小ID未提交，留待下一轮
+     *
+     * @return 本轮汇总的流水ID区间长度，0 表示没有可汇总的流水
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public long rollupNext() {
+        Long watermark = attemptRollupMapper.lockWatermark();
+        if (watermark == null) {
+            log.warn("attempt_rollup_state 缺少 answer_attempts 水位记录，跳过汇总");
+            return 0;
+        }
+        long fromId = watermark;
+        Long unsettled = attemptRollupMapper.selectFirstUnsettledId(fromId, graceSeconds);
+        long maxId = unsettled != null ? unsettled - 1 : Long.MAX_VALUE;
+        if (maxId <= fromId) {
+            return 0;
+        }
+        long toId = settledUpTo(fromId, attemptRollupMapper.selectIdsAfter(fromId, maxId, batchSize));
+        if (toId <= fromId) {
+            return 0;
+        }
+
+        attemptRollupMapper.rollupHourly(fromId, toId);
+        attemptRollupMapper.rollupDaily(fromId, toId);
+        attemptRollupMapper.advanceWatermark(toId);
+        log.debug("作答流水汇总完成，区间 ({}, {}]", fromId, toId);
+        return toId - fromId;
+    }
+
+    /**
+     * 从水位开始沿连续的流水ID前进，遇到新出现的缺口即停止
+     * 缺口可能是仍在写入的事务，也可能是已回滚的事务；超过超时时间仍未补上时按回滚处理
+     *
+     * @param fromId 当前水位
+     * @param ids    水位之后可见的流水ID，升序
+     * @return 可以安全汇总到的流水ID
+     */
+    private long settledUpTo(long fromId, List<Long> ids) {
+        long now = System.currentTimeMillis();
+        long expected = fromId + 1;
+        long toId = fromId;
+        for (long id : ids) {
+            if (id != expected) {
+                long firstSeen = gaps.computeIfAbsent(expected, k -> now);
+                if (now - firstSeen < gapTimeoutSeconds * 1000) {
+                    break;
+                }
+                log.warn("作答流水ID缺口 [{}, {}) 超过 {} 秒未提交，按已回滚跳过", expected, id, gapTimeoutSeconds);
+            }
+            toId = id;
+            expected = id + 1;
+        }
+        long settled = toId;
+        gaps.keySet().removeIf(gap -> gap <= settled);
+        return toId;
+    }
+}
@@ -1,17 +1,24 @@
 package com.easytiwu.servicestatistics.service;
 
-import com.alibaba.fastjson2.JSON;
-import com.alibaba.fastjson2.JSONObject;
+import com.easytiwu.commonexception.enums.ErrorCode;
 import com.easytiwu.commonexception.exception.BusinessException;
 import com.easytiwu.commonexception.exception.SystemException;
 import com.easytiwu.commonexception.utils.ExceptionLogger;
+import com.easytiwu.servicestatistics.dto.AccuracyBucketDTO;
+import com.easytiwu.servicestatistics.dto.MissedQuestionDTO;
 import com.easytiwu.servicestatistics.dto.StatisticsDTO;
+import com.easytiwu.servicestatistics.entity.QuestionTypeStats;
+import com.easytiwu.servicestatistics.mapper.AttemptStatisticsMapper;
 import com.easytiwu.servicestatistics.mapper.StatisticsMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -23,61 +30,81 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class StatisticsService {
     
+    /**
+     * 按小时统计时允许的最大天数
+     */
+    private static final int MAX_HOURLY_DAYS = 7;
+
     private final StatisticsMapper statisticsMapper;
+    private final AttemptStatisticsMapper attemptStatisticsMapper;
     private final ExceptionLogger exceptionLogger = new ExceptionLogger();
     
     /**
      * 获取统计数据概览
+     * 题型统计按主键读取预聚合表，题目总数由各题型相加，不扫描题目表
      * @return 统计数据DTO
      */
     public StatisticsDTO getStatisticsOverview() {
         try {
-            // 1. 调用存储过程获取数据
-            String jsonResult = statisticsMapper.getQuestionStatistics();
-            
-            if (jsonResult == null || jsonResult.trim().isEmpty()) {
-                log.error("存储过程返回数据为空");
-                throw new BusinessException("统计数据为空");
-            }
-            
-            // 2. 解析JSON数据
-            JSONObject jsonObject = JSON.parseObject(jsonResult);
-            
-            // 3. 转换为DTO
+            List<QuestionTypeStats> rows = statisticsMapper.selectTypeStats();
+
             StatisticsDTO statisticsDTO = new StatisticsDTO();
-            statisticsDTO.setBankTotal(jsonObject.getLong("bank_total"));
-            statisticsDTO.setQuestionTotal(jsonObject.getLong("question_total"));
-            
-            // 4. 处理分类统计数据
-            JSONObject byTypeJson = jsonObject.getJSONObject("by_type");
-            if (byTypeJson != null) {
-                Map<String, StatisticsDTO.TypeStatistics> byType = new HashMap<>();
-                
-                for (String type : byTypeJson.keySet()) {
-                    JSONObject typeData = byTypeJson.getJSONObject(type);
-                    StatisticsDTO.TypeStatistics typeStats = new StatisticsDTO.TypeStatistics();
-                    typeStats.setCount(typeData.getLong("count"));
-                    typeStats.setCompletedCount(typeData.getLong("completed_count"));
-                    typeStats.setCorrectCount(typeData.getLong("correct_count"));
-                    byType.put(type, typeStats);
-                }
-                
-                statisticsDTO.setByType(byType);
+            statisticsDTO.setBankTotal(statisticsMapper.selectBankTotal());
+
+            long questionTotal = 0;
+            Map<String, StatisticsDTO.TypeStatistics> byType = new HashMap<>();
+            for (QuestionTypeStats row : rows) {
+                StatisticsDTO.TypeStatistics typeStats = new StatisticsDTO.TypeStatistics();
+                typeStats.setCount(row.getQuestionCount());
+                typeStats.setCompletedCount(row.getCompletedCount());
+                typeStats.setCorrectCount(row.getCorrectCount());
+                byType.put(row.getType(), typeStats);
+                questionTotal += row.getQuestionCount();
             }
-            
-            log.info("成功获取统计数据，题库总数：{}，题目总数：{}", 
+            statisticsDTO.setQuestionTotal(questionTotal);
+            statisticsDTO.setByType(byType);
+
+            log.info("成功获取统计数据，题库总数：{}，题目总数：{}",
                     statisticsDTO.getBankTotal(), statisticsDTO.getQuestionTotal());
-            
+
             return statisticsDTO;
-            
+
         } catch (Exception e) {
-            if (e instanceof BusinessException) {
-                throw e;
-            }
-            
             log.error("获取统计数据失败", e);
             exceptionLogger.logException(e);
             throw new SystemException("获取统计数据失败：" + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 获取正确率趋势，读取预聚合的时间桶
+     * @param granularity 粒度：hour 或 day
+     * @param days 统计最近的天数（含今天）
+     * @param bankId 题库ID，为空表示全部题库
+     * @return 按时间升序的正确率桶
+     */
+    public List<AccuracyBucketDTO> getAccuracyTrend(String granularity, int days, Long bankId) {
+        if ("hour".equalsIgnoreCase(granularity)) {
+            if (days > MAX_HOURLY_DAYS) {
+                throw new BusinessException(ErrorCode.PARAM_INVALID, "按小时统计最多支持 " + MAX_HOURLY_DAYS + " 天");
+            }
+            LocalDateTime since = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS).minusDays(days - 1L);
+            return attemptStatisticsMapper.selectHourlyAccuracy(since, bankId);
+        }
+        if ("day".equalsIgnoreCase(granularity)) {
+            return attemptStatisticsMapper.selectDailyAccuracy(LocalDate.now().minusDays(days - 1L), bankId);
+        }
+        throw new BusinessException(ErrorCode.PARAM_INVALID, "参数 granularity 仅支持 hour 或 day");
+    }
+
+    /**
+     * 获取最近一段时间答错次数最多的题目
+     * @param days 统计最近的天数（含今天）
+     * @param limit 返回条数
+     * @param bankId 题库ID，为空表示全部题库
+     * @return 按答错次数降序的题目
+     */
+    public List<MissedQuestionDTO> getMostMissedQuestions(int days, int limit, Long bankId) {
+        return attemptStatisticsMapper.selectMostMissed(LocalDate.now().minusDays(days - 1L), bankId, limit);
+    }
+}
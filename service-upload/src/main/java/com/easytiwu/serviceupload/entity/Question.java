@@ -17,8 +17,9 @@ public class Question {
     @TableField("bank_id")
     private Long bankId;
 
-    // 题干
-    private String content;
+    // 题干、答案、解析存于共享的 question_contents
+    @TableField("content_id")
+    private Long contentId;
 
     // ENUM('single','multiple','fill_blank','true_false','short_answer') -> 使用 String
     private String type;
@@ -26,12 +27,6 @@ public class Question {
     @TableField("user_answer")
     private String userAnswer;
 
-    @TableField("correct_answer")
-    private String correctAnswer;
-
-    @TableField("analysis")
-    private String analysis;
-
     @TableField("is_completed")
     private Integer isCompleted;
 
@@ -0,0 +1,68 @@
+package com.easytiwu.serviceupload.mapper;
+
+import com.easytiwu.serviceupload.entity.QuestionContent;
+import com.easytiwu.commoncontent.entity.QuestionContentOption;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 共享题目内容的读写，内容按哈希去重，已存在时只刷新引用时间
+ *
+ * @author sheny
+ */
+@Mapper
+public interface QuestionContentMapper {
+
+    /**
+     * 单条多行写入题目内容，哈希已存在的行只刷新 updated_at，使其不会在回收宽限期内被清理
+     *
+     * @param contents 题目内容
+     * @return 受影响行数
+     */
+    @Insert("""
+            <script>
+            INSERT INTO question_contents (content_hash, content, correct_answer, analysis) VALUES
+            <foreach collection="contents" item="c" separator=",">
+                (UNHEX(#{c.hash}), #{c.content}, #{c.correctAnswer}, #{c.analysis})
+            </foreach>
+            ON DUPLICATE KEY UPDATE updated_at = NOW()
+            </script>
+            """)
+    int upsert(@Param("contents") List<QuestionContent> contents);
+
+    /**
+     * 按哈希查询题目内容ID
+     *
+     * @param hashes 十六进制哈希
+     * @return 仅含 id、hash 的题目内容
+     */
+    @Select("""
+            <script>
+            SELECT id, LOWER(HEX(content_hash)) AS hash FROM question_contents
+            WHERE content_hash IN <foreach collection="hashes" item="h" open="(" separator="," close=")">UNHEX(#{h})</foreach>
+            </script>
+            """)
+    List<QuestionContent> selectIdsByHash(@Param("hashes") Collection<String> hashes);
+
+    /**
+     * 写入题目内容的选项；同一内容的选项由哈希决定，已存在时保持不变
+     *
+     * @param options 选项
+     * @return 受影响行数
+     */
+    @Insert("""
+            <script>
+            INSERT INTO question_content_options (content_id, sort_order, option_content) VALUES
+            <foreach collection="options" item="o" separator=",">
+                (#{o.contentId}, #{o.sortOrder}, #{o.optionContent})
+            </foreach>
+            ON DUPLICATE KEY UPDATE content_id = content_id
+            </script>
+            """)
+    int insertOptions(@Param("options") List<QuestionContentOption> options);
+}
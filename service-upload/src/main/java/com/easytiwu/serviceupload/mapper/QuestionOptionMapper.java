@@ -1,10 +0,0 @@
-package com.easytiwu.serviceupload.mapper;
-
-import com.easytiwu.serviceupload.entity.QuestionOption;
-import com.baomidou.mybatisplus.core.mapper.BaseMapper;
-
-/**
- * @author sheny
- */
-public interface QuestionOptionMapper extends BaseMapper<QuestionOption> {
-}
\ No newline at end of file
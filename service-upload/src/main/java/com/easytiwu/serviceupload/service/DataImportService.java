@@ -9,10 +9,12 @@ import com.easytiwu.commonexception.exception.ParameterException;
 import com.easytiwu.commonexception.exception.SystemException;
 import com.easytiwu.serviceupload.entity.Question;
 import com.easytiwu.serviceupload.entity.QuestionBank;
-import com.easytiwu.serviceupload.entity.QuestionOption;
+import com.easytiwu.serviceupload.entity.QuestionContent;
+import com.easytiwu.commoncontent.entity.QuestionContentOption;
 import com.easytiwu.serviceupload.mapper.QuestionBankMapper;
+import com.easytiwu.serviceupload.mapper.QuestionContentMapper;
 import com.easytiwu.serviceupload.mapper.QuestionMapper;
-import com.easytiwu.serviceupload.mapper.QuestionOptionMapper;
+import com.easytiwu.commoncontent.util.ContentHash;
 import com.easytiwu.serviceupload.util.ValidateJson;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.ibatis.session.ExecutorType;
@@ -22,7 +24,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 题目数据导入服务（专为 JSONL 格式优化）
@@ -37,6 +42,7 @@ import java.util.List;
 public class DataImportService {
 
     private final QuestionBankMapper bankMapper;
+    private final QuestionContentMapper contentMapper;
     private final SqlSessionFactory sqlSessionFactory;
 
     /**
@@ -45,8 +51,10 @@ public class DataImportService {
     private static final int BATCH_SIZE = 1000;
 
     public DataImportService(QuestionBankMapper bankMapper,
+                             QuestionContentMapper contentMapper,
                              SqlSessionFactory sqlSessionFactory) {
         this.bankMapper = bankMapper;
+        this.contentMapper = contentMapper;
         this.sqlSessionFactory = sqlSessionFactory;
     }
 
@@ -130,10 +138,13 @@ public class DataImportService {
 
     /**
      * 批量导入题目和选项
+     * 内容相同的题目（含重复上传的文件）共享同一条 question_contents，题目行只记录引用
      */
     private void batchImportQuestions(Long bankId, JSONArray questionsArray) {
         List<Question> questionBatch = new ArrayList<>();
-        List<QuestionOption> optionBatch = new ArrayList<>();
+        List<String> questionHashes = new ArrayList<>();
+        Map<String, QuestionContent> contents = new LinkedHashMap<>();
+        Map<String, List<QuestionContentOption>> contentOptions = new HashMap<>();
 
         // 预处理所有题目数据
         for (int i = 0; i < questionsArray.size(); i++) {
@@ -146,9 +157,13 @@ public class DataImportService {
 
                 // 收集选项数据（仅单选/多选题）
                 JSONArray options = q.getJSONArray("options");
-                if (options != null && ("single".equals(question.getType()) || "multiple".equals(question.getType()))) {
-                    List<QuestionOption> questionOptions = buildQuestionOptions(options);
-                    optionBatch.addAll(questionOptions);
+                List<QuestionContentOption> questionOptions =
+                        options != null && ("single".equals(question.getType()) || "multiple".equals(question.getType()))
+                                ? buildQuestionOptions(options) : new ArrayList<>();
+                QuestionContent content = buildContent(q, questionOptions);
+                questionHashes.add(content.getHash());
+                if (contents.putIfAbsent(content.getHash(), content) == null) {
+                    contentOptions.put(content.getHash(), questionOptions);
                 }
             } catch (Exception e) {
                 log.error("Failed to process question at index {}", i, e);
@@ -156,14 +171,15 @@ public class DataImportService {
             }
         }
 
+        // 写入（或复用）题目内容，再让题目行引用内容ID
+        Map<String, Long> contentIds = internContents(new ArrayList<>(contents.values()), contentOptions);
+        for (int i = 0; i < questionBatch.size(); i++) {
+            questionBatch.get(i).setContentId(contentIds.get(questionHashes.get(i)));
+        }
+        log.info("Resolved {} questions to {} distinct contents", questionBatch.size(), contents.size());
+
         // 执行批量插入题目
         batchInsertQuestions(questionBatch);
-
-        // 为选项设置正确的 questionId 并批量插入
-        if (!optionBatch.isEmpty()) {
-            assignQuestionIdsToOptions(questionBatch, optionBatch, questionsArray);
-            batchInsertOptions(optionBatch);
-        }
     }
 
     /**
@@ -172,29 +188,35 @@ public class DataImportService {
     private Question buildQuestion(Long bankId, JSONObject q) {
         Question question = new Question();
         question.setBankId(bankId);
-        question.setContent(q.getString("content"));
         question.setType(q.getString("type"));
-        question.setCorrectAnswer(q.getString("correct_answer"));
-        question.setAnalysis(q.getString("analysis"));
         question.setIsCompleted(0);
         question.setIsCorrect(null);
         return question;
     }
 
+    /**
+     * 构建题目内容并计算哈希
+     */
+    private QuestionContent buildContent(JSONObject q, List<QuestionContentOption> options) {
+        QuestionContent content = new QuestionContent();
+        content.setContent(q.getString("content"));
+        content.setCorrectAnswer(q.getString("correct_answer"));
+        content.setAnalysis(q.getString("analysis"));
+        content.setHash(ContentHash.of(content.getContent(), content.getCorrectAnswer(), content.getAnalysis(), options));
+        return content;
+    }
+
     /**
      * 构建题目选项列表
      */
-    private List<QuestionOption> buildQuestionOptions(JSONArray options) {
-        if (options == null) {
-            return new ArrayList<>();
-        }
-        List<QuestionOption> questionOptions = new ArrayList<>();
+    private List<QuestionContentOption> buildQuestionOptions(JSONArray options) {
+        List<QuestionContentOption> questionOptions = new ArrayList<>();
         for (int j = 0; j < options.size(); j++) {
             JSONObject opt = options.getJSONObject(j);
             String label = opt.getString("label");
             String text = opt.getString("text");
             if (label != null && text != null) {
-                QuestionOption option = new QuestionOption();
+                QuestionContentOption option = new QuestionContentOption();
                 option.setSortOrder(label);
                 option.setOptionContent(text);
                 questionOptions.add(option);
@@ -203,6 +225,39 @@ public class DataImportService {
         return questionOptions;
     }
 
+    /**
+     * 分批写入题目内容及其选项，返回哈希到内容ID的映射
+     */
+    private Map<String, Long> internContents(List<QuestionContent> contents,
+                                             Map<String, List<QuestionContentOption>> contentOptions) {
+        Map<String, Long> ids = new HashMap<>(contents.size() * 2);
+        try {
+            for (int from = 0; from < contents.size(); from += BATCH_SIZE) {
+                List<QuestionContent> chunk = contents.subList(from, Math.min(contents.size(), from + BATCH_SIZE));
+                contentMapper.upsert(chunk);
+                List<String> hashes = new ArrayList<>(chunk.size());
+                for (QuestionContent c : chunk) {
+                    hashes.add(c.getHash());
+                }
+                List<QuestionContentOption> options = new ArrayList<>();
+                for (QuestionContent row : contentMapper.selectIdsByHash(hashes)) {
+                    ids.put(row.getHash(), row.getId());
+                    for (QuestionContentOption option : contentOptions.get(row.getHash())) {
+                        option.setContentId(row.getId());
+                        options.add(option);
+                    }
+                }
+                if (!options.isEmpty()) {
+                    contentMapper.insertOptions(options);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to intern question contents", e);
+            throw SystemException.databaseError(e);
+        }
+        return ids;
+    }
+
     /**
      * 批量插入题目
      */
@@ -230,77 +285,4 @@ public class DataImportService {
             throw SystemException.databaseError(e);
         }
     }
-
-    /**
-     * 为选项分配正确的 questionId
-     */
-    private void assignQuestionIdsToOptions(List<Question> questions, List<QuestionOption> allOptions,
-                                            JSONArray questionsArray) {
-        int optionIndex = 0;
-
-        for (int i = 0; i < questions.size(); i++) {
-            Question question = questions.get(i);
-            JSONObject q = questionsArray.getJSONObject(i);
-            JSONArray options = q.getJSONArray("options");
-
-            if (shouldProcessOptions(question, options)) {
-                int[] result = processOptions(question, options, allOptions, optionIndex);
-                optionIndex = result[0];
-                int optionCount = result[1];
-                log.debug("Assigned questionId {} to {} options", question.getId(), optionCount);
-            }
-        }
-    }
-
-    /**
-     * 判断是否应该处理选项
-     */
-    private boolean shouldProcessOptions(Question question, JSONArray options) {
-        return options != null && ("single".equals(question.getType()) || "multiple".equals(question.getType()));
-    }
-
-    /**
-     * 处理选项并分配 questionId
-     */
-    private int[] processOptions(Question question, JSONArray options, List<QuestionOption> allOptions,
-                                 int optionIndex) {
-        int optionCount = 0;
-        for (int j = 0; j < options.size(); j++) {
-            JSONObject opt = options.getJSONObject(j);
-            if (opt.getString("label") != null && opt.getString("text") != null && optionIndex < allOptions.size()) {
-                allOptions.get(optionIndex).setQuestionId(question.getId());
-                optionIndex++;
-                optionCount++;
-            }
-        }
-        return new int[]{optionIndex, optionCount};
-    }
-
-    /**
-     * 批量插入选项
-     */
-    private void batchInsertOptions(List<QuestionOption> options) {
-        if (options.isEmpty()) {
-            return;
-        }
-
-        try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
-            QuestionOptionMapper mapper = sqlSession.getMapper(QuestionOptionMapper.class);
-
-            for (int i = 0; i < options.size(); i++) {
-                mapper.insert(options.get(i));
-
-                if ((i + 1) % BATCH_SIZE == 0 || i == options.size() - 1) {
-                    sqlSession.flushStatements();
-                    log.debug("Batch inserted {} options", Math.min(i + 1, BATCH_SIZE));
-                }
-            }
-
-            sqlSession.commit();
-            log.info("Successfully batch inserted {} options", options.size());
-        } catch (Exception e) {
-            log.error("Failed to batch insert options", e);
-            throw SystemException.databaseError(e);
-        }
-    }
-}
\ No newline at end of file
+}